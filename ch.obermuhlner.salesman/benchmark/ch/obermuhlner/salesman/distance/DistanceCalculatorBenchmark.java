@@ -0,0 +1,83 @@
+package ch.obermuhlner.salesman.distance;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.obermuhlner.salesman.model.BenchmarkCities;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
+
+/**
+ * Measures the throughput of the {@link DistanceCalculator}s for single pairs of cities and for complete tours.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceCalculatorBenchmark {
+
+	@Param({ "Earth", "Mars", "Moon" })
+	public String dataset;
+
+	@Param({ "100", "1000" })
+	public int cityCount;
+
+	@Param({ "Cartesian", "Spherical" })
+	public String calculator;
+
+	private DistanceCalculator distanceCalculator;
+	private List<City> cities;
+	private City[] cityArray;
+	private Problem problem;
+	private int[] cityIndexes;
+	private int index;
+
+	@Setup
+	public void setup() {
+		cities = BenchmarkCities.load(dataset, cityCount);
+		cityArray = cities.toArray(new City[cities.size()]);
+		distanceCalculator = calculator.equals("Cartesian") ? new CartesianDistanceCalculator() : BenchmarkCities.createDistanceCalculator(dataset);
+		problem = new Problem(cities, distanceCalculator);
+		cityIndexes = problem.createTour().toArray();
+	}
+
+	/**
+	 * Calculates the distance between two consecutive cities, cycling through all cities.
+	 */
+	@Benchmark
+	public double distancePair() {
+		City city1 = cityArray[index];
+		index = index + 1 == cityArray.length ? 0 : index + 1;
+		return distanceCalculator.distance(city1, cityArray[index]);
+	}
+
+	/**
+	 * Calculates the distance of a tour through all cities with {@link DistanceCalculator#distance(List)}.
+	 */
+	@Benchmark
+	public double distanceTour() {
+		return distanceCalculator.distance(cities);
+	}
+
+	/**
+	 * Calculates the distance of a tour through all cities with the precalculated distances of the {@link Problem}.
+	 */
+	@Benchmark
+	public double problemDistanceTour() {
+		return problem.distance(cityIndexes);
+	}
+}
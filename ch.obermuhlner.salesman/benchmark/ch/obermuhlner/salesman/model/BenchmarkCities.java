@@ -0,0 +1,80 @@
+package ch.obermuhlner.salesman.model;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
+
+/**
+ * Loads reproducible sets of cities from the bundled datasets for benchmarks.
+ *
+ * The datasets are the CSV files <code>Earth</code>, <code>Mars</code> and <code>Moon</code>.
+ * They are searched in the directory specified by the system property <code>salesman.data</code>,
+ * otherwise in the current directory and in the project directory <code>ch.obermuhlner.salesman</code>.
+ */
+public class BenchmarkCities {
+
+	private static final long SEED = 1;
+
+	private static final String[] DIRECTORIES = { ".", "ch.obermuhlner.salesman", "../ch.obermuhlner.salesman" };
+
+	/**
+	 * Loads the specified number of cities from the specified dataset, weighted by their population.
+	 *
+	 * The same dataset and number of cities always give the same cities in the same order.
+	 *
+	 * @param dataset the name of the dataset (<code>Earth</code>, <code>Mars</code> or <code>Moon</code>)
+	 * @param count the number of cities
+	 * @return the loaded cities
+	 */
+	public static List<City> load(String dataset, int count) {
+		return CitiesLoader.load(findFile(dataset + ".csv").getPath(), new Random(SEED), count);
+	}
+
+	/**
+	 * Creates the {@link SphericalDistanceCalculator} with the radius of the specified dataset.
+	 *
+	 * @param dataset the name of the dataset (<code>Earth</code>, <code>Mars</code> or <code>Moon</code>)
+	 * @return the created {@link DistanceCalculator}
+	 */
+	public static DistanceCalculator createDistanceCalculator(String dataset) {
+		switch (dataset) {
+		case "Earth":
+			return SphericalDistanceCalculator.earthKilometers();
+		case "Mars":
+			return SphericalDistanceCalculator.marsKilometers();
+		case "Moon":
+			return SphericalDistanceCalculator.moonKilometers();
+		}
+
+		throw new IllegalArgumentException("Unknown dataset: " + dataset);
+	}
+
+	/**
+	 * Creates a {@link Problem} with the specified number of cities of the specified dataset.
+	 *
+	 * @param dataset the name of the dataset (<code>Earth</code>, <code>Mars</code> or <code>Moon</code>)
+	 * @param count the number of cities
+	 * @return the created {@link Problem}
+	 */
+	public static Problem createProblem(String dataset, int count) {
+		return new Problem(load(dataset, count), createDistanceCalculator(dataset));
+	}
+
+	private static File findFile(String filename) {
+		String dataDirectory = System.getProperty("salesman.data");
+		if (dataDirectory != null) {
+			return new File(dataDirectory, filename);
+		}
+
+		for (String directory : DIRECTORIES) {
+			File file = new File(directory, filename);
+			if (file.exists()) {
+				return file;
+			}
+		}
+		throw new IllegalArgumentException("Dataset " + filename + " not found, specify the directory with -Dsalesman.data=...");
+	}
+}
@@ -0,0 +1,79 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.obermuhlner.salesman.model.BenchmarkCities;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Measures the evolution steps per second of the {@link GeneticSearch} used by the {@link GeneticSalesman}.
+ *
+ * Every step lets the population grow for the default number of generations of the {@link GeneticSalesman}.
+ * The population is recreated for every iteration, so all iterations start with the same population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneticSearchBenchmark {
+
+	private static final int GENERATION_COUNT = 20;
+
+	@Param({ "Earth", "Mars", "Moon" })
+	public String dataset;
+
+	@Param({ "20", "100" })
+	public int cityCount;
+
+	@Param({ "1" })
+	public int parallelism;
+
+	private Problem problem;
+	private ForkJoinPool pool;
+	private GeneticSearch geneticSearch;
+
+	@Setup
+	public void setup() {
+		problem = BenchmarkCities.createProblem(dataset, cityCount);
+		pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+	}
+
+	@Setup(Level.Iteration)
+	public void setupPopulation() {
+		geneticSearch = new GeneticSearch(problem, new Random(1), 2, false, pool, parallelism, null);
+		geneticSearch.addSimpleSalesmanPopulation();
+		geneticSearch.addRandomPopulation(10);
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	@Benchmark
+	public Tour runEvolution() {
+		geneticSearch.runEvolution(GENERATION_COUNT);
+		return geneticSearch.getBest();
+	}
+}
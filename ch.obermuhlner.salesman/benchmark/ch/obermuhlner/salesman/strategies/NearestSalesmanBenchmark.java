@@ -0,0 +1,53 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.obermuhlner.salesman.model.BenchmarkCities;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Measures the time to construct a tour with the {@link NearestSalesman}.
+ *
+ * The {@link Problem} (including its spatial index) is shared by all invocations, like in strategies that start from several nearest neighbor tours.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestSalesmanBenchmark {
+
+	@Param({ "Earth", "Mars", "Moon" })
+	public String dataset;
+
+	@Param({ "100", "1000" })
+	public int cityCount;
+
+	private Problem problem;
+	private int startIndex;
+
+	@Setup
+	public void setup() {
+		problem = BenchmarkCities.createProblem(dataset, cityCount);
+	}
+
+	@Benchmark
+	public Tour bestTour() {
+		startIndex = startIndex + 1 == problem.size() ? 0 : startIndex + 1;
+		return new NearestSalesman(startIndex).bestTour(problem);
+	}
+}
@@ -0,0 +1,48 @@
+package ch.obermuhlner.salesman.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to enumerate all permutations with {@link PermutationUtil}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermutationUtilBenchmark {
+
+	@Param({ "6", "8", "9" })
+	public int size;
+
+	private List<Integer> elements;
+
+	@Setup
+	public void setup() {
+		elements = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			elements.add(i);
+		}
+	}
+
+	@Benchmark
+	public void permutations(Blackhole blackhole) {
+		PermutationUtil.permutations(elements, blackhole::consume);
+	}
+}
@@ -0,0 +1,61 @@
+package ch.obermuhlner.salesman.cli;
+
+import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
+import ch.obermuhlner.salesman.model.CitiesBinaryWriter;
+import ch.obermuhlner.salesman.model.CitiesLoader;
+import ch.obermuhlner.salesman.model.CityColumns;
+import ch.obermuhlner.salesman.model.MappedCities;
+import ch.obermuhlner.salesman.model.NeighborLists;
+import ch.obermuhlner.salesman.model.Problem;
+
+/**
+ * Command line application to convert CSV city files into binary city files that can be memory-mapped with {@link MappedCities}.
+ *
+ * Usage: <code>CitiesConverter input.csv [output.cities] [neighborCount]</code>
+ *
+ * The nearest neighbors are calculated with the distances on earth, since the CSV files contain latitude and longitude.
+ * The file records the distance, so that the neighbors are only reused by a solver that also uses the distances on earth.
+ */
+public class CitiesConverter {
+
+	/**
+	 * The name of the distance the neighbors are calculated with, as used by the <code>--distance</code> option of the {@link SalesmanSolver}.
+	 */
+	public static final String NEIGHBOR_DISTANCE = "earth";
+
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: CitiesConverter input.csv [output" + MappedCities.FILE_EXTENSION + "] [neighborCount]");
+			System.exit(1);
+		}
+
+		String input = args[0];
+		String output = args.length > 1 ? args[1] : input.replaceFirst("\\.csv$", "") + MappedCities.FILE_EXTENSION;
+		int neighborCount = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+		long startMillis = System.currentTimeMillis();
+		convert(input, output, neighborCount);
+		long endMillis = System.currentTimeMillis();
+
+		System.out.println(String.format("Converted %s to %s in %d ms", input, output, endMillis - startMillis));
+	}
+
+	/**
+	 * Converts a CSV city file into a binary city file.
+	 *
+	 * @param input the name of the CSV file
+	 * @param output the name of the binary file
+	 * @param neighborCount the number of nearest neighbors to store for every city, 0 to store no neighbors
+	 */
+	public static void convert(String input, String output, int neighborCount) {
+		CityColumns columns = CitiesLoader.loadColumns(input);
+
+		NeighborLists neighborLists = null;
+		if (neighborCount > 0) {
+			Problem problem = new Problem(columns.toCities(), SphericalDistanceCalculator.earthKilometers());
+			neighborLists = problem.getNeighborLists(neighborCount);
+		}
+
+		CitiesBinaryWriter.write(output, columns, neighborLists, NEIGHBOR_DISTANCE);
+	}
+}
@@ -1,126 +1,883 @@
 package ch.obermuhlner.salesman.cli;
 
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
 import ch.obermuhlner.salesman.distance.DistanceCalculator;
 import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
-import ch.obermuhlner.salesman.model.Cities;
+import ch.obermuhlner.salesman.metrics.JmxMetricsRegistry;
+import ch.obermuhlner.salesman.metrics.MetricsRegistry;
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+import ch.obermuhlner.salesman.model.CitiesLoader;
 import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.MappedCities;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
-import ch.obermuhlner.salesman.strategies.BestSalesman;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.service.SolveFuture;
+import ch.obermuhlner.salesman.service.SolverService;
 import ch.obermuhlner.salesman.strategies.BruteForceSalesman;
+import ch.obermuhlner.salesman.strategies.Crossover;
+import ch.obermuhlner.salesman.strategies.EdgeAssemblyCrossover;
 import ch.obermuhlner.salesman.strategies.GeneticSalesman;
+import ch.obermuhlner.salesman.strategies.HeldKarpSalesman;
+import ch.obermuhlner.salesman.strategies.IslandGeneticSalesman;
+import ch.obermuhlner.salesman.strategies.LinKernighanSalesman;
 import ch.obermuhlner.salesman.strategies.NearestSalesman;
+import ch.obermuhlner.salesman.strategies.OrderCrossover;
+import ch.obermuhlner.salesman.strategies.PartiallyMappedCrossover;
 import ch.obermuhlner.salesman.strategies.RandomSalesman;
+import ch.obermuhlner.salesman.strategies.RankSelection;
+import ch.obermuhlner.salesman.strategies.Selection;
 import ch.obermuhlner.salesman.strategies.StupidSalesman;
+import ch.obermuhlner.salesman.strategies.TournamentSelection;
+import ch.obermuhlner.salesman.strategies.TwoOptSalesman;
+import ch.obermuhlner.salesman.tsplib.TsplibReader;
+import ch.obermuhlner.salesman.util.ThreadInterruptedException;
 
 /**
- * Simple command line application to solve the traveling salesman problem.
+ * Command line application to solve many traveling salesman problems in a batch.
+ *
+ * Usage: <code>SalesmanSolver [options] file...</code>
+ *
+ * Every input file (CSV, binary city file or TSPLIB problem) results in one or more instances,
+ * which are solved concurrently by a fixed number of worker threads.
+ * The result of every instance is written as soon as it is solved, either as a JSON object per line or as a CSV row.
+ *
+ * The solving of every instance is limited by a {@link SolveBudget}, the best tour found within the budget is reported.
  */
 public class SalesmanSolver {
 
-	private List<City> cities = new ArrayList<>();
-	
-	private final DistanceCalculator distanceCalulator;
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: SalesmanSolver [options] file...",
+			"",
+			"Options:",
+			"  --format auto|csv|binary|tsplib      format of the input files (default: auto, by file extension)",
+			"  --distance earth|moon|mars|cartesian distance of CSV and binary city files (default: earth)",
+			"  --strategy name                      nearest, two-opt, lin-kernighan, genetic, island-genetic, held-karp, brute-force, random, stupid (default: lin-kernighan)",
+			"  --seed n                             seed of the random number generators (default: 0)",
+			"  --time-limit seconds                 wall-clock time limit to solve a single instance",
+			"  --max-evaluations n                  maximum number of evaluations to solve a single instance",
+			"  --target-distance d                  stop as soon as a tour of at most this distance is found",
+			"  --stall-limit n                      stop after this number of evaluations without improvement",
+			"  --iterations n                       kicks of lin-kernighan, evolution steps of (island-)genetic",
+			"  --crossover none|order|pmx|eax       crossover of (island-)genetic (default: none, mutation only)",
+			"  --selection tournament|rank          parent selection of the crossover (default: tournament)",
+			"  --local-search none|full|first|probabilistic",
+			"                                       memetic local search of the children of (island-)genetic (default: none)",
+			"  --local-search-probability p         probability to improve a child with probabilistic local search (default: 0.1)",
+			"  --threads n                          number of instances solved concurrently (default: available processors)",
+			"  --cities n                           solve a population weighted sample of n cities instead of the whole file",
+			"  --samples n                          number of instances per file, each with its own seed (default: 1)",
+			"  --output-format jsonl|csv            format of the results (default: jsonl)",
+			"  --output file                        write the results into a file instead of standard output",
+			"  --no-tour                            do not write the tours, only the metrics",
+			"  --metrics                            write the counters, phases and convergence of the strategy (jsonl only)",
+			"  --jmx                                publish the metrics of the running instances as JMX MBeans");
 
-	public SalesmanSolver(DistanceCalculator distanceCalulator) {
-		this.distanceCalulator = distanceCalulator;
+	private static final String[] CSV_COLUMNS = { "instance", "strategy", "seed", "cities", "distance", "millis", "evaluations", "limit", "tour", "error" };
+
+	public enum InputFormat {
+		AUTO,
+		CSV,
+		BINARY,
+		TSPLIB
+	}
+
+	public enum OutputFormat {
+		JSONL,
+		CSV
+	}
+
+	private InputFormat inputFormat = InputFormat.AUTO;
+	private String distance = "earth";
+	private String strategy = "lin-kernighan";
+	private long seed = 0;
+	private SolveBudget budget = new SolveBudget();
+	private int iterations = 0;
+	private String crossover = "none";
+	private String selection = "tournament";
+	private String localSearch = "none";
+	private double localSearchProbability = 0.1;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int cityCount = 0;
+	private int sampleCount = 1;
+	private OutputFormat outputFormat = OutputFormat.JSONL;
+	private boolean writeTour = true;
+	private boolean writeMetrics = false;
+
+	private final Map<String, Problem> problemCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Solves in the calling worker thread, so that neither the loading nor the waiting for a worker counts against the time limit.
+	 */
+	private final SolverService solverService = new SolverService(Runnable::run);
+
+	public void setInputFormat(InputFormat inputFormat) {
+		this.inputFormat = inputFormat;
+	}
+
+	/**
+	 * Sets the distance used for CSV and binary city files.
+	 *
+	 * @param distance <code>earth</code>, <code>moon</code>, <code>mars</code> or <code>cartesian</code>
+	 */
+	public void setDistance(String distance) {
+		createDistanceCalculator(distance);
+		this.distance = distance;
+	}
+
+	/**
+	 * Sets the name of the strategy that solves every instance.
+	 *
+	 * @param strategy <code>nearest</code>, <code>two-opt</code>, <code>lin-kernighan</code>, <code>genetic</code>, <code>island-genetic</code>, <code>held-karp</code>, <code>brute-force</code>, <code>random</code> or <code>stupid</code>
+	 */
+	public void setStrategy(String strategy) {
+		createSalesman(strategy, 0, 0, false);
+		this.strategy = strategy;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the {@link SolveBudget} to solve a single instance.
+	 *
+	 * The time to load the problem does not count against the time limit.
+	 *
+	 * @param budget the {@link SolveBudget}
+	 */
+	public void setBudget(SolveBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Sets the number of iterations of the iterative strategies.
+	 *
+	 * These are the kicks of <code>lin-kernighan</code> and the evolution steps of <code>genetic</code> and <code>island-genetic</code>.
+	 * With 0 the strategies use their defaults, or run until the budget is exhausted if it is bounded.
+	 *
+	 * @param iterations the number of iterations, 0 for the default
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Sets the crossover of the <code>genetic</code> and <code>island-genetic</code> strategies.
+	 *
+	 * @param crossover <code>none</code> (only mutation), <code>order</code>, <code>pmx</code> or <code>eax</code>
+	 */
+	public void setCrossover(String crossover) {
+		createCrossover(crossover);
+		this.crossover = crossover;
+	}
+
+	/**
+	 * Sets the selection of the parents of the crossover of the <code>genetic</code> and <code>island-genetic</code> strategies.
+	 *
+	 * @param selection <code>tournament</code> or <code>rank</code>
+	 */
+	public void setSelection(String selection) {
+		createSelection(selection);
+		this.selection = selection;
+	}
+
+	/**
+	 * Sets the memetic local search of the <code>genetic</code> and <code>island-genetic</code> strategies.
+	 *
+	 * @param localSearch <code>none</code>, <code>full</code>, <code>first</code> (first improvement) or <code>probabilistic</code>
+	 */
+	public void setLocalSearch(String localSearch) {
+		createLocalSearch(localSearch);
+		this.localSearch = localSearch;
+	}
+
+	/**
+	 * Sets the probability that a child is improved by the <code>probabilistic</code> local search.
+	 *
+	 * @param localSearchProbability the probability between 0 and 1
+	 */
+	public void setLocalSearchProbability(double localSearchProbability) {
+		if (localSearchProbability < 0 || localSearchProbability > 1) {
+			throw new IllegalArgumentException("Local search probability must be between 0 and 1: " + localSearchProbability);
+		}
+		this.localSearchProbability = localSearchProbability;
+	}
+
+	/**
+	 * Sets the number of worker threads that solve instances concurrently.
+	 *
+	 * Every instance is solved in a single thread, so the machine is best saturated with at least as many instances as threads.
+	 *
+	 * @param threads the number of worker threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the number of cities sampled from CSV and binary city files, weighted by their population.
+	 *
+	 * @param cityCount the number of cities, 0 to solve all cities of the file
+	 */
+	public void setCityCount(int cityCount) {
+		this.cityCount = cityCount;
+	}
+
+	/**
+	 * Sets the number of instances per input file.
+	 *
+	 * The instance <code>k</code> of a file uses the seed <code>seed + k</code>, both for the sampling of the cities and for the strategy.
+	 *
+	 * @param sampleCount the number of instances per file
+	 */
+	public void setSampleCount(int sampleCount) {
+		this.sampleCount = sampleCount;
+	}
+
+	public void setOutputFormat(OutputFormat outputFormat) {
+		this.outputFormat = outputFormat;
+	}
+
+	public void setWriteTour(boolean writeTour) {
+		this.writeTour = writeTour;
+	}
+
+	/**
+	 * Sets whether the {@link SolverMetrics} of every instance are written, only supported by {@link OutputFormat#JSONL}.
+	 *
+	 * @param writeMetrics <code>true</code> to write the metrics
+	 */
+	public void setWriteMetrics(boolean writeMetrics) {
+		this.writeMetrics = writeMetrics;
+		solverService.setCollectMetrics(writeMetrics);
+	}
+
+	/**
+	 * Sets the {@link MetricsRegistry} that publishes the metrics of the instances while they are solved.
+	 *
+	 * @param metricsRegistry the {@link MetricsRegistry}, or <code>null</code> for none
+	 */
+	public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		solverService.setMetricsRegistry(metricsRegistry);
+	}
+
+	/**
+	 * Solves all instances of the specified files and writes the results.
+	 *
+	 * Failing instances are reported with an error and do not stop the other instances.
+	 *
+	 * @param filenames the names of the input files
+	 * @param writer the {@link Writer} that receives the results
+	 * @return the number of instances that failed
+	 */
+	public int solve(List<String> filenames, Writer writer) {
+		ResultWriter resultWriter = new ResultWriter(writer, outputFormat, writeTour, writeMetrics);
+		AtomicInteger errorCount = new AtomicInteger();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "salesman-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			resultWriter.writeHeader();
+
+			List<Future<?>> futures = new ArrayList<>();
+			for (String filename : filenames) {
+				for (int sample = 0; sample < sampleCount; sample++) {
+					String instance = sampleCount == 1 ? filename : filename + "#" + sample;
+					long instanceSeed = seed + sample;
+					futures.add(executor.submit(() -> {
+						Result result = solveInstance(filename, instance, instanceSeed);
+						if (result.error != null) {
+							errorCount.incrementAndGet();
+						}
+						resultWriter.write(result);
+					}));
+				}
+			}
+
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ThreadInterruptedException();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return errorCount.get();
+	}
+
+	private Result solveInstance(String filename, String instance, long instanceSeed) {
+		Result result = new Result(instance, strategy, instanceSeed);
+		try {
+			Problem problem = loadProblem(filename, instanceSeed);
+			result.cityCount = problem.size();
+
+			Salesman salesman = createSalesman(strategy, instanceSeed, iterations, budget.isBounded());
+			SolveFuture future = solverService.solve(problem, salesman, budget, null);
+			Tour tour = join(future);
+			SolveProgress progress = future.getProgress();
+
+			result.millis = progress.getElapsedMillis();
+			result.evaluationCount = progress.getEvaluationCount();
+			result.metrics = writeMetrics ? progress.getMetrics() : null;
+			result.limit = progress.getExhaustedLimit();
+			result.tour = tour;
+			result.distance = problem.distance(tour);
+		} catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+			result.error = e.getMessage() != null ? e.getClass().getSimpleName() + ": " + e.getMessage() : e.getClass().getSimpleName();
+		}
+		return result;
+	}
+
+	private static Tour join(SolveFuture future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
 	}
-	
-	public void add(City city) {
-		cities.add(city);
+
+	private Problem loadProblem(String filename, long instanceSeed) {
+		InputFormat format = inputFormat == InputFormat.AUTO ? detectInputFormat(filename) : inputFormat;
+
+		if (format == InputFormat.TSPLIB) {
+			if (cityCount > 0) {
+				throw new IllegalArgumentException("Sampling cities is not supported for TSPLIB problems");
+			}
+			return problemCache.computeIfAbsent(filename, key -> TsplibReader.readProblem(filename).createProblem());
+		}
+
+		if (cityCount > 0) {
+			List<City> cities = CitiesLoader.load(filename, new Random(instanceSeed), cityCount);
+			return new Problem(cities, createDistanceCalculator(distance));
+		}
+
+		return problemCache.computeIfAbsent(filename, key -> {
+			if (format == InputFormat.BINARY) {
+				MappedCities cities = MappedCities.open(filename);
+				Problem problem = new Problem(cities, createDistanceCalculator(distance));
+				// the stored neighbors are only valid for the distance they were calculated with
+				if (cities.getNeighborCount() > 0 && distance.equals(cities.getNeighborDistance())) {
+					problem.setNeighborLists(cities.getNeighborLists());
+				}
+				return problem;
+			}
+			return new Problem(CitiesLoader.load(filename), createDistanceCalculator(distance));
+		});
 	}
-	
-	public void solveProblem() {
-		runSalesman("stupid", new StupidSalesman());
-		System.out.println();
-		
-		BestSalesman bestRandomSalesman = new BestSalesman();
-		for (int i = 0; i < 10; i++) {
-			RandomSalesman randomSalesman = new RandomSalesman(new Random(i));
-			runSalesman("random-" + i, randomSalesman);
-			bestRandomSalesman.add(randomSalesman);
+
+	private static InputFormat detectInputFormat(String filename) {
+		String lowerCaseFilename = filename.toLowerCase(Locale.ROOT);
+		if (lowerCaseFilename.endsWith(".tsp")) {
+			return InputFormat.TSPLIB;
+		}
+		if (lowerCaseFilename.endsWith(MappedCities.FILE_EXTENSION)) {
+			return InputFormat.BINARY;
 		}
-		System.out.println();
-		
-		runSalesman("best-random", bestRandomSalesman);
-		System.out.println();
+		return InputFormat.CSV;
+	}
 
-		BestSalesman bestSimpleSalesman = new BestSalesman();
-		for (int i = 0; i < cities.size(); i++) {
-			NearestSalesman simpleSalesman = new NearestSalesman(i);
-			bestSimpleSalesman.add(simpleSalesman);
-			runSalesman("simple-" + i, simpleSalesman);
+	private static DistanceCalculator createDistanceCalculator(String distance) {
+		switch (distance) {
+		case "earth":
+			return SphericalDistanceCalculator.earthKilometers();
+		case "moon":
+			return SphericalDistanceCalculator.moonKilometers();
+		case "mars":
+			return SphericalDistanceCalculator.marsKilometers();
+		case "cartesian":
+			return new CartesianDistanceCalculator();
+		default:
+			throw new IllegalArgumentException("Unknown distance: " + distance);
 		}
-		System.out.println();
+	}
 
-		runSalesman("best-simple", bestSimpleSalesman);
-		System.out.println();
+	/**
+	 * Creates the {@link Salesman} for the specified strategy.
+	 *
+	 * Iterative strategies without a number of iterations run until the budget is exhausted if it is bounded.
+	 */
+	private Salesman createSalesman(String strategy, long seed, int iterations, boolean boundedBudget) {
+		int defaultIterations = boundedBudget ? Integer.MAX_VALUE : 0;
+		int effectiveIterations = iterations > 0 ? iterations : defaultIterations;
 
-		runSalesman("genetic", new GeneticSalesman());
-		System.out.println();
-		
-		if (cities.size() <= 10) {
-			runSalesman("bruteforce", new BruteForceSalesman());
-			System.out.println();
+		switch (strategy) {
+		case "nearest":
+			return new NearestSalesman();
+		case "two-opt":
+			TwoOptSalesman twoOptSalesman = new TwoOptSalesman();
+			return twoOptSalesman;
+		case "lin-kernighan":
+			LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+			linKernighanSalesman.setRandom(new Random(seed));
+			if (effectiveIterations > 0) {
+				linKernighanSalesman.setKickCount(effectiveIterations);
+			}
+			return linKernighanSalesman;
+		case "genetic":
+			GeneticSalesman geneticSalesman = new GeneticSalesman();
+			geneticSalesman.setRandom(new Random(seed));
+			geneticSalesman.setCrossover(createCrossover(crossover));
+			geneticSalesman.setSelection(createSelection(selection));
+			geneticSalesman.setLocalSearch(createLocalSearch(localSearch));
+			geneticSalesman.setLocalSearchProbability(localSearchProbability);
+			if (effectiveIterations > 0) {
+				geneticSalesman.setEvolutionStepCount(effectiveIterations);
+			}
+			return geneticSalesman;
+		case "island-genetic":
+			IslandGeneticSalesman islandGeneticSalesman = new IslandGeneticSalesman();
+			islandGeneticSalesman.setRandom(new Random(seed));
+			islandGeneticSalesman.setCrossover(createCrossover(crossover));
+			islandGeneticSalesman.setSelection(createSelection(selection));
+			islandGeneticSalesman.setLocalSearch(createLocalSearch(localSearch));
+			islandGeneticSalesman.setLocalSearchProbability(localSearchProbability);
+			if (effectiveIterations > 0) {
+				islandGeneticSalesman.setEvolutionStepCount(effectiveIterations);
+			}
+			return islandGeneticSalesman;
+		case "held-karp":
+			return new HeldKarpSalesman();
+		case "brute-force":
+		case "bruteforce":
+			return new BruteForceSalesman();
+		case "random":
+			return new RandomSalesman(new Random(seed));
+		case "stupid":
+			return new StupidSalesman();
+		default:
+			throw new IllegalArgumentException("Unknown strategy: " + strategy);
 		}
 	}
 
-	private void runSalesman(String name, Salesman salesman) {
-		long startMillis = System.currentTimeMillis();
-		List<City> solution = salesman.bestPath(cities, distanceCalulator);
-		long endMillis = System.currentTimeMillis();
-		long deltaMillis = endMillis - startMillis;
-		
-		double distance = distanceCalulator.distance(solution);
-		System.out.println(String.format("%-20s %12.3f  %8d ms %s", name, distance, deltaMillis, solution.toString()));
+	private static Function<Problem, Crossover> createCrossover(String crossover) {
+		switch (crossover) {
+		case "none":
+			return null;
+		case "order":
+			return OrderCrossover::new;
+		case "pmx":
+			return PartiallyMappedCrossover::new;
+		case "eax":
+			return EdgeAssemblyCrossover::new;
+		default:
+			throw new IllegalArgumentException("Unknown crossover: " + crossover);
+		}
+	}
+
+	private static Selection createSelection(String selection) {
+		switch (selection) {
+		case "tournament":
+			return new TournamentSelection(2);
+		case "rank":
+			return new RankSelection();
+		default:
+			throw new IllegalArgumentException("Unknown selection: " + selection);
+		}
+	}
+
+	private static GeneticSalesman.LocalSearch createLocalSearch(String localSearch) {
+		switch (localSearch) {
+		case "none":
+			return GeneticSalesman.LocalSearch.NONE;
+		case "full":
+			return GeneticSalesman.LocalSearch.FULL;
+		case "first":
+			return GeneticSalesman.LocalSearch.FIRST_IMPROVEMENT;
+		case "probabilistic":
+			return GeneticSalesman.LocalSearch.PROBABILISTIC;
+		default:
+			throw new IllegalArgumentException("Unknown local search: " + localSearch);
+		}
 	}
 
 	public static void main(String[] args) {
-		//solveSimpleProblem();
-		solveBigProblem();
-		//solveWorldProblem();
-	}
-
-	private static void solveSimpleProblem() {
-		SalesmanSolver solver = new SalesmanSolver(new CartesianDistanceCalculator());
-		
-		solver.add(new City("a", 0, 0));
-		solver.add(new City("b", 9, 3));
-		solver.add(new City("c", 1, 4));
-		solver.add(new City("d", 5, 5));
-		solver.add(new City("e", 2, 9));
-		solver.add(new City("f", 4, 0));
-		solver.add(new City("g", 1, 2));
-		
-		solver.solveProblem();
-	}
-
-	private static void solveBigProblem() {
-		SalesmanSolver solver = new SalesmanSolver(new CartesianDistanceCalculator());
-	
-		Random random = new Random();
-		for (int i = 0; i < 20; i++) {
-			solver.add(new City("City" + i, random.nextInt(1000), random.nextInt(1000)));
-		}
-		
-		solver.solveProblem();
-	}
-	
-	private static void solveWorldProblem() {
-		SalesmanSolver solver = new SalesmanSolver(SphericalDistanceCalculator.earthKilometers());
-
-		solver.add(Cities.BuenosAires.city);
-		solver.add(Cities.Vienna.city);
-		solver.add(Cities.Brasilia.city);
-		solver.add(Cities.Paris.city);
-		solver.add(Cities.Berlin.city);
-		solver.add(Cities.Washington.city);
-		solver.add(Cities.London.city);
-		
-		solver.solveProblem();
+		SalesmanSolver solver = new SalesmanSolver();
+		SolveBudget budget = new SolveBudget();
+		List<String> filenames = new ArrayList<>();
+		String output = null;
+		OutputFormat outputFormat = OutputFormat.JSONL;
+		boolean writeMetrics = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				switch (arg) {
+				case "--format":
+					solver.setInputFormat(InputFormat.valueOf(optionValue(args, ++i, arg).toUpperCase(Locale.ROOT)));
+					break;
+				case "--distance":
+					solver.setDistance(optionValue(args, ++i, arg));
+					break;
+				case "--strategy":
+					solver.setStrategy(optionValue(args, ++i, arg));
+					break;
+				case "--seed":
+					solver.setSeed(Long.parseLong(optionValue(args, ++i, arg)));
+					break;
+				case "--time-limit":
+					budget.setMaxMillis((long) (Double.parseDouble(optionValue(args, ++i, arg)) * 1000));
+					break;
+				case "--max-evaluations":
+					budget.setMaxEvaluations(Long.parseLong(optionValue(args, ++i, arg)));
+					break;
+				case "--target-distance":
+					budget.setTargetDistance(Double.parseDouble(optionValue(args, ++i, arg)));
+					break;
+				case "--stall-limit":
+					budget.setStallLimit(Long.parseLong(optionValue(args, ++i, arg)));
+					break;
+				case "--iterations":
+					solver.setIterations(positiveInt(optionValue(args, ++i, arg), arg));
+					break;
+				case "--crossover":
+					solver.setCrossover(optionValue(args, ++i, arg));
+					break;
+				case "--selection":
+					solver.setSelection(optionValue(args, ++i, arg));
+					break;
+				case "--local-search":
+					solver.setLocalSearch(optionValue(args, ++i, arg));
+					break;
+				case "--local-search-probability":
+					solver.setLocalSearchProbability(Double.parseDouble(optionValue(args, ++i, arg)));
+					break;
+				case "--threads":
+					solver.setThreads(positiveInt(optionValue(args, ++i, arg), arg));
+					break;
+				case "--cities":
+					solver.setCityCount(positiveInt(optionValue(args, ++i, arg), arg));
+					break;
+				case "--samples":
+					solver.setSampleCount(positiveInt(optionValue(args, ++i, arg), arg));
+					break;
+				case "--output-format":
+					outputFormat = OutputFormat.valueOf(optionValue(args, ++i, arg).toUpperCase(Locale.ROOT));
+					solver.setOutputFormat(outputFormat);
+					break;
+				case "--output":
+					output = optionValue(args, ++i, arg);
+					break;
+				case "--no-tour":
+					solver.setWriteTour(false);
+					break;
+				case "--metrics":
+					writeMetrics = true;
+					break;
+				case "--jmx":
+					solver.setMetricsRegistry(new JmxMetricsRegistry());
+					break;
+				case "--help":
+					System.out.println(USAGE);
+					return;
+				default:
+					if (arg.startsWith("--")) {
+						throw new IllegalArgumentException("Unknown option: " + arg);
+					}
+					filenames.add(arg);
+				}
+			}
+			if (filenames.isEmpty()) {
+				throw new IllegalArgumentException("No input files");
+			}
+			if (writeMetrics && outputFormat == OutputFormat.CSV) {
+				throw new IllegalArgumentException("Option --metrics is only supported with --output-format jsonl");
+			}
+			solver.setWriteMetrics(writeMetrics);
+			solver.setBudget(budget);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		int errorCount;
+		try (Writer writer = output == null
+				? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+				: new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8))) {
+			errorCount = solver.solve(filenames, writer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (errorCount > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static String optionValue(String[] args, int index, String option) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for option " + option);
+		}
+		return args[index];
+	}
+
+	private static int positiveInt(String value, String option) {
+		int result = Integer.parseInt(value);
+		if (result <= 0) {
+			throw new IllegalArgumentException("Value of option " + option + " must be positive: " + value);
+		}
+		return result;
+	}
+
+	private static class Result {
+		private final String instance;
+		private final String strategy;
+		private final long seed;
+		private int cityCount;
+		private double distance;
+		private long millis;
+		private long evaluationCount;
+		private SolveBudget.Limit limit;
+		private SolverMetrics metrics;
+		private Tour tour;
+		private String error;
+
+		public Result(String instance, String strategy, long seed) {
+			this.instance = instance;
+			this.strategy = strategy;
+			this.seed = seed;
+		}
+	}
+
+	/**
+	 * Writes the results of all worker threads, one line per result.
+	 *
+	 * Every line is flushed immediately, so that the results of long batches can be consumed while the batch is still running.
+	 */
+	private static class ResultWriter {
+		private final Writer writer;
+		private final OutputFormat outputFormat;
+		private final boolean writeTour;
+		private final boolean writeMetrics;
+
+		public ResultWriter(Writer writer, OutputFormat outputFormat, boolean writeTour, boolean writeMetrics) {
+			this.writer = writer;
+			this.outputFormat = outputFormat;
+			this.writeTour = writeTour;
+			this.writeMetrics = writeMetrics;
+		}
+
+		public synchronized void writeHeader() {
+			if (outputFormat == OutputFormat.CSV) {
+				StringBuilder line = new StringBuilder();
+				for (String column : CSV_COLUMNS) {
+					if (column.equals("tour") && !writeTour) {
+						continue;
+					}
+					if (line.length() > 0) {
+						line.append(',');
+					}
+					line.append(column);
+				}
+				writeLine(line);
+			}
+		}
+
+		public synchronized void write(Result result) {
+			writeLine(outputFormat == OutputFormat.CSV ? toCsv(result) : toJson(result));
+		}
+
+		private void writeLine(CharSequence line) {
+			try {
+				writer.append(line).append('\n');
+				writer.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private StringBuilder toJson(Result result) {
+			StringBuilder json = new StringBuilder();
+			json.append("{\"instance\":");
+			appendJsonString(json, result.instance);
+			json.append(",\"strategy\":");
+			appendJsonString(json, result.strategy);
+			json.append(",\"seed\":").append(result.seed);
+			json.append(",\"cities\":").append(result.cityCount);
+			if (result.error != null) {
+				json.append(",\"error\":");
+				appendJsonString(json, result.error);
+			} else {
+				json.append(",\"distance\":").append(result.distance);
+				json.append(",\"millis\":").append(result.millis);
+				json.append(",\"evaluations\":").append(result.evaluationCount);
+				json.append(",\"limit\":");
+				if (result.limit != null) {
+					appendJsonString(json, result.limit.name());
+				} else {
+					json.append("null");
+				}
+				if (writeMetrics) {
+					json.append(",\"metrics\":");
+					appendMetrics(json, result.metrics);
+				}
+				if (writeTour) {
+					json.append(",\"tour\":[");
+					appendTour(json, result.tour, ',');
+					json.append(']');
+				}
+			}
+			json.append('}');
+			return json;
+		}
+
+		private StringBuilder toCsv(Result result) {
+			boolean solved = result.error == null;
+			StringBuilder csv = new StringBuilder();
+			appendCsvString(csv, result.instance);
+			csv.append(',');
+			appendCsvString(csv, result.strategy);
+			csv.append(',').append(result.seed);
+			csv.append(',').append(result.cityCount);
+			csv.append(',');
+			if (solved) {
+				csv.append(result.distance);
+			}
+			csv.append(',');
+			if (solved) {
+				csv.append(result.millis);
+			}
+			csv.append(',');
+			if (solved) {
+				csv.append(result.evaluationCount);
+			}
+			csv.append(',');
+			if (solved && result.limit != null) {
+				csv.append(result.limit.name());
+			}
+			if (writeTour) {
+				csv.append(',');
+				if (solved) {
+					appendTour(csv, result.tour, ' ');
+				}
+			}
+			csv.append(',');
+			if (!solved) {
+				appendCsvString(csv, result.error);
+			}
+			return csv;
+		}
+
+		private static void appendMetrics(StringBuilder json, SolverMetrics metrics) {
+			json.append("{\"evaluationsPerSecond\":").append(Math.round(metrics.getEvaluationsPerSecond()));
+			json.append(",\"improvements\":").append(metrics.getImprovementCount());
+			json.append(",\"counters\":");
+			appendJsonObject(json, metrics.getCounters());
+			json.append(",\"phaseMillis\":");
+			appendJsonObject(json, metrics.getPhaseMillis());
+			json.append(",\"phaseAllocatedBytes\":");
+			appendJsonObject(json, metrics.getPhaseAllocatedBytes());
+			json.append(",\"convergence\":[");
+			boolean first = true;
+			for (SolverMetrics.ConvergencePoint point : metrics.getConvergence()) {
+				if (!first) {
+					json.append(',');
+				}
+				first = false;
+				json.append('[').append(point.getElapsedMillis()).append(',').append(point.getEvaluationCount()).append(',').append(point.getDistance()).append(']');
+			}
+			json.append("]}");
+		}
+
+		private static void appendJsonObject(StringBuilder json, Map<String, Long> values) {
+			json.append('{');
+			boolean first = true;
+			for (Map.Entry<String, Long> entry : values.entrySet()) {
+				if (!first) {
+					json.append(',');
+				}
+				first = false;
+				appendJsonString(json, entry.getKey());
+				json.append(':').append(entry.getValue());
+			}
+			json.append('}');
+		}
+
+		private static void appendTour(StringBuilder builder, Tour tour, char separator) {
+			for (int i = 0; i < tour.size(); i++) {
+				if (i > 0) {
+					builder.append(separator);
+				}
+				builder.append(tour.getCityIndex(i));
+			}
+		}
+
+		private static void appendJsonString(StringBuilder json, String value) {
+			json.append('"');
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+				case '"':
+					json.append("\\\"");
+					break;
+				case '\\':
+					json.append("\\\\");
+					break;
+				case '\n':
+					json.append("\\n");
+					break;
+				case '\r':
+					json.append("\\r");
+					break;
+				case '\t':
+					json.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+				}
+			}
+			json.append('"');
+		}
+
+		private static void appendCsvString(StringBuilder csv, String value) {
+			if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				csv.append(value);
+			} else {
+				csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+			}
+		}
 	}
 }
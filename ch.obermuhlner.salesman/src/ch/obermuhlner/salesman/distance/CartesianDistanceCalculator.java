@@ -15,4 +15,9 @@ public class CartesianDistanceCalculator implements DistanceCalculator {
 		return Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
 	}
 
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		return new double[] { city.x, city.y };
+	}
+
 }
@@ -41,4 +41,17 @@ public interface DistanceCalculator {
 		
 		return total;
 	}
+
+	/**
+	 * Returns the coordinates of a city in a euclidean space,
+	 * where the euclidean distance between two cities increases monotonically with the distance calculated by this {@link DistanceCalculator}.
+	 * 
+	 * Spatial indexes use these coordinates to find the nearest neighbors of a city without calculating the distance to all other cities.
+	 * 
+	 * @param city the city
+	 * @return the euclidean coordinates of the city, or <code>null</code> if the distances cannot be represented in a euclidean space
+	 */
+	default double[] euclideanCoordinates(City city) {
+		return null;
+	}
 }
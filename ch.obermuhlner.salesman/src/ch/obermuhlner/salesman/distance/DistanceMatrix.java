@@ -0,0 +1,194 @@
+package ch.obermuhlner.salesman.distance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.obermuhlner.salesman.model.City;
+
+/**
+ * Precalculated distances between all pairs of cities of a problem.
+ *
+ * The distances are calculated once by the underlying {@link DistanceCalculator}
+ * and stored in a flat array indexed by the position of the cities in the original list.
+ *
+ * Strategies should use {@link #distance(int, int)} in their inner loops.
+ * Since the {@link DistanceMatrix} is itself a {@link DistanceCalculator} it can be passed
+ * to any {@link ch.obermuhlner.salesman.model.Salesman} so that it is shared between several runs on the same cities.
+ */
+public class DistanceMatrix implements DistanceCalculator {
+
+	private final List<City> cities;
+	private final DistanceCalculator distanceCalculator;
+	private final int size;
+	private final double[] distances;
+	private final Map<City, Integer> cityIndexes = new IdentityHashMap<>();
+
+	/**
+	 * Constructs a {@link DistanceMatrix} by calculating the distances between all pairs of cities.
+	 *
+	 * @param cities the list of cities
+	 * @param distanceCalculator the {@link DistanceCalculator} used to calculate the distance between cities
+	 * @throws IllegalArgumentException if there are too many cities to store all distances in a single array
+	 */
+	public DistanceMatrix(List<City> cities, DistanceCalculator distanceCalculator) {
+		if ((long) cities.size() * cities.size() > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many cities for a distance matrix: " + cities.size());
+		}
+
+		this.cities = Collections.unmodifiableList(new ArrayList<>(cities));
+		this.distanceCalculator = distanceCalculator;
+		this.size = cities.size();
+		this.distances = new double[size * size];
+
+		for (int i = 0; i < size; i++) {
+			City city1 = this.cities.get(i);
+			cityIndexes.put(city1, i);
+			for (int j = 0; j < size; j++) {
+				distances[i * size + j] = distanceCalculator.distance(city1, this.cities.get(j));
+			}
+		}
+	}
+
+	private DistanceMatrix(List<City> cities, double[] distances) {
+		this.cities = Collections.unmodifiableList(new ArrayList<>(cities));
+		this.distanceCalculator = null;
+		this.size = cities.size();
+		this.distances = distances;
+
+		for (int i = 0; i < size; i++) {
+			cityIndexes.put(this.cities.get(i), i);
+		}
+	}
+
+	/**
+	 * Creates a {@link DistanceMatrix} with explicitly specified distances,
+	 * for example distances that cannot be calculated from the coordinates of the cities.
+	 *
+	 * The {@link DistanceMatrix} is its own underlying {@link DistanceCalculator}
+	 * and can only calculate distances between the specified cities.
+	 *
+	 * @param cities the list of cities
+	 * @param distances the flat array of distances, the distance between the cities <code>i</code> and <code>j</code> is at index <code>i * n + j</code>
+	 * @return the created {@link DistanceMatrix}
+	 * @throws IllegalArgumentException if the number of distances does not match the number of cities
+	 */
+	public static DistanceMatrix explicit(List<City> cities, double[] distances) {
+		if (distances.length != (long) cities.size() * cities.size()) {
+			throw new IllegalArgumentException("Expected " + ((long) cities.size() * cities.size()) + " distances for " + cities.size() + " cities, but got " + distances.length);
+		}
+		return new DistanceMatrix(cities, distances);
+	}
+
+	/**
+	 * Returns a {@link DistanceMatrix} for the specified cities.
+	 *
+	 * If the specified {@link DistanceCalculator} is already a {@link DistanceMatrix} for the same cities it is returned unchanged,
+	 * otherwise a new {@link DistanceMatrix} is calculated.
+	 *
+	 * @param cities the list of cities
+	 * @param distanceCalculator the {@link DistanceCalculator} used to calculate the distance between cities
+	 * @return the {@link DistanceMatrix}
+	 */
+	public static DistanceMatrix of(List<City> cities, DistanceCalculator distanceCalculator) {
+		if (distanceCalculator instanceof DistanceMatrix) {
+			DistanceMatrix distanceMatrix = (DistanceMatrix) distanceCalculator;
+			if (distanceMatrix.cities.equals(cities)) {
+				return distanceMatrix;
+			}
+			return new DistanceMatrix(cities, distanceMatrix.getDistanceCalculator());
+		}
+		return new DistanceMatrix(cities, distanceCalculator);
+	}
+
+	/**
+	 * Returns the cities of this matrix in the order of their indexes.
+	 *
+	 * @return the unmodifiable list of cities
+	 */
+	public List<City> getCities() {
+		return cities;
+	}
+
+	/**
+	 * Returns the {@link DistanceCalculator} that was used to calculate the distances of this matrix.
+	 *
+	 * @return the underlying {@link DistanceCalculator}, or this {@link DistanceMatrix} if the distances were specified explicitly
+	 */
+	public DistanceCalculator getDistanceCalculator() {
+		return distanceCalculator == null ? this : distanceCalculator;
+	}
+
+	/**
+	 * Returns the number of cities in this matrix.
+	 *
+	 * @return the number of cities
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the index of the specified city.
+	 *
+	 * @param city the city
+	 * @return the index of the city
+	 * @throws IllegalArgumentException if the city is not part of this matrix
+	 */
+	public int indexOf(City city) {
+		Integer index = cityIndexes.get(city);
+		if (index == null) {
+			throw new IllegalArgumentException("Unknown city: " + city);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the distance between two cities specified by their indexes.
+	 *
+	 * @param cityIndex1 the index of the first city
+	 * @param cityIndex2 the index of the second city
+	 * @return the distance between the two cities
+	 */
+	public double distance(int cityIndex1, int cityIndex2) {
+		return distances[cityIndex1 * size + cityIndex2];
+	}
+
+	/**
+	 * Calculates the total distance of a cycle through the cities specified by their indexes,
+	 * including the distance back to the starting city.
+	 *
+	 * @param cityIndexes the indexes of the cities to visit in a cycle
+	 * @return the total distance
+	 */
+	public double distance(int[] cityIndexes) {
+		if (cityIndexes.length <= 1) {
+			return 0;
+		}
+
+		double total = 0;
+
+		int currentCity = cityIndexes[cityIndexes.length - 1];
+		for (int nextCity : cityIndexes) {
+			total += distances[currentCity * size + nextCity];
+			currentCity = nextCity;
+		}
+
+		return total;
+	}
+
+	@Override
+	public double distance(City city1, City city2) {
+		return distance(indexOf(city1), indexOf(city2));
+	}
+
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		if (distanceCalculator == null) {
+			return null;
+		}
+		return distanceCalculator.euclideanCoordinates(city);
+	}
+}
@@ -0,0 +1,51 @@
+package ch.obermuhlner.salesman.distance;
+
+import ch.obermuhlner.salesman.model.City;
+
+/**
+ * Calculates the geographical distances in kilometers of the <code>GEO</code> edge weight type of TSPLIB.
+ *
+ * The x and y coordinates of the {@link City} are interpreted like in TSPLIB
+ * as latitude and longitude respectively, in the format <code>DDD.MM</code> (degrees and minutes).
+ * The distances are rounded down and incremented by 1 km, exactly as specified by TSPLIB,
+ * so that the optimal tour lengths published for TSPLIB instances can be reproduced.
+ *
+ * @see <a href="http://comopt.ifi.uni-heidelberg.de/software/TSPLIB95/tsp95.pdf">TSPLIB 95</a>
+ * @see SphericalDistanceCalculator
+ */
+public class GeographicalDistanceCalculator implements DistanceCalculator {
+
+	private static final double PI = 3.141592;
+	private static final double RADIUS = 6378.388;
+
+	@Override
+	public double distance(City city1, City city2) {
+		double latitude1 = toRadians(city1.x);
+		double longitude1 = toRadians(city1.y);
+		double latitude2 = toRadians(city2.x);
+		double longitude2 = toRadians(city2.y);
+
+		double q1 = Math.cos(longitude1 - longitude2);
+		double q2 = Math.cos(latitude1 - latitude2);
+		double q3 = Math.cos(latitude1 + latitude2);
+		return (int) (RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+	}
+
+	/**
+	 * Returns the city as unit vector in 3 dimensions, using the same conversion of the coordinates as {@link #distance(City, City)}.
+	 */
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		double latitude = toRadians(city.x);
+		double longitude = toRadians(city.y);
+		double cosLatitude = Math.cos(latitude);
+
+		return new double[] { cosLatitude * Math.cos(longitude), cosLatitude * Math.sin(longitude), Math.sin(latitude) };
+	}
+
+	private static double toRadians(double coordinate) {
+		int degrees = (int) coordinate;
+		double minutes = coordinate - degrees;
+		return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+	}
+}
@@ -0,0 +1,27 @@
+package ch.obermuhlner.salesman.distance;
+
+import ch.obermuhlner.salesman.model.City;
+
+/**
+ * Calculates the pseudo-euclidean distances of the <code>ATT</code> edge weight type of TSPLIB,
+ * which is used by the instances att48 and att532.
+ *
+ * @see <a href="http://comopt.ifi.uni-heidelberg.de/software/TSPLIB95/tsp95.pdf">TSPLIB 95</a>
+ */
+public class PseudoEuclideanDistanceCalculator implements DistanceCalculator {
+
+	@Override
+	public double distance(City city1, City city2) {
+		double deltaX = city1.x - city2.x;
+		double deltaY = city1.y - city2.y;
+
+		double r = Math.sqrt((deltaX * deltaX + deltaY * deltaY) / 10.0);
+		int t = (int) (r + 0.5);
+		return t < r ? t + 1 : t;
+	}
+
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		return new double[] { city.x, city.y };
+	}
+}
@@ -0,0 +1,24 @@
+package ch.obermuhlner.salesman.distance;
+
+import ch.obermuhlner.salesman.model.City;
+
+/**
+ * Calculates euclidean distances rounded to the nearest integer, like the <code>EUC_2D</code> edge weight type of TSPLIB.
+ *
+ * @see <a href="http://comopt.ifi.uni-heidelberg.de/software/TSPLIB95/tsp95.pdf">TSPLIB 95</a>
+ */
+public class RoundedEuclideanDistanceCalculator implements DistanceCalculator {
+
+	@Override
+	public double distance(City city1, City city2) {
+		double deltaX = city1.x - city2.x;
+		double deltaY = city1.y - city2.y;
+
+		return (int) (Math.sqrt((deltaX * deltaX) + (deltaY * deltaY)) + 0.5);
+	}
+
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		return new double[] { city.x, city.y };
+	}
+}
@@ -49,6 +49,20 @@ public class SphericalDistanceCalculator implements DistanceCalculator {
 		
 		return distance * radius;
 	}
+
+	/**
+	 * Returns the city as unit vector in 3 dimensions.
+	 * 
+	 * The great-circle distance increases monotonically with the straight distance through the sphere.
+	 */
+	@Override
+	public double[] euclideanCoordinates(City city) {
+		double latitude = Math.toRadians(city.y);
+		double longitude = Math.toRadians(city.x);
+		double cosLatitude = Math.cos(latitude);
+		
+		return new double[] { cosLatitude * Math.cos(longitude), cosLatitude * Math.sin(longitude), Math.sin(latitude) };
+	}
 	
 	/**
 	 * Creates a spherical distance calculator on Earth in kilometers.
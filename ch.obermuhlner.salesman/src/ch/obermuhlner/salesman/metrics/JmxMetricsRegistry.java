@@ -0,0 +1,66 @@
+package ch.obermuhlner.salesman.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers the {@link SolverMetrics} of the running solves as MXBeans,
+ * so that they can be watched with JMX clients like JConsole or Java Mission Control.
+ *
+ * The object names are <code>ch.obermuhlner.salesman:type=SolverMetrics,name=</code> followed by the quoted name of the solve.
+ */
+public class JmxMetricsRegistry implements MetricsRegistry {
+
+	/**
+	 * The domain of the object names.
+	 */
+	public static final String DOMAIN = "ch.obermuhlner.salesman";
+
+	private final MBeanServer server;
+
+	/**
+	 * Creates a registry that registers in the platform {@link MBeanServer}.
+	 */
+	public JmxMetricsRegistry() {
+		this(ManagementFactory.getPlatformMBeanServer());
+	}
+
+	public JmxMetricsRegistry(MBeanServer server) {
+		this.server = server;
+	}
+
+	@Override
+	public void register(String name, SolverMetrics metrics) {
+		try {
+			server.registerMBean(metrics, objectName(name));
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void unregister(String name, SolverMetrics metrics) {
+		try {
+			server.unregisterMBean(objectName(name));
+		} catch (InstanceNotFoundException e) {
+			// already unregistered
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns the object name of the solve with the specified name.
+	 *
+	 * @param name the name of the solve
+	 * @return the {@link ObjectName}
+	 * @throws JMException if the name results in an invalid object name
+	 */
+	public static ObjectName objectName(String name) throws JMException {
+		return new ObjectName(DOMAIN + ":type=SolverMetrics,name=" + ObjectName.quote(name));
+	}
+}
@@ -0,0 +1,29 @@
+package ch.obermuhlner.salesman.metrics;
+
+/**
+ * Publishes the {@link SolverMetrics} of running solves to a monitoring system.
+ *
+ * The {@link ch.obermuhlner.salesman.service.SolverService} registers the metrics of every solve when it starts
+ * and unregisters them when it ends.
+ * Implementations must be thread-safe.
+ *
+ * @see JmxMetricsRegistry
+ */
+public interface MetricsRegistry {
+
+	/**
+	 * Registers the metrics of a solve that is starting.
+	 *
+	 * @param name the unique name of the solve
+	 * @param metrics the {@link SolverMetrics} of the solve
+	 */
+	void register(String name, SolverMetrics metrics);
+
+	/**
+	 * Unregisters the metrics of a solve that has ended.
+	 *
+	 * @param name the unique name of the solve
+	 * @param metrics the {@link SolverMetrics} of the solve, with their final values
+	 */
+	void unregister(String name, SolverMetrics metrics);
+}
@@ -0,0 +1,28 @@
+package ch.obermuhlner.salesman.metrics;
+
+/**
+ * The read-only state of a running solve that the {@link SolverMetrics} report next to their counters and phases.
+ */
+public interface SolveStatus {
+
+	/**
+	 * Returns the wall-clock time since the solve started.
+	 *
+	 * @return the elapsed milliseconds
+	 */
+	long getElapsedMillis();
+
+	/**
+	 * Returns the number of evaluations done so far.
+	 *
+	 * @return the number of evaluations
+	 */
+	long getEvaluationCount();
+
+	/**
+	 * Returns the shortest distance found so far.
+	 *
+	 * @return the shortest distance, or {@link Double#POSITIVE_INFINITY} if no distance was found yet
+	 */
+	double getBestDistance();
+}
@@ -0,0 +1,273 @@
+package ch.obermuhlner.salesman.metrics;
+
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a single solve, collected while the solve is running.
+ *
+ * Every {@link ch.obermuhlner.salesman.model.SolveProgress} creates its own metrics when they are requested the first time.
+ * The strategies look up their counters once with {@link #counter(String)} and increment the returned {@link LongAdder} directly,
+ * so counting is cheap even from many threads.
+ * Expensive parts of a strategy are measured with {@link #startPhase(String)}.
+ *
+ * The counters and phases of the strategies are:
+ * <ul>
+ * <li><code>genetic.children</code> - children that were added to a population of the {@link ch.obermuhlner.salesman.strategies.GeneticSalesman}</li>
+ * <li><code>genetic.duplicates</code> - children that were rejected because they were already part of the population</li>
+ * <li><code>genetic.rejected</code> - children that were rejected because they were longer than the worst tour</li>
+ * <li><code>genetic.localSearches</code>, <code>genetic.localSearchMoves</code> - tours that were improved by the local search of the memetic mode and the improving moves</li>
+ * <li><code>genetic.initialPopulation</code>, <code>genetic.evolution</code>, <code>genetic.selection</code> - phases of the genetic algorithm</li>
+ * <li><code>linKernighan.kicks</code>, <code>linKernighan.improvingKicks</code> - double bridge kicks of the {@link ch.obermuhlner.salesman.strategies.LinKernighanSalesman}</li>
+ * <li><code>linKernighan.initialTour</code>, <code>linKernighan.optimization</code>, <code>linKernighan.kicks</code> - phases of the Lin-Kernighan search</li>
+ * </ul>
+ *
+ * Every improvement of the best distance is recorded as {@link ConvergencePoint}.
+ * The curve keeps at most {@value #MAX_CONVERGENCE_POINTS} points,
+ * when it is full every second point is dropped and only every second improvement is recorded from then on.
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+	/**
+	 * The maximum number of points of the convergence curve.
+	 */
+	public static final int MAX_CONVERGENCE_POINTS = 1000;
+
+	private static final AllocationMeter ALLOCATION_METER = AllocationMeter.create();
+
+	private final SolveStatus status;
+
+	private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, PhaseStatistics> phases = new ConcurrentHashMap<>();
+
+	private final List<ConvergencePoint> convergence = new ArrayList<>();
+	private long improvementCount;
+	private long convergenceStride = 1;
+
+	/**
+	 * Creates the metrics of the specified solve.
+	 *
+	 * @param status the {@link SolveStatus} that counts the evaluations and the best distance
+	 */
+	public SolverMetrics(SolveStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * Returns the counter with the specified name, the counter is created on the first call.
+	 *
+	 * @param name the name of the counter
+	 * @return the counter
+	 */
+	public LongAdder counter(String name) {
+		return counters.computeIfAbsent(name, key -> new LongAdder());
+	}
+
+	/**
+	 * Starts to measure a phase in the current thread, the phase ends when the returned {@link Phase} is closed.
+	 *
+	 * The wall-clock time and the bytes allocated by the current thread are added to the phase with the specified name.
+	 * Allocations of other threads, for example of a parallel pool, are not included.
+	 *
+	 * @param name the name of the phase
+	 * @return the {@link Phase} to close at the end of the phase
+	 */
+	public Phase startPhase(String name) {
+		return new Phase(phases.computeIfAbsent(name, key -> new PhaseStatistics()));
+	}
+
+	/**
+	 * Records an improvement of the best distance, called by the {@link ch.obermuhlner.salesman.model.SolveProgress}.
+	 *
+	 * @param distance the new best distance
+	 */
+	public synchronized void recordImprovement(double distance) {
+		if (improvementCount++ % convergenceStride != 0) {
+			return;
+		}
+
+		if (convergence.size() == MAX_CONVERGENCE_POINTS) {
+			for (int i = 0; i < MAX_CONVERGENCE_POINTS / 2; i++) {
+				convergence.set(i, convergence.get(2 * i));
+			}
+			convergence.subList(MAX_CONVERGENCE_POINTS / 2, MAX_CONVERGENCE_POINTS).clear();
+			convergenceStride *= 2;
+		}
+		convergence.add(new ConvergencePoint(status.getElapsedMillis(), status.getEvaluationCount(), distance));
+	}
+
+	@Override
+	public long getElapsedMillis() {
+		return status.getElapsedMillis();
+	}
+
+	@Override
+	public long getEvaluationCount() {
+		return status.getEvaluationCount();
+	}
+
+	@Override
+	public double getEvaluationsPerSecond() {
+		long millis = status.getElapsedMillis();
+		return millis == 0 ? 0 : status.getEvaluationCount() * 1000.0 / millis;
+	}
+
+	@Override
+	public double getBestDistance() {
+		return status.getBestDistance();
+	}
+
+	@Override
+	public synchronized long getImprovementCount() {
+		return improvementCount;
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		Map<String, Long> result = new TreeMap<>();
+		counters.forEach((name, counter) -> result.put(name, counter.sum()));
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getPhaseMillis() {
+		Map<String, Long> result = new TreeMap<>();
+		phases.forEach((name, phase) -> result.put(name, TimeUnit.NANOSECONDS.toMillis(phase.nanos.sum())));
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The map is empty if the Java runtime cannot measure the allocations of a thread.
+	 */
+	@Override
+	public Map<String, Long> getPhaseAllocatedBytes() {
+		Map<String, Long> result = new TreeMap<>();
+		if (ALLOCATION_METER != null) {
+			phases.forEach((name, phase) -> result.put(name, phase.allocatedBytes.sum()));
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized List<ConvergencePoint> getConvergence() {
+		return new ArrayList<>(convergence);
+	}
+
+	/**
+	 * A running measurement of a phase.
+	 */
+	public static class Phase implements AutoCloseable {
+		/**
+		 * The shared phase that measures nothing, for strategies that run without metrics.
+		 */
+		public static final Phase NONE = new Phase();
+
+		private final PhaseStatistics statistics;
+		private final long startNanos;
+		private final long startAllocatedBytes;
+
+		private Phase() {
+			this.statistics = null;
+			this.startAllocatedBytes = 0;
+			this.startNanos = 0;
+		}
+
+		private Phase(PhaseStatistics statistics) {
+			this.statistics = statistics;
+			this.startAllocatedBytes = ALLOCATION_METER != null ? ALLOCATION_METER.allocatedBytes() : 0;
+			this.startNanos = System.nanoTime();
+		}
+
+		@Override
+		public void close() {
+			if (statistics == null) {
+				return;
+			}
+			statistics.nanos.add(System.nanoTime() - startNanos);
+			if (ALLOCATION_METER != null) {
+				statistics.allocatedBytes.add(ALLOCATION_METER.allocatedBytes() - startAllocatedBytes);
+			}
+		}
+	}
+
+	/**
+	 * A point of the convergence curve: the best distance after the specified time and number of evaluations.
+	 */
+	public static class ConvergencePoint {
+		private final long elapsedMillis;
+		private final long evaluationCount;
+		private final double distance;
+
+		@ConstructorProperties({ "elapsedMillis", "evaluationCount", "distance" })
+		public ConvergencePoint(long elapsedMillis, long evaluationCount, double distance) {
+			this.elapsedMillis = elapsedMillis;
+			this.evaluationCount = evaluationCount;
+			this.distance = distance;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public long getEvaluationCount() {
+			return evaluationCount;
+		}
+
+		public double getDistance() {
+			return distance;
+		}
+
+		@Override
+		public String toString() {
+			return "ConvergencePoint(" + elapsedMillis + "ms, " + evaluationCount + ", " + distance + ")";
+		}
+	}
+
+	private static class PhaseStatistics {
+		private final LongAdder nanos = new LongAdder();
+		private final LongAdder allocatedBytes = new LongAdder();
+	}
+
+	/**
+	 * Measures the bytes allocated by the current thread with the HotSpot extension of the {@link java.lang.management.ThreadMXBean}.
+	 */
+	private static class AllocationMeter {
+		private final com.sun.management.ThreadMXBean threadMXBean;
+
+		private AllocationMeter(com.sun.management.ThreadMXBean threadMXBean) {
+			this.threadMXBean = threadMXBean;
+		}
+
+		public long allocatedBytes() {
+			return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		/**
+		 * Creates the meter, or returns <code>null</code> if the Java runtime cannot measure the allocations of a thread.
+		 */
+		public static AllocationMeter create() {
+			try {
+				java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+				if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+					com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+					if (hotSpotThreadMXBean.isThreadAllocatedMemorySupported() && hotSpotThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+						return new AllocationMeter(hotSpotThreadMXBean);
+					}
+				}
+			} catch (LinkageError e) {
+				// not a HotSpot runtime
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package ch.obermuhlner.salesman.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The management interface of the {@link SolverMetrics} of a running solve, as seen through JMX.
+ */
+public interface SolverMetricsMXBean {
+
+	long getElapsedMillis();
+
+	long getEvaluationCount();
+
+	double getEvaluationsPerSecond();
+
+	double getBestDistance();
+
+	long getImprovementCount();
+
+	Map<String, Long> getCounters();
+
+	Map<String, Long> getPhaseMillis();
+
+	Map<String, Long> getPhaseAllocatedBytes();
+
+	List<SolverMetrics.ConvergencePoint> getConvergence();
+}
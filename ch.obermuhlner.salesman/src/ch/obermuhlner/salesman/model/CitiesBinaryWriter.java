@@ -0,0 +1,106 @@
+package ch.obermuhlner.salesman.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes cities into the binary file format that is memory-mapped by {@link MappedCities}.
+ */
+public class CitiesBinaryWriter {
+
+	/**
+	 * Writes the specified cities into a binary cities file.
+	 *
+	 * @param filename the name of the binary cities file
+	 * @param columns the cities to write
+	 */
+	public static void write(String filename, CityColumns columns) {
+		write(filename, columns, null, null);
+	}
+
+	/**
+	 * Writes the specified cities together with their nearest neighbors into a binary cities file.
+	 *
+	 * @param filename the name of the binary cities file
+	 * @param columns the cities to write
+	 * @param neighborLists the nearest neighbors of the cities in the same order, or <code>null</code> to write no neighbors
+	 * @param neighborDistance the name of the distance the neighbors were calculated with (at most 16 ASCII characters), or <code>null</code> if unknown
+	 * @see MappedCities#getNeighborDistance()
+	 */
+	public static void write(String filename, CityColumns columns, NeighborLists neighborLists, String neighborDistance) {
+		int size = columns.size();
+		int neighborCount = neighborLists == null ? 0 : neighborLists.getNeighborCount();
+
+		byte[] neighborDistanceBytes = neighborDistance == null ? new byte[0] : neighborDistance.getBytes(StandardCharsets.US_ASCII);
+		if (neighborDistanceBytes.length > MappedCities.NEIGHBOR_DISTANCE_LENGTH) {
+			throw new IllegalArgumentException("Name of the neighbor distance too long: " + neighborDistance);
+		}
+
+		byte[][] names = new byte[size][];
+		long namesLength = 0;
+		for (int i = 0; i < size; i++) {
+			names[i] = columns.getName(i).getBytes(StandardCharsets.UTF_8);
+			namesLength += names[i].length;
+		}
+
+		long fileSize = MappedCities.HEADER_SIZE
+				+ (long) size * (2 * Double.BYTES + Integer.BYTES)
+				+ (long) (size + 1) * Integer.BYTES
+				+ (long) size * neighborCount * Integer.BYTES
+				+ namesLength;
+		if (namesLength > Integer.MAX_VALUE || fileSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many cities for a binary cities file: " + size);
+		}
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			buffer.putInt(MappedCities.MAGIC);
+			buffer.putInt(MappedCities.VERSION);
+			buffer.putInt(size);
+			buffer.putInt(neighborCount);
+			buffer.put(neighborDistanceBytes);
+			for (int i = neighborDistanceBytes.length; i < MappedCities.NEIGHBOR_DISTANCE_LENGTH; i++) {
+				buffer.put((byte) 0);
+			}
+
+			for (int i = 0; i < size; i++) {
+				buffer.putDouble(columns.getX(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer.putDouble(columns.getY(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer.putInt(columns.getPopulation(i));
+			}
+
+			int nameOffset = 0;
+			buffer.putInt(nameOffset);
+			for (int i = 0; i < size; i++) {
+				nameOffset += names[i].length;
+				buffer.putInt(nameOffset);
+			}
+
+			for (int i = 0; i < size; i++) {
+				for (int rank = 0; rank < neighborCount; rank++) {
+					buffer.putInt(neighborLists.getNeighbor(i, rank));
+				}
+			}
+
+			for (int i = 0; i < size; i++) {
+				buffer.put(names[i]);
+			}
+
+			buffer.force();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
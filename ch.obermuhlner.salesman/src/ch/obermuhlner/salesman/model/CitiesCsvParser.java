@@ -0,0 +1,280 @@
+package ch.obermuhlner.salesman.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses a CSV file with cities line by line, reading the file in chunks from a {@link FileChannel}.
+ *
+ * Every line contains the fields <code>name,latitude,longitude,population</code>, additional fields are ignored.
+ * The numbers are parsed directly from the bytes of the buffer without creating intermediate strings.
+ * A first line that does not contain a number as latitude is treated as header and skipped.
+ *
+ * Instances are not thread-safe.
+ */
+class CitiesCsvParser implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int MAX_FAST_DIGITS = 15;
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final FileChannel channel;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private int position;
+	private boolean endOfFile;
+	private int lineNumber;
+
+	private final int[] fieldStarts = new int[4];
+	private final int[] fieldEnds = new int[4];
+
+	private String name;
+	private double latitude;
+	private double longitude;
+	private int population;
+
+	public CitiesCsvParser(String filename) {
+		try {
+			channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.limit(0);
+	}
+
+	/**
+	 * Parses the next city.
+	 *
+	 * @return <code>true</code> if a city was parsed, <code>false</code> at the end of the file
+	 * @throws IllegalArgumentException if a line does not contain a valid city
+	 */
+	public boolean next() {
+		while (true) {
+			int lineEnd = findLineEnd();
+			if (lineEnd < 0) {
+				return false;
+			}
+
+			byte[] bytes = buffer.array();
+			int lineStart = position;
+			position = lineEnd + 1;
+			lineNumber++;
+
+			int contentEnd = lineEnd;
+			if (contentEnd > lineStart && bytes[contentEnd - 1] == '\r') {
+				contentEnd--;
+			}
+			if (contentEnd == lineStart) {
+				continue;
+			}
+
+			if (parseLine(bytes, lineStart, contentEnd)) {
+				return true;
+			}
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getLatitude() {
+		return latitude;
+	}
+
+	public double getLongitude() {
+		return longitude;
+	}
+
+	public int getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Creates a {@link City} from the last parsed line.
+	 *
+	 * @return the created {@link City}
+	 */
+	public City createCity() {
+		return new City(name, longitude, latitude, population);
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private boolean parseLine(byte[] bytes, int start, int end) {
+		int fieldCount = 0;
+		int fieldStart = start;
+		for (int i = start; i <= end && fieldCount < fieldStarts.length; i++) {
+			if (i == end || bytes[i] == ',') {
+				fieldStarts[fieldCount] = fieldStart;
+				fieldEnds[fieldCount] = i;
+				fieldCount++;
+				fieldStart = i + 1;
+			}
+		}
+
+		if (fieldCount < fieldStarts.length) {
+			throw invalidLine(bytes, start, end);
+		}
+
+		if (lineNumber == 1 && !isNumber(bytes, fieldStarts[1], fieldEnds[1])) {
+			return false;
+		}
+
+		try {
+			latitude = parseDouble(bytes, fieldStarts[1], fieldEnds[1]);
+			longitude = parseDouble(bytes, fieldStarts[2], fieldEnds[2]);
+			population = (int) parseDouble(bytes, fieldStarts[3], fieldEnds[3]);
+		} catch (NumberFormatException e) {
+			throw invalidLine(bytes, start, end);
+		}
+		name = new String(bytes, fieldStarts[0], fieldEnds[0] - fieldStarts[0], StandardCharsets.UTF_8);
+		return true;
+	}
+
+	private IllegalArgumentException invalidLine(byte[] bytes, int start, int end) {
+		return new IllegalArgumentException("Invalid city in line " + lineNumber + ": " + new String(bytes, start, end - start, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the position of the next line feed, reading more of the file if necessary.
+	 *
+	 * @return the position of the line feed (or the end of the last line), or -1 if there are no more lines
+	 */
+	private int findLineEnd() {
+		int searchStart = position;
+		while (true) {
+			byte[] bytes = buffer.array();
+			int limit = buffer.limit();
+			for (int i = searchStart; i < limit; i++) {
+				if (bytes[i] == '\n') {
+					return i;
+				}
+			}
+
+			if (endOfFile) {
+				return position < limit ? limit : -1;
+			}
+
+			searchStart = limit - position;
+			fill();
+		}
+	}
+
+	/**
+	 * Moves the unparsed rest of the buffer to the start and reads the next chunk of the file after it.
+	 */
+	private void fill() {
+		int remaining = buffer.limit() - position;
+		if (remaining == buffer.capacity()) {
+			ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+			largerBuffer.put(buffer.array(), position, remaining);
+			buffer = largerBuffer;
+		} else {
+			System.arraycopy(buffer.array(), position, buffer.array(), 0, remaining);
+			buffer.limit(buffer.capacity());
+			buffer.position(remaining);
+		}
+		position = 0;
+
+		try {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					endOfFile = true;
+					break;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.limit(buffer.position());
+	}
+
+	private static boolean isNumber(byte[] bytes, int start, int end) {
+		try {
+			parseDouble(bytes, start, end);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Parses a decimal number directly from bytes.
+	 *
+	 * Numbers with up to 15 significant digits and no exponent are calculated as a single division of two exact doubles,
+	 * which is correctly rounded and therefore gives the same result as {@link Double#parseDouble(String)}.
+	 * All other numbers fall back to {@link Double#parseDouble(String)}.
+	 */
+	static double parseDouble(byte[] bytes, int start, int end) {
+		int i = start;
+		while (i < end && bytes[i] == ' ') {
+			i++;
+		}
+		int trimmedEnd = end;
+		while (trimmedEnd > i && bytes[trimmedEnd - 1] == ' ') {
+			trimmedEnd--;
+		}
+
+		boolean negative = false;
+		if (i < trimmedEnd && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i] == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean fraction = false;
+		boolean anyDigit = false;
+		for (; i < trimmedEnd; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9') {
+				anyDigit = true;
+				if (mantissa != 0 || b != '0') {
+					digits++;
+				}
+				if (digits > MAX_FAST_DIGITS) {
+					return parseDoubleSlow(bytes, start, end);
+				}
+				mantissa = mantissa * 10 + (b - '0');
+				if (fraction) {
+					fractionDigits++;
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else {
+				return parseDoubleSlow(bytes, start, end);
+			}
+		}
+
+		if (!anyDigit || fractionDigits >= POWERS_OF_TEN.length) {
+			return parseDoubleSlow(bytes, start, end);
+		}
+
+		double value = mantissa / POWERS_OF_TEN[fractionDigits];
+		return negative ? -value : value;
+	}
+
+	private static double parseDoubleSlow(byte[] bytes, int start, int end) {
+		return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+	}
+}
@@ -1,72 +1,216 @@
 package ch.obermuhlner.salesman.model;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import ch.obermuhlner.salesman.util.WeightedSampler;
 
 /**
+ * Loads cities from CSV files with the fields <code>name,latitude,longitude,population</code>.
+ *
+ * The files are parsed in chunks, so the cities can be processed while the file is still being loaded
+ * (see {@link #load(String, Consumer)} and {@link #stream(String)}).
+ *
  * https://simplemaps.com/data/world-cities
  * https://planetarynames.wr.usgs.gov/nomenclature/AdvancedSearch
  */
 public class CitiesLoader {
 
+	private static final int INITIAL_COLUMN_CAPACITY = 1024;
+
+	private static final Map<String, WeightedCities> weightedCitiesCache = new ConcurrentHashMap<>();
+
 	public static List<City> load(String filename) {
-		try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-			reader.readLine(); // ignore header
-			return reader.lines()
-				.map(line -> line.split(","))
-				.map(fields -> {
-					String name = fields[0];
-					double lat = Double.parseDouble(fields[1]);
-					double lon = Double.parseDouble(fields[2]);
-					int population = (int) Double.parseDouble(fields[3]);
-					return new City(name, lon, lat, population);
-				})
-				.collect(Collectors.toList());
-			
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+		List<City> cities = new ArrayList<>();
+		load(filename, cities::add);
+		return cities;
+	}
+
+	/**
+	 * Loads the cities of the specified file and passes each city to the specified {@link Consumer} as soon as it is parsed.
+	 *
+	 * @param filename the name of the CSV file
+	 * @param consumer the {@link Consumer} that receives the cities in the order of the file
+	 */
+	public static void load(String filename, Consumer<City> consumer) {
+		try (CitiesCsvParser parser = new CitiesCsvParser(filename)) {
+			while (parser.next()) {
+				consumer.accept(parser.createCity());
+			}
 		}
 	}
+
+	/**
+	 * Returns a lazy {@link Stream} of the cities of the specified file, which is parsed while the stream is consumed.
+	 *
+	 * The stream must be closed to close the file, preferably with a try-with-resources statement.
+	 *
+	 * @param filename the name of the CSV file
+	 * @return the {@link Stream} of cities in the order of the file
+	 */
+	public static Stream<City> stream(String filename) {
+		CitiesCsvParser parser = new CitiesCsvParser(filename);
+		Spliterator<City> spliterator = new Spliterators.AbstractSpliterator<City>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super City> action) {
+				if (!parser.next()) {
+					return false;
+				}
+				action.accept(parser.createCity());
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(parser::close);
+	}
+
+	/**
+	 * Loads the cities of the specified file into primitive columns without creating {@link City} objects.
+	 *
+	 * The longitude is stored as x and the latitude as y coordinate, like in the {@link City} objects created by the other methods.
+	 *
+	 * @param filename the name of the CSV file
+	 * @return the loaded {@link CityColumns}
+	 */
+	public static CityColumns loadColumns(String filename) {
+		String[] names = new String[INITIAL_COLUMN_CAPACITY];
+		double[] x = new double[INITIAL_COLUMN_CAPACITY];
+		double[] y = new double[INITIAL_COLUMN_CAPACITY];
+		int[] populations = new int[INITIAL_COLUMN_CAPACITY];
+		int size = 0;
+
+		try (CitiesCsvParser parser = new CitiesCsvParser(filename)) {
+			while (parser.next()) {
+				if (size == names.length) {
+					int capacity = size * 2;
+					names = Arrays.copyOf(names, capacity);
+					x = Arrays.copyOf(x, capacity);
+					y = Arrays.copyOf(y, capacity);
+					populations = Arrays.copyOf(populations, capacity);
+				}
+				names[size] = parser.getName();
+				x[size] = parser.getLongitude();
+				y[size] = parser.getLatitude();
+				populations[size] = parser.getPopulation();
+				size++;
+			}
+		}
+
+		return new CityColumns(names, x, y, populations, size);
+	}
 	
+	/**
+	 * Loads a random selection of distinct cities from the specified file, weighted by their population.
+	 *
+	 * The cities and their weights are loaded only once per file and reused by later calls,
+	 * so every city is drawn in O(log n) without retries for already selected cities.
+	 * The file may also be a binary cities file (see {@link MappedCities}), in which case only the selected cities are created.
+	 * Cities without a positive population are only selected (uniformly) after all populated cities have been selected.
+	 * The same seed of the random number generator always gives the same cities in the same order.
+	 *
+	 * @param filename the name of the CSV file
+	 * @param random the random number generator
+	 * @param count the number of cities to select
+	 * @return the selected cities in the order they were drawn, or all cities if the file contains fewer than <code>count</code> cities
+	 */
 	public static List<City> load(String filename, Random random, int count) {
-		List<City> cities = load(filename);
+		WeightedCities weightedCities = loadWeightedCities(filename);
+		List<City> cities = weightedCities.cities;
 		if (cities.size() < count) {
-			return cities;
+			return new ArrayList<>(cities);
 		}
 		
-		int totalPopulation = cities.stream()
-			.mapToInt(city -> city.population)
-			.sum();
-		
-		Set<City> selectedCities = new HashSet<>();
-		City randomCity = null;
-		for (int i = 0; i < count; i++) {
-			do {
-				int r = random.nextInt(totalPopulation);
-				randomCity = pickCity(cities, r);
-			} while(selectedCities.contains(randomCity));
-			selectedCities.add(randomCity);
+		List<City> selectedCities = new ArrayList<>(count);
+		WeightedSampler sampler = weightedCities.sampler;
+		synchronized (sampler) {
+			int[] drawnIndexes = new int[count];
+			long[] drawnWeights = new long[count];
+			int drawnCount = 0;
+			try {
+				while (drawnCount < count && sampler.getTotalWeight() > 0) {
+					int index = sampler.sample(random);
+					long weight = sampler.getWeight(index);
+					sampler.remove(index);
+					drawnIndexes[drawnCount] = index;
+					drawnWeights[drawnCount] = weight;
+					drawnCount++;
+					selectedCities.add(cities.get(index));
+				}
+			} finally {
+				// restoring the drawn weights costs O(count log n), copying the sampler would cost O(n) for every call
+				for (int i = 0; i < drawnCount; i++) {
+					sampler.add(drawnIndexes[i], drawnWeights[i]);
+				}
+			}
+
+			if (selectedCities.size() < count) {
+				int[] unselected = new int[cities.size() - selectedCities.size()];
+				int unselectedCount = 0;
+				for (int i = 0; i < cities.size(); i++) {
+					if (sampler.getWeight(i) == 0) {
+						unselected[unselectedCount++] = i;
+					}
+				}
+				while (selectedCities.size() < count) {
+					int r = random.nextInt(unselectedCount);
+					selectedCities.add(cities.get(unselected[r]));
+					unselected[r] = unselected[--unselectedCount];
+				}
+			}
 		}
 		
-		return new ArrayList<>(selectedCities);
+		return selectedCities;
 	}
 
-	private static City pickCity(List<City> cities, int r) {
-		int total = 0;
-		for (City city : cities) {
-			int nextTotal = total + city.population;
-			if (r >= total && r < nextTotal) {
-				return city;
+	private static WeightedCities loadWeightedCities(String filename) {
+		File file = new File(filename).getAbsoluteFile();
+		String key = file.getPath();
+		WeightedCities weightedCities = weightedCitiesCache.get(key);
+		if (weightedCities == null || weightedCities.lastModified != file.lastModified() || weightedCities.length != file.length()) {
+			if (MappedCities.isBinaryFile(filename)) {
+				MappedCities mappedCities = MappedCities.open(filename);
+				weightedCities = new WeightedCities(file, mappedCities, mappedCities::getPopulation);
+			} else {
+				List<City> cities = load(filename);
+				weightedCities = new WeightedCities(file, cities, index -> cities.get(index).population);
+			}
+			weightedCitiesCache.put(key, weightedCities);
+		}
+		return weightedCities;
+	}
+
+	/**
+	 * The cities of a file together with a {@link WeightedSampler} of their populations.
+	 *
+	 * Instances are shared between threads.
+ * The sampler is only used while holding its lock and every removed weight is restored before the lock is released.
+	 */
+	private static class WeightedCities {
+		private final long lastModified;
+		private final long length;
+		private final List<City> cities;
+		private final WeightedSampler sampler;
+
+		public WeightedCities(File file, List<City> cities, IntUnaryOperator populations) {
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+			this.cities = cities;
+
+			long[] weights = new long[cities.size()];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = Math.max(0, populations.applyAsInt(i));
 			}
-			total = nextTotal;
+			this.sampler = new WeightedSampler(weights);
 		}
-		throw new IllegalArgumentException("Illegal value " + r + " when total is " + total);
 	}
 }
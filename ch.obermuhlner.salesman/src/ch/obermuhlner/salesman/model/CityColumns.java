@@ -0,0 +1,86 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cities stored column-wise in primitive arrays.
+ *
+ * Loading millions of cities into columns avoids the overhead of one {@link City} object per city;
+ * {@link City} objects are only created when they are accessed.
+ */
+public class CityColumns {
+
+	private final String[] names;
+	private final double[] x;
+	private final double[] y;
+	private final int[] populations;
+	private final int size;
+
+	/**
+	 * Constructs {@link CityColumns}.
+	 *
+	 * The arrays are used directly, only the first <code>size</code> elements are part of the columns.
+	 *
+	 * @param names the names of the cities
+	 * @param x the x coordinates of the cities (or longitude in spherical coordinates)
+	 * @param y the y coordinates of the cities (or latitude in spherical coordinates)
+	 * @param populations the populations of the cities
+	 * @param size the number of cities
+	 */
+	public CityColumns(String[] names, double[] x, double[] y, int[] populations, int size) {
+		this.names = names;
+		this.x = x;
+		this.y = y;
+		this.populations = populations;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the number of cities.
+	 *
+	 * @return the number of cities
+	 */
+	public int size() {
+		return size;
+	}
+
+	public String getName(int index) {
+		return names[index];
+	}
+
+	public double getX(int index) {
+		return x[index];
+	}
+
+	public double getY(int index) {
+		return y[index];
+	}
+
+	public int getPopulation(int index) {
+		return populations[index];
+	}
+
+	/**
+	 * Creates the {@link City} with the specified index.
+	 *
+	 * @param index the index of the city
+	 * @return the created {@link City}
+	 */
+	public City getCity(int index) {
+		return new City(names[index], x[index], y[index], populations[index]);
+	}
+
+	/**
+	 * Creates a list of all cities.
+	 *
+	 * @return the created list of cities
+	 */
+	public List<City> toCities() {
+		List<City> cities = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			cities.add(getCity(i));
+		}
+		return cities;
+	}
+}
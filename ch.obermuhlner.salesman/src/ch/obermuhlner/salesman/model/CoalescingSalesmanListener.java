@@ -0,0 +1,118 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link SalesmanListener} that decouples the solving threads from a slow observer, for example a user interface.
+ *
+ * The solving threads only publish the reported tours into a buffer that keeps the latest value and return immediately,
+ * they never block and never wait for the observer.
+ * The buffer is delivered to the target {@link SalesmanListener} by the {@link Executor},
+ * at most one delivery is pending at any time, so all reports that arrive until the delivery runs are coalesced into a single call.
+ *
+ * Discarded solutions are usually reported far more often than improvements,
+ * so only a random sample of one in n discarded reports is published (see {@link #setDiscardedSampleInterval(int)}).
+ */
+public class CoalescingSalesmanListener implements SalesmanListener {
+
+	private final Executor executor;
+	private final SalesmanListener target;
+
+	private volatile int discardedSampleInterval = 100;
+
+	private final AtomicReference<List<Tour>> latestImproved = new AtomicReference<>();
+	private final AtomicReference<List<Tour>> latestDiscarded = new AtomicReference<>();
+	private final AtomicBoolean deliveryPending = new AtomicBoolean();
+
+	private final LongAdder improvedCount = new LongAdder();
+	private final LongAdder discardedCount = new LongAdder();
+
+	/**
+	 * Creates a listener that delivers to the specified target.
+	 *
+	 * @param executor the {@link Executor} that calls the target, for example <code>Platform::runLater</code>
+	 * @param target the {@link SalesmanListener} that receives the latest tours
+	 */
+	public CoalescingSalesmanListener(Executor executor, SalesmanListener target) {
+		this.executor = executor;
+		this.target = target;
+	}
+
+	/**
+	 * Sets the sampling interval of the discarded reports, on average one in this many discarded reports is published and the others are only counted.
+	 *
+	 * The default is 100, an interval of 1 publishes every discarded report and 0 publishes none.
+	 *
+	 * @param discardedSampleInterval the number of discarded reports per published report
+	 */
+	public void setDiscardedSampleInterval(int discardedSampleInterval) {
+		this.discardedSampleInterval = discardedSampleInterval;
+	}
+
+	/**
+	 * Returns the number of improved reports, including the coalesced reports.
+	 *
+	 * @return the number of improved reports
+	 */
+	public long getImprovedCount() {
+		return improvedCount.sum();
+	}
+
+	/**
+	 * Returns the number of discarded reports, including the reports that were not sampled.
+	 *
+	 * @return the number of discarded reports
+	 */
+	public long getDiscardedCount() {
+		return discardedCount.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The list is copied, because strategies may report a list that they continue to modify.
+	 */
+	@Override
+	public void improvedSolutions(List<Tour> improved) {
+		improvedCount.increment();
+		latestImproved.set(new ArrayList<>(improved));
+		scheduleDelivery();
+	}
+
+	@Override
+	public void discardedSolutions(List<Tour> discarded) {
+		discardedCount.increment();
+		int interval = discardedSampleInterval;
+		if (interval > 0 && (interval == 1 || ThreadLocalRandom.current().nextInt(interval) == 0)) {
+			latestDiscarded.set(new ArrayList<>(discarded));
+			scheduleDelivery();
+		}
+	}
+
+	private void scheduleDelivery() {
+		if (deliveryPending.compareAndSet(false, true)) {
+			executor.execute(this::deliver);
+		}
+	}
+
+	private void deliver() {
+		// reset the flag before taking the buffers, so that a report arriving now schedules a new delivery
+		deliveryPending.set(false);
+
+		List<Tour> improved = latestImproved.getAndSet(null);
+		List<Tour> discarded = latestDiscarded.getAndSet(null);
+		if (improved != null) {
+			target.improvedSolutions(improved);
+		}
+		if (discarded != null) {
+			target.discardedSolutions(discarded);
+		}
+	}
+
+}
@@ -0,0 +1,268 @@
+package ch.obermuhlner.salesman.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cities stored in a binary file that is memory-mapped instead of parsed.
+ *
+ * The file is written by {@link CitiesBinaryWriter} and consists of the following little-endian sections:
+ * <ul>
+ * <li>header: <code>int</code> magic number, <code>int</code> version, <code>int</code> number of cities n, <code>int</code> number of neighbors k,
+ * <code>byte[16]</code> name of the distance the neighbors were calculated with (ASCII, padded with zeros)</li>
+ * <li>x coordinates (or longitude): <code>double[n]</code></li>
+ * <li>y coordinates (or latitude): <code>double[n]</code></li>
+ * <li>populations: <code>int[n]</code></li>
+ * <li>name offsets into the string table: <code>int[n+1]</code></li>
+ * <li>nearest neighbors of every city (optional): <code>int[n*k]</code></li>
+ * <li>string table with the UTF-8 encoded names</li>
+ * </ul>
+ *
+ * Opening a file only maps it into memory, the columns are read directly from the mapped file
+ * and {@link City} objects (including the decoding of their names) are only created when they are accessed with {@link #get(int)}.
+ * The list is unmodifiable, so a {@link Problem} uses it directly instead of copying it.
+ *
+ * Files of version 1 have a header without the name of the distance.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public class MappedCities extends AbstractList<City> implements RandomAccess {
+
+	/**
+	 * The recommended file extension of binary city files.
+	 */
+	public static final String FILE_EXTENSION = ".cities";
+
+	static final int MAGIC = 0x54535043;
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 32;
+	static final int NEIGHBOR_DISTANCE_LENGTH = 16;
+
+	private static final int VERSION_1_HEADER_SIZE = 16;
+
+	private final int size;
+	private final int neighborCount;
+	private final String neighborDistance;
+	private final DoubleBuffer x;
+	private final DoubleBuffer y;
+	private final IntBuffer populations;
+	private final IntBuffer nameOffsets;
+	private final IntBuffer neighbors;
+	private final ByteBuffer names;
+	private final AtomicReferenceArray<City> cities;
+
+	private MappedCities(ByteBuffer buffer) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.limit() < VERSION_1_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a binary cities file");
+		}
+		int version = buffer.getInt(4);
+		if (version != 1 && version != VERSION) {
+			throw new IllegalArgumentException("Unsupported version of binary cities file: " + version);
+		}
+		size = buffer.getInt(8);
+		neighborCount = buffer.getInt(12);
+
+		long offset = VERSION_1_HEADER_SIZE;
+		if (version == 1) {
+			neighborDistance = null;
+		} else {
+			ByteBuffer distanceName = section(buffer, offset, NEIGHBOR_DISTANCE_LENGTH);
+			byte[] bytes = new byte[NEIGHBOR_DISTANCE_LENGTH];
+			distanceName.get(bytes);
+			int length = 0;
+			while (length < bytes.length && bytes[length] != 0) {
+				length++;
+			}
+			neighborDistance = length == 0 ? null : new String(bytes, 0, length, StandardCharsets.US_ASCII);
+			offset = HEADER_SIZE;
+		}
+
+		x = section(buffer, offset, (long) size * Double.BYTES).asDoubleBuffer();
+		offset += (long) size * Double.BYTES;
+		y = section(buffer, offset, (long) size * Double.BYTES).asDoubleBuffer();
+		offset += (long) size * Double.BYTES;
+		populations = section(buffer, offset, (long) size * Integer.BYTES).asIntBuffer();
+		offset += (long) size * Integer.BYTES;
+		nameOffsets = section(buffer, offset, (long) (size + 1) * Integer.BYTES).asIntBuffer();
+		offset += (long) (size + 1) * Integer.BYTES;
+		neighbors = section(buffer, offset, (long) size * neighborCount * Integer.BYTES).asIntBuffer();
+		offset += (long) size * neighborCount * Integer.BYTES;
+		names = section(buffer, offset, nameOffsets.get(size));
+		cities = new AtomicReferenceArray<>(size);
+	}
+
+	private static ByteBuffer section(ByteBuffer buffer, long offset, long length) {
+		if (offset + length > buffer.limit()) {
+			throw new IllegalArgumentException("Truncated binary cities file");
+		}
+		ByteBuffer section = buffer.duplicate();
+		section.position((int) offset);
+		section.limit((int) (offset + length));
+		return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Memory-maps the specified binary cities file.
+	 *
+	 * @param filename the name of the binary cities file
+	 * @return the {@link MappedCities}
+	 * @throws IllegalArgumentException if the file is not a valid binary cities file
+	 */
+	public static MappedCities open(String filename) {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Binary cities file too large: " + filename);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new MappedCities(buffer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns whether the specified file starts with the magic number of a binary cities file.
+	 *
+	 * @param filename the name of the file
+	 * @return <code>true</code> if the file is a binary cities file
+	 */
+	public static boolean isBinaryFile(String filename) {
+		Path path = Paths.get(filename);
+		if (!Files.isRegularFile(path)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					return false;
+				}
+			}
+			return header.getInt(0) == MAGIC;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public double getX(int index) {
+		return x.get(index);
+	}
+
+	public double getY(int index) {
+		return y.get(index);
+	}
+
+	public int getPopulation(int index) {
+		return populations.get(index);
+	}
+
+	/**
+	 * Decodes the name of the city with the specified index from the string table.
+	 *
+	 * @param index the index of the city
+	 * @return the name of the city
+	 */
+	public String getName(int index) {
+		int start = nameOffsets.get(index);
+		byte[] bytes = new byte[nameOffsets.get(index + 1) - start];
+		ByteBuffer name = names.duplicate();
+		name.position(start);
+		name.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the {@link City} with the specified index.
+	 *
+	 * The {@link City} is created on the first access and then reused,
+	 * so that it can be identified like the cities of any other list, for example by {@link Problem#indexOf(City)}.
+	 *
+	 * @param index the index of the city
+	 * @return the {@link City}
+	 */
+	@Override
+	public City get(int index) {
+		City city = cities.get(index);
+		if (city == null) {
+			cities.compareAndSet(index, null, new City(getName(index), getX(index), getY(index), getPopulation(index)));
+			city = cities.get(index);
+		}
+		return city;
+	}
+
+	/**
+	 * Returns the number of nearest neighbors stored for every city.
+	 *
+	 * @return the number of neighbors, or 0 if the file contains no neighbors
+	 */
+	public int getNeighborCount() {
+		return neighborCount;
+	}
+
+	/**
+	 * Returns the name of the distance the stored nearest neighbors were calculated with, for example <code>earth</code>.
+	 *
+	 * The neighbors should only be used with a {@link Problem} that uses the same distance.
+	 *
+	 * @return the name of the distance, or <code>null</code> if it is unknown
+	 */
+	public String getNeighborDistance() {
+		return neighborDistance;
+	}
+
+	/**
+	 * Copies the stored nearest neighbors of all cities into {@link NeighborLists}.
+	 *
+	 * The neighbors are only valid for a {@link Problem} with all cities of this file in the same order,
+	 * see {@link Problem#setNeighborLists(NeighborLists)}.
+	 *
+	 * @return the {@link NeighborLists}, or <code>null</code> if the file contains no neighbors
+	 */
+	public NeighborLists getNeighborLists() {
+		if (neighborCount == 0) {
+			return null;
+		}
+		int[] result = new int[size * neighborCount];
+		neighbors.duplicate().get(result);
+		return new NeighborLists(neighborCount, result);
+	}
+
+	/**
+	 * Copies the columns into {@link CityColumns}.
+	 *
+	 * @return the {@link CityColumns}
+	 */
+	public CityColumns toColumns() {
+		String[] nameColumn = new String[size];
+		double[] xColumn = new double[size];
+		double[] yColumn = new double[size];
+		int[] populationColumn = new int[size];
+		for (int i = 0; i < size; i++) {
+			nameColumn[i] = getName(i);
+		}
+		x.duplicate().get(xColumn);
+		y.duplicate().get(yColumn);
+		populations.duplicate().get(populationColumn);
+		return new CityColumns(nameColumn, xColumn, yColumn, populationColumn, size);
+	}
+}
@@ -0,0 +1,108 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.stream.IntStream;
+
+import ch.obermuhlner.salesman.spatial.KdTree;
+
+/**
+ * The nearest neighbors of every city of a {@link Problem}, sorted by increasing distance.
+ *
+ * Local search strategies only consider moves that connect a city with one of its nearest neighbors,
+ * which reduces the neighborhood of a city from O(n) to O(1) candidates.
+ */
+public class NeighborLists {
+
+	private final int neighborCount;
+	private final int[] neighbors;
+
+	/**
+	 * Constructs {@link NeighborLists}.
+	 *
+	 * @param neighborCount the number of neighbors of every city
+	 * @param neighbors the flat array of neighbors, the neighbors of city <code>i</code> start at index <code>i * neighborCount</code>
+	 */
+	public NeighborLists(int neighborCount, int[] neighbors) {
+		this.neighborCount = neighborCount;
+		this.neighbors = neighbors;
+	}
+
+	/**
+	 * Calculates the nearest neighbors of every city of the specified {@link Problem}.
+	 *
+	 * If the {@link Problem} has a {@link KdTree} the neighbors are found in O(n log n),
+	 * otherwise the distances to all other cities are compared in O(n<sup>2</sup>).
+	 *
+	 * @param problem the {@link Problem}
+	 * @param neighborCount the number of neighbors of every city, limited to the number of other cities in the problem
+	 * @return the calculated {@link NeighborLists}
+	 */
+	public static NeighborLists create(Problem problem, int neighborCount) {
+		int n = problem.size();
+		int count = Math.max(0, Math.min(neighborCount, n - 1));
+		int[] neighbors = new int[n * count];
+
+		KdTree kdTree = count > 0 ? problem.getKdTree() : null;
+		if (kdTree != null) {
+			IntStream.range(0, n).parallel().forEach(city -> {
+				int[] cityNeighbors = new int[count];
+				kdTree.nearestNeighbors(city, count, cityNeighbors);
+				System.arraycopy(cityNeighbors, 0, neighbors, city * count, count);
+			});
+			return new NeighborLists(count, neighbors);
+		}
+
+		IntStream.range(0, n).parallel().forEach(city -> {
+			findNearestNeighbors(problem, city, count, neighbors);
+		});
+
+		return new NeighborLists(count, neighbors);
+	}
+
+	private static void findNearestNeighbors(Problem problem, int city, int count, int[] neighbors) {
+		if (count == 0) {
+			return;
+		}
+
+		int offset = city * count;
+		double[] distances = new double[count];
+		int found = 0;
+
+		for (int candidate = 0; candidate < problem.size(); candidate++) {
+			if (candidate == city) {
+				continue;
+			}
+
+			double distance = problem.distance(city, candidate);
+			if (found < count || distance < distances[count - 1]) {
+				int index = found < count ? found++ : count - 1;
+				while (index > 0 && distances[index - 1] > distance) {
+					distances[index] = distances[index - 1];
+					neighbors[offset + index] = neighbors[offset + index - 1];
+					index--;
+				}
+				distances[index] = distance;
+				neighbors[offset + index] = candidate;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of neighbors of every city.
+	 *
+	 * @return the number of neighbors
+	 */
+	public int getNeighborCount() {
+		return neighborCount;
+	}
+
+	/**
+	 * Returns the neighbor of the specified city with the specified rank.
+	 *
+	 * @param cityIndex the index of the city
+	 * @param rank the rank of the neighbor, 0 being the nearest neighbor
+	 * @return the index of the neighbor city
+	 */
+	public int getNeighbor(int cityIndex, int rank) {
+		return neighbors[cityIndex * neighborCount + rank];
+	}
+}
@@ -0,0 +1,262 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.distance.DistanceMatrix;
+import ch.obermuhlner.salesman.spatial.KdTree;
+
+/**
+ * Instance of the traveling salesman problem that is shared by all {@link Tour}s through its cities.
+ * 
+ * The cities are identified by their index in the list of cities.
+ * 
+ * The distances between the cities are precalculated in a {@link DistanceMatrix} for problems up to {@link #MAX_DISTANCE_MATRIX_SIZE} cities.
+ * Larger problems calculate the distances on demand, since the matrix grows quadratically with the number of cities.
+ */
+public class Problem {
+
+	/**
+	 * The maximum number of cities for which the distances are precalculated in a {@link DistanceMatrix}.
+	 */
+	public static final int MAX_DISTANCE_MATRIX_SIZE = 2000;
+
+	private final List<City> cities;
+	private final DistanceCalculator distanceCalculator;
+	private final DistanceMatrix precalculatedDistanceMatrix;
+	private DistanceMatrix distanceMatrix;
+	private Map<City, Integer> cityIndexes;
+	private final Map<Integer, NeighborLists> neighborLists = new HashMap<>();
+	private KdTree kdTree;
+	private boolean kdTreeCreated;
+
+	/**
+	 * Constructs a {@link Problem}.
+	 * 
+	 * @param cities the list of cities to visit
+	 * @param distanceCalculator the {@link DistanceCalculator} used to calculate the distance between cities
+	 */
+	public Problem(List<City> cities, DistanceCalculator distanceCalculator) {
+		if (distanceCalculator instanceof DistanceMatrix && ((DistanceMatrix) distanceCalculator).getCities().equals(cities)) {
+			this.precalculatedDistanceMatrix = (DistanceMatrix) distanceCalculator;
+			this.distanceCalculator = precalculatedDistanceMatrix.getDistanceCalculator();
+			this.cities = precalculatedDistanceMatrix.getCities();
+		} else {
+			if (distanceCalculator instanceof DistanceMatrix) {
+				distanceCalculator = ((DistanceMatrix) distanceCalculator).getDistanceCalculator();
+			}
+			// the mapped cities are immutable, copying them would create every city up front
+			this.cities = cities instanceof MappedCities ? cities : Collections.unmodifiableList(new ArrayList<>(cities));
+			this.distanceCalculator = distanceCalculator;
+			this.precalculatedDistanceMatrix = cities.size() <= MAX_DISTANCE_MATRIX_SIZE ? new DistanceMatrix(this.cities, distanceCalculator) : null;
+		}
+		this.distanceMatrix = precalculatedDistanceMatrix;
+	}
+
+	/**
+	 * Returns the cities of this problem in the order of their indexes.
+	 * 
+	 * @return the unmodifiable list of cities
+	 */
+	public List<City> getCities() {
+		return cities;
+	}
+
+	/**
+	 * Returns the number of cities in this problem.
+	 * 
+	 * @return the number of cities
+	 */
+	public int size() {
+		return cities.size();
+	}
+
+	/**
+	 * Returns the city with the specified index.
+	 * 
+	 * @param cityIndex the index of the city
+	 * @return the city
+	 */
+	public City getCity(int cityIndex) {
+		return cities.get(cityIndex);
+	}
+
+	/**
+	 * Returns the {@link DistanceCalculator} used to calculate the distance between the cities of this problem.
+	 * 
+	 * @return the {@link DistanceCalculator}
+	 */
+	public DistanceCalculator getDistanceCalculator() {
+		return distanceCalculator;
+	}
+
+	/**
+	 * Returns the {@link DistanceMatrix} with the distances between all cities of this problem.
+	 * 
+	 * The {@link DistanceMatrix} is also a {@link DistanceCalculator} that can be used with the cities of this problem.
+	 * For problems with more than {@link #MAX_DISTANCE_MATRIX_SIZE} cities the {@link DistanceMatrix} is only calculated when this method is called.
+	 * 
+	 * @return the {@link DistanceMatrix}
+	 */
+	public synchronized DistanceMatrix getDistanceMatrix() {
+		if (distanceMatrix == null) {
+			distanceMatrix = new DistanceMatrix(cities, distanceCalculator);
+		}
+		return distanceMatrix;
+	}
+
+	/**
+	 * Returns the {@link NeighborLists} with the specified number of nearest neighbors of every city.
+	 * 
+	 * The {@link NeighborLists} are calculated once per number of neighbors and shared by all strategies working on this problem.
+	 * 
+	 * @param neighborCount the number of nearest neighbors of every city
+	 * @return the {@link NeighborLists}
+	 */
+	public synchronized NeighborLists getNeighborLists(int neighborCount) {
+		int effectiveNeighborCount = Math.max(0, Math.min(neighborCount, size() - 1));
+		return neighborLists.computeIfAbsent(effectiveNeighborCount, key -> NeighborLists.create(this, neighborCount));
+	}
+
+	/**
+	 * Sets precalculated {@link NeighborLists}, for example loaded from a binary file with {@link MappedCities#getNeighborLists()}.
+	 *
+	 * The {@link NeighborLists} must contain the neighbors of the cities of this problem in the same order.
+	 * {@link #getNeighborLists(int)} returns them instead of calculating new ones when their number of neighbors is requested.
+	 *
+	 * @param neighborLists the {@link NeighborLists}
+	 */
+	public synchronized void setNeighborLists(NeighborLists neighborLists) {
+		this.neighborLists.put(neighborLists.getNeighborCount(), neighborLists);
+	}
+
+	/**
+	 * Returns the {@link KdTree} to find the nearest neighbors of the cities of this problem.
+	 * 
+	 * The {@link KdTree} is created once and shared by all strategies working on this problem.
+	 * 
+	 * @return the {@link KdTree}, or <code>null</code> if the {@link DistanceCalculator} does not support euclidean coordinates
+	 * @see DistanceCalculator#euclideanCoordinates(City)
+	 */
+	public synchronized KdTree getKdTree() {
+		if (!kdTreeCreated) {
+			kdTree = KdTree.create(cities, distanceCalculator);
+			kdTreeCreated = true;
+		}
+		return kdTree;
+	}
+
+	/**
+	 * Returns the distance between two cities specified by their indexes.
+	 * 
+	 * @param cityIndex1 the index of the first city
+	 * @param cityIndex2 the index of the second city
+	 * @return the distance between the two cities
+	 */
+	public double distance(int cityIndex1, int cityIndex2) {
+		if (precalculatedDistanceMatrix != null) {
+			return precalculatedDistanceMatrix.distance(cityIndex1, cityIndex2);
+		}
+		return distanceCalculator.distance(cities.get(cityIndex1), cities.get(cityIndex2));
+	}
+
+	/**
+	 * Calculates the total distance of a cycle through the cities specified by their indexes,
+	 * including the distance back to the starting city.
+	 * 
+	 * @param cityIndexes the indexes of the cities to visit in a cycle
+	 * @return the total distance
+	 */
+	public double distance(int[] cityIndexes) {
+		if (precalculatedDistanceMatrix != null) {
+			return precalculatedDistanceMatrix.distance(cityIndexes);
+		}
+
+		if (cityIndexes.length <= 1) {
+			return 0;
+		}
+
+		double total = 0;
+
+		int currentCity = cityIndexes[cityIndexes.length - 1];
+		for (int nextCity : cityIndexes) {
+			total += distance(currentCity, nextCity);
+			currentCity = nextCity;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Returns the total distance of the specified {@link Tour}, including the distance back to the starting city.
+	 * 
+	 * @param tour the {@link Tour}
+	 * @return the total distance
+	 * @see Tour#getDistance()
+	 */
+	public double distance(Tour tour) {
+		return tour.getDistance();
+	}
+
+	/**
+	 * Creates a {@link Tour} that visits the cities in the order of their indexes.
+	 * 
+	 * @return the created {@link Tour}
+	 */
+	public Tour createTour() {
+		int[] cityIndexes = new int[size()];
+		for (int i = 0; i < cityIndexes.length; i++) {
+			cityIndexes[i] = i;
+		}
+		return new Tour(this, cityIndexes);
+	}
+
+	/**
+	 * Creates a {@link Tour} that visits the specified cities of this problem in the specified order.
+	 * 
+	 * @param path the cities of this problem in the order to visit them
+	 * @return the created {@link Tour}
+	 * @throws IllegalArgumentException if a city is not part of this problem
+	 */
+	public Tour toTour(List<City> path) {
+		int[] cityIndexes = new int[path.size()];
+		for (int i = 0; i < cityIndexes.length; i++) {
+			cityIndexes[i] = indexOf(path.get(i));
+		}
+		return new Tour(this, cityIndexes);
+	}
+
+	/**
+	 * Returns the index of the specified city.
+	 * 
+	 * @param city the city
+	 * @return the index of the city
+	 * @throws IllegalArgumentException if the city is not part of this problem
+	 */
+	public int indexOf(City city) {
+		if (precalculatedDistanceMatrix != null) {
+			return precalculatedDistanceMatrix.indexOf(city);
+		}
+
+		Integer index = getCityIndexes().get(city);
+		if (index == null) {
+			throw new IllegalArgumentException("Unknown city: " + city);
+		}
+		return index;
+	}
+
+	private synchronized Map<City, Integer> getCityIndexes() {
+		if (cityIndexes == null) {
+			cityIndexes = new IdentityHashMap<>();
+			for (int i = 0; i < cities.size(); i++) {
+				cityIndexes.put(cities.get(i), i);
+			}
+		}
+		return cityIndexes;
+	}
+}
@@ -10,12 +10,41 @@ import ch.obermuhlner.salesman.distance.DistanceCalculator;
  */
 public interface Salesman {
 
+	/**
+	 * Returns the best solution that could be found (it might not be the perfect solution).
+	 * 
+	 * @param problem the {@link Problem} with the cities to visit
+	 * @return the {@link Tour} with the shortest total distance this algorithm could find
+	 */
+	Tour bestTour(Problem problem);
+
+	/**
+	 * Returns the best solution that could be found within the {@link SolveBudget} of the specified {@link SolveProgress}.
+	 *
+	 * Iterative strategies stop as soon as the budget is exhausted and return the best solution found so far,
+	 * which they also report to the {@link SolveProgress} while they are running.
+	 * The default implementation calls {@link #bestTour(Problem)} and reports the result as a single evaluation.
+	 *
+	 * @param problem the {@link Problem} with the cities to visit
+	 * @param progress the {@link SolveProgress} that limits the solving and receives the found solutions
+	 * @return the {@link Tour} with the shortest total distance this algorithm could find within the budget
+	 */
+	default Tour bestTour(Problem problem, SolveProgress progress) {
+		Tour tour = bestTour(problem);
+		progress.addEvaluations(1);
+		progress.improvedSolution(tour);
+		return tour;
+	}
+
 	/**
 	 * Returns the best solution that could be found (it might not be the perfect solution).
 	 * 
 	 * @param cities the list of cities to visit
 	 * @param distanceCalculator the {@link DistanceCalculator} used to calculate the distance between cities
 	 * @return the solution with the cities in the order that has the shortest total distance this algorithm could find
+	 * @see #bestTour(Problem)
 	 */
-	List<City> bestPath(List<City> cities, DistanceCalculator distanceCalculator);
+	default List<City> bestPath(List<City> cities, DistanceCalculator distanceCalculator) {
+		return bestTour(new Problem(cities, distanceCalculator)).toCities();
+	}
 }
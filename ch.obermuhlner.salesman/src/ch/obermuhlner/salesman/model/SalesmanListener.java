@@ -3,19 +3,27 @@ package ch.obermuhlner.salesman.model;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Receives the tours that a {@link Salesman} finds while solving.
+ *
+ * The methods are called in the solving threads, possibly concurrently, and every call delays the solving.
+ * Observers that need more time, for example to draw the tours, should be wrapped in a {@link CoalescingSalesmanListener}.
+ *
+ * The reported lists may be modified by the strategy after the call returns, so they must be copied to be kept.
+ */
 public interface SalesmanListener {
 
-	default void improvedSolution(List<City> improved) {
+	default void improvedSolution(Tour improved) {
 		improvedSolutions(Arrays.asList(improved));
 	}
 
-	void improvedSolutions(List<List<City>> improved);
+	void improvedSolutions(List<Tour> improved);
 	
 
-	default void discardedSolution(List<City> discarded) {
+	default void discardedSolution(Tour discarded) {
 		discardedSolutions(Arrays.asList(discarded));
 	}
 
-	void discardedSolutions(List<List<City>> discarded);
+	void discardedSolutions(List<Tour> discarded);
 
 }
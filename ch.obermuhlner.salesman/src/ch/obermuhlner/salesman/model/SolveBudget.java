@@ -0,0 +1,92 @@
+package ch.obermuhlner.salesman.model;
+
+/**
+ * The limits for solving a {@link Problem} with {@link Salesman#bestTour(Problem, SolveProgress)}.
+ *
+ * A strategy stops as soon as any of the limits is reached and returns the best {@link Tour} it has found so far.
+ * All limits are unlimited by default.
+ *
+ * An evaluation is the smallest unit of work of a strategy,
+ * for example a mutated tour of a genetic algorithm or a city examined by a local search.
+ *
+ * A budget is only a description of the limits, the state of a running solve is tracked by a {@link SolveProgress}.
+ */
+public class SolveBudget {
+
+	/**
+	 * The limit of a {@link SolveBudget} that was reached, or {@link #CANCELLED} if the {@link SolveProgress} was cancelled.
+	 */
+	public enum Limit {
+		TIME,
+		EVALUATIONS,
+		TARGET_DISTANCE,
+		STALL,
+		CANCELLED
+	}
+
+	private long maxMillis = Long.MAX_VALUE;
+	private long maxEvaluations = Long.MAX_VALUE;
+	private double targetDistance = 0;
+	private long stallLimit = Long.MAX_VALUE;
+
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+
+	/**
+	 * Sets the maximum wall-clock time, measured from the creation of the {@link SolveProgress}.
+	 *
+	 * @param maxMillis the maximum time in milliseconds
+	 */
+	public void setMaxMillis(long maxMillis) {
+		this.maxMillis = maxMillis;
+	}
+
+	public long getMaxEvaluations() {
+		return maxEvaluations;
+	}
+
+	/**
+	 * Sets the maximum number of evaluations.
+	 *
+	 * @param maxEvaluations the maximum number of evaluations
+	 */
+	public void setMaxEvaluations(long maxEvaluations) {
+		this.maxEvaluations = maxEvaluations;
+	}
+
+	public double getTargetDistance() {
+		return targetDistance;
+	}
+
+	/**
+	 * Sets the distance that is good enough, the solving stops as soon as a tour at least as short is found.
+	 *
+	 * @param targetDistance the target distance, 0 to search for the shortest tour
+	 */
+	public void setTargetDistance(double targetDistance) {
+		this.targetDistance = targetDistance;
+	}
+
+	public long getStallLimit() {
+		return stallLimit;
+	}
+
+	/**
+	 * Sets the maximum number of evaluations without finding a shorter tour.
+	 *
+	 * @param stallLimit the maximum number of evaluations since the last improvement
+	 */
+	public void setStallLimit(long stallLimit) {
+		this.stallLimit = stallLimit;
+	}
+
+	/**
+	 * Returns whether any limit of this budget is set that ends every solve, regardless of the distances that are found.
+	 *
+	 * @return <code>true</code> if the time, the evaluations or the evaluations without improvement are limited
+	 */
+	public boolean isBounded() {
+		return maxMillis != Long.MAX_VALUE || maxEvaluations != Long.MAX_VALUE || stallLimit != Long.MAX_VALUE;
+	}
+}
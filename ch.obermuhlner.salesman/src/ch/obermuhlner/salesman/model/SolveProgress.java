@@ -0,0 +1,219 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ch.obermuhlner.salesman.metrics.SolveStatus;
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+
+/**
+ * The state of a running solve that is limited by a {@link SolveBudget}.
+ *
+ * The strategies report their evaluations and improvements to the progress and ask it whether the budget is exhausted.
+ * Other threads can read the best {@link Tour} found so far at any moment, which makes every strategy an anytime algorithm.
+ *
+ * The clock of the time limit starts when the progress is created.
+ *
+ * A progress can be cancelled from any thread, the strategies then stop at their next check of the budget.
+ */
+public class SolveProgress implements SolveStatus {
+
+	private final SolveBudget budget;
+	private final long startNanos;
+	private final long maxNanos;
+
+	private final AtomicLong evaluationCount = new AtomicLong();
+	private volatile long lastImprovementEvaluationCount;
+	private volatile double bestDistance = Double.POSITIVE_INFINITY;
+	private volatile Tour best;
+	private volatile boolean cancelled;
+	private volatile SolverMetrics metrics;
+
+	private volatile Consumer<Tour> improvementCallback;
+
+	/**
+	 * Creates a progress with an unlimited budget.
+	 */
+	public SolveProgress() {
+		this(new SolveBudget());
+	}
+
+	public SolveProgress(SolveBudget budget) {
+		this.budget = budget;
+		this.startNanos = System.nanoTime();
+		this.maxNanos = TimeUnit.MILLISECONDS.toNanos(budget.getMaxMillis());
+	}
+
+	public SolveBudget getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Returns the {@link SolverMetrics} of this solve, which record the improvements reported to this progress
+	 * and the counters and phases of the strategies.
+	 *
+	 * The metrics are created on the first call, so a solve that nobody observes does not collect any.
+	 * Improvements reported before the first call are not part of the convergence curve.
+	 *
+	 * @return the {@link SolverMetrics}
+	 */
+	public SolverMetrics getMetrics() {
+		SolverMetrics result = metrics;
+		if (result == null) {
+			synchronized (this) {
+				result = metrics;
+				if (result == null) {
+					result = new SolverMetrics(this);
+					metrics = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the {@link SolverMetrics} of this solve only if they were already requested with {@link #getMetrics()}.
+	 *
+	 * The strategies use this to collect their counters and phases only for solves that somebody observes.
+	 *
+	 * @return the {@link SolverMetrics}, or <code>null</code> if they were not created yet
+	 */
+	public SolverMetrics getMetricsIfCreated() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the callback that receives every new best {@link Tour}.
+	 *
+	 * The callback is called in the thread that reported the tour, it should return quickly.
+	 *
+	 * @param improvementCallback the callback, or <code>null</code> for none
+	 */
+	public void setImprovementCallback(Consumer<Tour> improvementCallback) {
+		this.improvementCallback = improvementCallback;
+	}
+
+	/**
+	 * Returns the shortest {@link Tour} reported so far.
+	 *
+	 * @return the best {@link Tour}, or <code>null</code> if no tour was reported yet
+	 */
+	public Tour getBest() {
+		return best;
+	}
+
+	/**
+	 * Returns the shortest distance reported so far, which can be shorter than the distance of {@link #getBest()}
+	 * if a strategy reported the distance of a tour before creating the tour.
+	 *
+	 * @return the shortest distance, or {@link Double#POSITIVE_INFINITY} if no distance was reported yet
+	 */
+	@Override
+	public double getBestDistance() {
+		return bestDistance;
+	}
+
+	@Override
+	public long getEvaluationCount() {
+		return evaluationCount.get();
+	}
+
+	@Override
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Adds evaluations that were done by a strategy.
+	 *
+	 * @param count the number of evaluations
+	 */
+	public void addEvaluations(long count) {
+		evaluationCount.addAndGet(count);
+	}
+
+	/**
+	 * Reports the distance of a tour that was found, without creating the {@link Tour}.
+	 *
+	 * This is used by strategies that only create a {@link Tour} from time to time, to keep the stall and target limits accurate.
+	 *
+	 * @param distance the distance of the found tour
+	 */
+	public synchronized void improvedDistance(double distance) {
+		if (distance < bestDistance) {
+			bestDistance = distance;
+			lastImprovementEvaluationCount = evaluationCount.get();
+			if (metrics != null) {
+				metrics.recordImprovement(distance);
+			}
+		}
+	}
+
+	/**
+	 * Reports a {@link Tour} that was found.
+	 *
+	 * @param tour the found {@link Tour}
+	 * @return <code>true</code> if the tour is the new best tour
+	 */
+	public boolean improvedSolution(Tour tour) {
+		synchronized (this) {
+			improvedDistance(tour.getDistance());
+			if (best != null && tour.getDistance() >= best.getDistance()) {
+				return false;
+			}
+			best = tour;
+		}
+
+		Consumer<Tour> callback = improvementCallback;
+		if (callback != null) {
+			callback.accept(tour);
+		}
+		return true;
+	}
+
+	/**
+	 * Cancels the solving, the strategies stop as soon as they check the budget and return the best tour found so far.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns whether any limit of the budget is reached.
+	 *
+	 * @return <code>true</code> if the solving should stop
+	 */
+	public boolean isExhausted() {
+		return getExhaustedLimit() != null;
+	}
+
+	/**
+	 * Returns the limit of the budget that is reached.
+	 *
+	 * @return the reached {@link SolveBudget.Limit}, or <code>null</code> if no limit is reached
+	 */
+	public SolveBudget.Limit getExhaustedLimit() {
+		if (cancelled) {
+			return SolveBudget.Limit.CANCELLED;
+		}
+		long evaluations = evaluationCount.get();
+		if (bestDistance <= budget.getTargetDistance()) {
+			return SolveBudget.Limit.TARGET_DISTANCE;
+		}
+		if (evaluations >= budget.getMaxEvaluations()) {
+			return SolveBudget.Limit.EVALUATIONS;
+		}
+		if (evaluations - lastImprovementEvaluationCount >= budget.getStallLimit()) {
+			return SolveBudget.Limit.STALL;
+		}
+		if (maxNanos != Long.MAX_VALUE && System.nanoTime() - startNanos >= maxNanos) {
+			return SolveBudget.Limit.TIME;
+		}
+		return null;
+	}
+}
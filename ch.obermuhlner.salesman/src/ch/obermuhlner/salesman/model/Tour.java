@@ -0,0 +1,225 @@
+package ch.obermuhlner.salesman.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tour through the cities of a {@link Problem}, returning to the starting city at the end.
+ * 
+ * The cities are stored compactly as their indexes in the {@link Problem}.
+ * A {@link Tour} is immutable.
+ * 
+ * Besides the order of the cities a {@link Tour} has a 64 bit fingerprint of the cycle it describes, see {@link #getFingerprint()}.
+ */
+public class Tour {
+
+	private final Problem problem;
+	final int[] cityIndexes;
+	private final double distance;
+	private volatile long fingerprint;
+
+	/**
+	 * Constructs a {@link Tour} and calculates its total distance.
+	 * 
+	 * The {@link Tour} takes ownership of the specified array, the caller must not modify it afterwards.
+	 * 
+	 * @param problem the {@link Problem} the cities belong to
+	 * @param cityIndexes the indexes of the cities in the order to visit them
+	 */
+	public Tour(Problem problem, int[] cityIndexes) {
+		this(problem, cityIndexes, problem.distance(cityIndexes));
+	}
+
+	/**
+	 * Constructs a {@link Tour} with an already known total distance.
+	 * 
+	 * The {@link Tour} takes ownership of the specified array, the caller must not modify it afterwards.
+	 * 
+	 * @param problem the {@link Problem} the cities belong to
+	 * @param cityIndexes the indexes of the cities in the order to visit them
+	 * @param distance the total distance of the tour, including the distance back to the starting city
+	 */
+	public Tour(Problem problem, int[] cityIndexes, double distance) {
+		this.problem = problem;
+		this.cityIndexes = cityIndexes;
+		this.distance = distance;
+	}
+
+	/**
+	 * Constructs a {@link Tour} with an already known total distance and fingerprint.
+	 * 
+	 * The {@link Tour} takes ownership of the specified array, the caller must not modify it afterwards.
+	 * 
+	 * @param problem the {@link Problem} the cities belong to
+	 * @param cityIndexes the indexes of the cities in the order to visit them
+	 * @param distance the total distance of the tour, including the distance back to the starting city
+	 * @param fingerprint the fingerprint of the tour, as calculated by {@link #fingerprint(int[])}
+	 */
+	public Tour(Problem problem, int[] cityIndexes, double distance, long fingerprint) {
+		this(problem, cityIndexes, distance);
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Returns the {@link Problem} this {@link Tour} belongs to.
+	 * 
+	 * @return the {@link Problem}
+	 */
+	public Problem getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Returns the total distance of this {@link Tour}, including the distance back to the starting city.
+	 * 
+	 * The distance is calculated only once when the {@link Tour} is created.
+	 * 
+	 * @return the total distance
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the number of cities in this {@link Tour}.
+	 * 
+	 * @return the number of cities
+	 */
+	public int size() {
+		return cityIndexes.length;
+	}
+
+	/**
+	 * Returns the index of the city visited at the specified position.
+	 * 
+	 * @param position the position in this {@link Tour}
+	 * @return the index of the city in the {@link Problem}
+	 */
+	public int getCityIndex(int position) {
+		return cityIndexes[position];
+	}
+
+	/**
+	 * Returns the city visited at the specified position.
+	 * 
+	 * @param position the position in this {@link Tour}
+	 * @return the city
+	 */
+	public City getCity(int position) {
+		return problem.getCity(cityIndexes[position]);
+	}
+
+	/**
+	 * Returns a copy of the indexes of the cities in the order they are visited.
+	 * 
+	 * @return the copied array of city indexes
+	 */
+	public int[] toArray() {
+		return cityIndexes.clone();
+	}
+
+	/**
+	 * Returns a view of this {@link Tour} as list of cities.
+	 * 
+	 * @return the unmodifiable list of cities
+	 */
+	public List<City> toCities() {
+		return new AbstractList<City>() {
+			@Override
+			public City get(int index) {
+				return getCity(index);
+			}
+
+			@Override
+			public int size() {
+				return cityIndexes.length;
+			}
+		};
+	}
+
+	/**
+	 * Returns the fingerprint of the cycle described by this {@link Tour}.
+	 * 
+	 * The fingerprint is the combination of {@link #edgeFingerprint(int, int)} of all edges,
+	 * so it does not depend on the starting city or the direction of the tour:
+	 * all rotations and reversals of the same cycle have the same fingerprint.
+	 * Different cycles have different fingerprints with a probability of about 1 - 2<sup>-64</sup> per pair.
+	 * 
+	 * Since every edge contributes independently, the fingerprint can be updated in O(1) per changed edge
+	 * by combining it with the {@link #edgeFingerprint(int, int)} of the removed and the added edges.
+	 * 
+	 * The fingerprint is calculated in O(n) on the first call, unless it was passed to the constructor.
+	 * 
+	 * @return the fingerprint
+	 */
+	public long getFingerprint() {
+		long result = fingerprint;
+		if (result == 0) {
+			result = fingerprint(cityIndexes);
+			fingerprint = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Calculates the fingerprint of the cycle through the specified cities.
+	 * 
+	 * @param cityIndexes the indexes of the cities in the order to visit them
+	 * @return the fingerprint
+	 * @see #getFingerprint()
+	 */
+	public static long fingerprint(int[] cityIndexes) {
+		long result = 0;
+		int n = cityIndexes.length;
+		for (int i = 0; i < n; i++) {
+			result ^= edgeFingerprint(cityIndexes[i], cityIndexes[(i + 1) % n]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the contribution of the undirected edge between the specified cities to the fingerprint of a tour.
+	 * 
+	 * The contributions are combined with exclusive or (<code>^</code>), which also removes an edge again.
+	 * 
+	 * @param cityIndex1 the index of the first city
+	 * @param cityIndex2 the index of the second city
+	 * @return the fingerprint of the edge, the same for both directions
+	 */
+	public static long edgeFingerprint(int cityIndex1, int cityIndex2) {
+		return mix(mix(cityIndex1) + mix(cityIndex2));
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator, which turns consecutive numbers into unrelated 64 bit values.
+	 */
+	private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(cityIndexes);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Tour)) {
+			return false;
+		}
+		Tour other = (Tour) obj;
+		return problem == other.problem && Arrays.equals(cityIndexes, other.cityIndexes);
+	}
+
+	@Override
+	public String toString() {
+		return toCities().toString();
+	}
+}
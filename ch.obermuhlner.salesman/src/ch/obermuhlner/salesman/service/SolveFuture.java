@@ -0,0 +1,77 @@
+package ch.obermuhlner.salesman.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * The {@link CompletableFuture} of a solve that was submitted to a {@link SolverService}.
+ *
+ * The {@link SolveProgress} gives access to the best {@link Tour} found so far while the solve is running.
+ *
+ * Cancelling the future cancels the {@link SolveProgress}, so the strategy stops at its next check of the budget.
+ * With <code>mayInterruptIfRunning</code> the solving thread is interrupted in addition,
+ * which also stops strategies that do not check the budget.
+ */
+public class SolveFuture extends CompletableFuture<Tour> {
+
+	private final SolveProgress progress;
+
+	private Thread runner;
+
+	SolveFuture(SolveProgress progress) {
+		this.progress = progress;
+	}
+
+	public SolveProgress getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Stops the solve early, the future then completes normally with the best {@link Tour} found so far.
+	 */
+	public void stop() {
+		progress.cancel();
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		progress.cancel();
+		boolean cancelled = super.cancel(mayInterruptIfRunning);
+		if (cancelled && mayInterruptIfRunning) {
+			synchronized (this) {
+				if (runner != null) {
+					runner.interrupt();
+				}
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Registers the current thread as the thread that solves.
+	 *
+	 * @return <code>false</code> if the future is already done and the solve must not be started
+	 */
+	synchronized boolean start() {
+		if (isDone()) {
+			return false;
+		}
+		runner = Thread.currentThread();
+		return true;
+	}
+
+	/**
+	 * Unregisters the solving thread, after this call the thread is no longer interrupted by {@link #cancel(boolean)}.
+	 */
+	void finish() {
+		synchronized (this) {
+			runner = null;
+		}
+		if (isCancelled()) {
+			// clear an interrupt that arrived after the strategy stopped checking for it
+			Thread.interrupted();
+		}
+	}
+}
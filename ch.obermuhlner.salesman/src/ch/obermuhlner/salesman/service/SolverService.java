@@ -0,0 +1,195 @@
+package ch.obermuhlner.salesman.service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ch.obermuhlner.salesman.metrics.MetricsRegistry;
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Solves traveling salesman problems asynchronously.
+ *
+ * Every solve runs as a single task on the {@link Executor} of the service and is represented by a {@link SolveFuture}.
+ * By default a new virtual thread is started for every solve if the Java runtime supports virtual threads (Java 21 and later),
+ * otherwise a pool with one platform thread per processor is used.
+ *
+ * A {@link Salesman} keeps its configuration and listener in fields, so concurrent solves should use separate instances.
+ *
+ * The {@link SolverMetrics} of every running solve can be published with a {@link MetricsRegistry}.
+ */
+public class SolverService implements AutoCloseable {
+
+	private final Executor executor;
+	private final boolean ownsExecutor;
+
+	private final AtomicLong solveCount = new AtomicLong();
+	private volatile MetricsRegistry metricsRegistry;
+	private volatile boolean collectMetrics;
+
+	/**
+	 * Creates a service with the default {@link Executor}, which is shut down by {@link #close()}.
+	 */
+	public SolverService() {
+		this(createDefaultExecutor(), true);
+	}
+
+	/**
+	 * Creates a service that solves on the specified {@link Executor}.
+	 *
+	 * The {@link Executor} is not shut down by {@link #close()}.
+	 *
+	 * @param executor the {@link Executor} that runs the solves
+	 */
+	public SolverService(Executor executor) {
+		this(executor, false);
+	}
+
+	private SolverService(Executor executor, boolean ownsExecutor) {
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/**
+	 * Sets the {@link MetricsRegistry} that publishes the {@link SolverMetrics} of the solves while they are running.
+	 *
+	 * The metrics are registered with the simple class name of the {@link Salesman} and a sequence number of this service,
+	 * for example <code>LinKernighanSalesman-1</code>.
+	 *
+	 * @param metricsRegistry the {@link MetricsRegistry}, or <code>null</code> to publish nothing (the default)
+	 */
+	public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+	}
+
+	/**
+	 * Sets whether the {@link SolverMetrics} of every solve are created before the solve starts,
+	 * so that they also record the improvements of strategies that do not use the metrics themselves.
+	 *
+	 * The metrics of the solves are always created if there is a {@link MetricsRegistry}.
+	 *
+	 * @param collectMetrics <code>true</code> to create the metrics of every solve, <code>false</code> to create them on demand (the default)
+	 */
+	public void setCollectMetrics(boolean collectMetrics) {
+		this.collectMetrics = collectMetrics;
+	}
+
+	/**
+	 * Solves the specified {@link Problem} without a budget.
+	 *
+	 * @param problem the {@link Problem} to solve
+	 * @param salesman the {@link Salesman} that solves the problem
+	 * @return the {@link SolveFuture} of the best {@link Tour}
+	 */
+	public SolveFuture solve(Problem problem, Salesman salesman) {
+		return solve(problem, salesman, new SolveBudget(), null);
+	}
+
+	/**
+	 * Solves the specified {@link Problem} within the specified {@link SolveBudget}.
+	 *
+	 * The clock of the time limit starts immediately, so the time waiting for a free thread counts against the budget.
+	 *
+	 * @param problem the {@link Problem} to solve
+	 * @param salesman the {@link Salesman} that solves the problem
+	 * @param budget the {@link SolveBudget}
+	 * @param progressCallback the callback that receives every new best {@link Tour} in the solving thread, or <code>null</code> for none
+	 * @return the {@link SolveFuture} of the best {@link Tour}
+	 */
+	public SolveFuture solve(Problem problem, Salesman salesman, SolveBudget budget, Consumer<Tour> progressCallback) {
+		SolveProgress progress = new SolveProgress(budget);
+		progress.setImprovementCallback(progressCallback);
+		if (collectMetrics) {
+			progress.getMetrics();
+		}
+		SolveFuture future = new SolveFuture(progress);
+
+		try {
+			String name = salesman.getClass().getSimpleName() + "-" + solveCount.incrementAndGet();
+			MetricsRegistry registry = metricsRegistry;
+			executor.execute(() -> run(future, problem, salesman, name, registry));
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private static void run(SolveFuture future, Problem problem, Salesman salesman, String name, MetricsRegistry registry) {
+		if (!future.start()) {
+			return;
+		}
+		SolverMetrics metrics = registry != null ? future.getProgress().getMetrics() : null;
+		try {
+			if (registry != null) {
+				registry.register(name, metrics);
+			}
+			try {
+				future.complete(salesman.bestTour(problem, future.getProgress()));
+			} finally {
+				if (registry != null) {
+					registry.unregister(name, metrics);
+				}
+			}
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		} finally {
+			future.finish();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (ownsExecutor && executor instanceof ExecutorService) {
+			((ExecutorService) executor).shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns whether the Java runtime supports virtual threads.
+	 *
+	 * @return <code>true</code> if virtual threads are supported
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return findVirtualThreadExecutorFactory() != null;
+	}
+
+	private static ExecutorService createDefaultExecutor() {
+		Method factory = findVirtualThreadExecutorFactory();
+		if (factory != null) {
+			try {
+				return (ExecutorService) factory.invoke(null);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				// fall back to platform threads
+			}
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "salesman-solver-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Finds <code>Executors.newVirtualThreadPerTaskExecutor()</code> by reflection, so that the library still runs on Java 8.
+	 */
+	private static Method findVirtualThreadExecutorFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,394 @@
+package ch.obermuhlner.salesman.spatial;
+
+import java.util.List;
+
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.model.City;
+
+/**
+ * Balanced k-d tree over the cities of a problem for nearest neighbor queries in O(log n) expected time.
+ *
+ * The tree is built from the euclidean coordinates of the cities (see {@link DistanceCalculator#euclideanCoordinates(City)}),
+ * so the neighbors are the same as with the distances of the {@link DistanceCalculator}.
+ * Ties between equally distant cities are resolved in favor of the smaller city index.
+ *
+ * The tree is stored implicitly in an array: the node of a range of positions is the city at the middle position.
+ * The tree itself is immutable and thread-safe, the removal of visited cities is handled by {@link RemainingCities}.
+ */
+public class KdTree {
+
+	private final int dimensions;
+	private final double[] coordinates;
+	private final int size;
+
+	private final int[] cityIndexes;
+	private final byte[] splitDimensions;
+	private final int[] treePositions;
+
+	/**
+	 * Constructs a {@link KdTree}.
+	 *
+	 * @param dimensions the number of dimensions of the coordinates
+	 * @param coordinates the flat array of coordinates, the coordinates of city <code>i</code> start at index <code>i * dimensions</code>
+	 */
+	public KdTree(int dimensions, double[] coordinates) {
+		this.dimensions = dimensions;
+		this.coordinates = coordinates;
+		this.size = coordinates.length / dimensions;
+
+		cityIndexes = new int[size];
+		splitDimensions = new byte[size];
+		treePositions = new int[size];
+
+		for (int i = 0; i < size; i++) {
+			cityIndexes[i] = i;
+		}
+		build(0, size);
+		for (int i = 0; i < size; i++) {
+			treePositions[cityIndexes[i]] = i;
+		}
+	}
+
+	/**
+	 * Creates a {@link KdTree} for the specified cities.
+	 *
+	 * @param cities the list of cities
+	 * @param distanceCalculator the {@link DistanceCalculator} that defines the euclidean coordinates of the cities
+	 * @return the created {@link KdTree}, or <code>null</code> if the {@link DistanceCalculator} does not support euclidean coordinates
+	 */
+	public static KdTree create(List<City> cities, DistanceCalculator distanceCalculator) {
+		if (cities.isEmpty()) {
+			return null;
+		}
+
+		double[] first = distanceCalculator.euclideanCoordinates(cities.get(0));
+		if (first == null) {
+			return null;
+		}
+
+		int dimensions = first.length;
+		double[] coordinates = new double[cities.size() * dimensions];
+		for (int i = 0; i < cities.size(); i++) {
+			double[] point = i == 0 ? first : distanceCalculator.euclideanCoordinates(cities.get(i));
+			System.arraycopy(point, 0, coordinates, i * dimensions, dimensions);
+		}
+		return new KdTree(dimensions, coordinates);
+	}
+
+	/**
+	 * Returns the number of cities in this tree.
+	 *
+	 * @return the number of cities
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the nearest neighbors of the specified city, sorted by increasing distance.
+	 *
+	 * @param cityIndex the index of the city
+	 * @param count the number of neighbors to find, limited to the number of other cities
+	 * @param result the array to store the indexes of the found neighbors
+	 * @return the number of found neighbors
+	 */
+	public int nearestNeighbors(int cityIndex, int count, int[] result) {
+		int limit = Math.min(count, size - 1);
+		if (limit <= 0) {
+			return 0;
+		}
+
+		NearestCandidates candidates = new NearestCandidates(limit, result);
+		searchNearestNeighbors(0, size, cityIndex * dimensions, cityIndex, candidates);
+		return candidates.count;
+	}
+
+	/**
+	 * Creates the set of all cities of this tree, from which visited cities can be removed.
+	 *
+	 * @return the created {@link RemainingCities}
+	 */
+	public RemainingCities remainingCities() {
+		return new RemainingCities();
+	}
+
+	/**
+	 * Mutable set of the cities that were not yet removed from a {@link KdTree}.
+	 *
+	 * Every node counts the remaining cities in its subtree, so empty subtrees are skipped by {@link #nearest(int)}.
+	 *
+	 * Instances are not thread-safe.
+	 */
+	public class RemainingCities {
+		private final boolean[] removed = new boolean[size];
+		private final int[] remainingCounts = new int[size];
+		private int remainingCount = size;
+
+		private int nearestCity;
+		private double nearestDistance;
+
+		private RemainingCities() {
+			initCounts(0, size);
+		}
+
+		private void initCounts(int from, int to) {
+			if (from >= to) {
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			remainingCounts[middle] = to - from;
+			initCounts(from, middle);
+			initCounts(middle + 1, to);
+		}
+
+		/**
+		 * Returns whether no cities remain.
+		 *
+		 * @return <code>true</code> if all cities were removed
+		 */
+		public boolean isEmpty() {
+			return remainingCount == 0;
+		}
+
+		/**
+		 * Returns the number of remaining cities.
+		 *
+		 * @return the number of remaining cities
+		 */
+		public int size() {
+			return remainingCount;
+		}
+
+		/**
+		 * Removes the specified city.
+		 *
+		 * @param cityIndex the index of the city to remove
+		 */
+		public void remove(int cityIndex) {
+			int position = treePositions[cityIndex];
+			if (removed[position]) {
+				return;
+			}
+
+			removed[position] = true;
+			remainingCount--;
+
+			int from = 0;
+			int to = size;
+			while (true) {
+				int middle = (from + to) >>> 1;
+				remainingCounts[middle]--;
+				if (position == middle) {
+					return;
+				}
+				if (position < middle) {
+					to = middle;
+				} else {
+					from = middle + 1;
+				}
+			}
+		}
+
+		/**
+		 * Finds the remaining city that is nearest to the specified city.
+		 *
+		 * @param cityIndex the index of the city, which may or may not be removed
+		 * @return the index of the nearest remaining city (other than the specified city), or -1 if no other city remains
+		 */
+		public int nearest(int cityIndex) {
+			nearestCity = -1;
+			nearestDistance = Double.POSITIVE_INFINITY;
+			searchNearest(0, size, cityIndex * dimensions, cityIndex);
+			return nearestCity;
+		}
+
+		private void searchNearest(int from, int to, int queryOffset, int excludedCity) {
+			if (from >= to) {
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			if (remainingCounts[middle] == 0) {
+				return;
+			}
+
+			int city = cityIndexes[middle];
+			int dimension = splitDimensions[middle];
+			double delta = coordinates[queryOffset + dimension] - coordinates[city * dimensions + dimension];
+
+			if (delta < 0) {
+				searchNearest(from, middle, queryOffset, excludedCity);
+			} else {
+				searchNearest(middle + 1, to, queryOffset, excludedCity);
+			}
+
+			if (!removed[middle] && city != excludedCity) {
+				double distance = squaredDistance(queryOffset, city);
+				if (distance < nearestDistance || (distance == nearestDistance && city < nearestCity)) {
+					nearestDistance = distance;
+					nearestCity = city;
+				}
+			}
+
+			if (delta * delta <= nearestDistance) {
+				if (delta < 0) {
+					searchNearest(middle + 1, to, queryOffset, excludedCity);
+				} else {
+					searchNearest(from, middle, queryOffset, excludedCity);
+				}
+			}
+		}
+	}
+
+	private void searchNearestNeighbors(int from, int to, int queryOffset, int excludedCity, NearestCandidates candidates) {
+		if (from >= to) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		int city = cityIndexes[middle];
+		int dimension = splitDimensions[middle];
+		double delta = coordinates[queryOffset + dimension] - coordinates[city * dimensions + dimension];
+
+		if (delta < 0) {
+			searchNearestNeighbors(from, middle, queryOffset, excludedCity, candidates);
+		} else {
+			searchNearestNeighbors(middle + 1, to, queryOffset, excludedCity, candidates);
+		}
+
+		if (city != excludedCity) {
+			candidates.offer(city, squaredDistance(queryOffset, city));
+		}
+
+		if (delta * delta <= candidates.worstDistance()) {
+			if (delta < 0) {
+				searchNearestNeighbors(middle + 1, to, queryOffset, excludedCity, candidates);
+			} else {
+				searchNearestNeighbors(from, middle, queryOffset, excludedCity, candidates);
+			}
+		}
+	}
+
+	private double squaredDistance(int queryOffset, int city) {
+		int offset = city * dimensions;
+		double total = 0;
+		for (int i = 0; i < dimensions; i++) {
+			double delta = coordinates[queryOffset + i] - coordinates[offset + i];
+			total += delta * delta;
+		}
+		return total;
+	}
+
+	private void build(int from, int to) {
+		if (to - from <= 1) {
+			return;
+		}
+
+		int dimension = widestDimension(from, to);
+		int middle = (from + to) >>> 1;
+		select(from, to - 1, middle, dimension);
+		splitDimensions[middle] = (byte) dimension;
+
+		build(from, middle);
+		build(middle + 1, to);
+	}
+
+	private int widestDimension(int from, int to) {
+		int widestDimension = 0;
+		double widestSpread = -1;
+		for (int dimension = 0; dimension < dimensions; dimension++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = from; i < to; i++) {
+				double value = coordinate(cityIndexes[i], dimension);
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			if (max - min > widestSpread) {
+				widestSpread = max - min;
+				widestDimension = dimension;
+			}
+		}
+		return widestDimension;
+	}
+
+	/**
+	 * Partially sorts the positions between left and right (inclusive) so that the city at position k has the k-th smallest coordinate,
+	 * with all smaller coordinates to the left and all larger coordinates to the right.
+	 */
+	private void select(int left, int right, int k, int dimension) {
+		while (left < right) {
+			int pivotIndex = (left + right) >>> 1;
+			double pivot = coordinate(cityIndexes[pivotIndex], dimension);
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (coordinate(cityIndexes[i], dimension) < pivot) {
+					i++;
+				}
+				while (coordinate(cityIndexes[j], dimension) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int tmp = cityIndexes[i];
+					cityIndexes[i] = cityIndexes[j];
+					cityIndexes[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private double coordinate(int city, int dimension) {
+		return coordinates[city * dimensions + dimension];
+	}
+
+	/**
+	 * Bounded list of the nearest candidates found so far, sorted by increasing distance.
+	 */
+	private static class NearestCandidates {
+		private final int capacity;
+		private final int[] cities;
+		private final double[] distances;
+		private int count;
+
+		public NearestCandidates(int capacity, int[] cities) {
+			this.capacity = capacity;
+			this.cities = cities;
+			this.distances = new double[capacity];
+		}
+
+		public double worstDistance() {
+			return count < capacity ? Double.POSITIVE_INFINITY : distances[count - 1];
+		}
+
+		public void offer(int city, double distance) {
+			int index;
+			if (count < capacity) {
+				index = count++;
+			} else if (isBefore(distance, city, distances[capacity - 1], cities[capacity - 1])) {
+				index = capacity - 1;
+			} else {
+				return;
+			}
+
+			while (index > 0 && isBefore(distance, city, distances[index - 1], cities[index - 1])) {
+				distances[index] = distances[index - 1];
+				cities[index] = cities[index - 1];
+				index--;
+			}
+			distances[index] = distance;
+			cities[index] = city;
+		}
+
+		private static boolean isBefore(double distance1, int city1, double distance2, int city2) {
+			return distance1 < distance2 || (distance1 == distance2 && city1 < city2);
+		}
+	}
+}
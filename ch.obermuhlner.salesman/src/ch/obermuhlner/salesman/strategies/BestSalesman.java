@@ -2,12 +2,12 @@ package ch.obermuhlner.salesman.strategies;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
 import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
 
 /**
  * Decorator around a collection of {@link Salesman} instances returning the best result.
@@ -27,29 +27,44 @@ public class BestSalesman implements Salesman {
 	}
 	
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The underlying {@link Salesman} instances are called one after the other with the same {@link SolveProgress},
+	 * until the budget is exhausted (but at least the first one).
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
 		double bestDistance = Double.MAX_VALUE;
-		List<City> bestPath = null;
+		Tour bestTour = null;
 		
 		for (Salesman underling : underlyings) {
-			List<City> path = underling.bestPath(cities, distanceCalulator);
-			double distance = distanceCalulator.distance(path);
+			if (bestTour != null && progress.isExhausted()) {
+				break;
+			}
+
+			Tour tour = underling.bestTour(problem, progress);
+			double distance = tour.getDistance();
 			
 			if (distance < bestDistance) {
-				if (listener != null) {
-					listener.discardedSolution(path);
-				}
-
 				bestDistance = distance;
-				bestPath = path;
+				bestTour = tour;
 	
 				if (listener != null) {
-					listener.improvedSolution(path);
+					listener.improvedSolution(tour);
+				}
+			} else {
+				if (listener != null) {
+					listener.discardedSolution(tour);
 				}
 			}
 		}
 		
-		return bestPath;
+		return bestTour;
 	}
 
 }
@@ -1,71 +1,362 @@
 package ch.obermuhlner.salesman.strategies;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
 import ch.obermuhlner.salesman.model.SalesmanListener;
-import ch.obermuhlner.salesman.util.PermutationUtil;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.ThreadInterruptedException;
+import ch.obermuhlner.salesman.util.ThreadUtil;
 
 /**
- * Solves the traveling salesman problem using brute force.
- * 
- * It goes through all possible solutions and compares them all.
- * 
- * This algorithm is O(n!).
+ * Solves the traveling salesman problem exactly using branch and bound.
+ *
+ * All tours start with the first city and visit the second city before the third city,
+ * so every cycle is enumerated only once instead of once per rotation and direction.
+ * Partial paths are extended with the nearest cities first and pruned as soon as
+ * their length plus a lower bound for the remaining cities (minimum spanning tree plus the cheapest connections)
+ * is not shorter than the best tour found so far.
+ * The search starts with the tour of a {@link LinKernighanSalesman} as best tour.
+ *
+ * The worst case is still O(n!), but problems with 15-18 cities are typically solved in seconds.
  */
 public class BruteForceSalesman implements Salesman {
 
+	private static final int MIN_TASKS_PER_THREAD = 8;
+
 	private SalesmanListener listener;
 
+	private int parallelism = 1;
+
 	public void setListener(SalesmanListener listener) {
 		this.listener = listener;
 	}
 
+	/**
+	 * Sets the number of worker threads that search the subtrees of different partial paths in parallel.
+	 *
+	 * A parallelism of 1 (the default) runs everything in the calling thread.
+	 *
+	 * @param parallelism the number of worker threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the problem has more than 64 cities
+	 */
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
-		BruteForceSearch bruteForceSearch = new BruteForceSearch(cities, distanceCalulator, listener);
-		return bruteForceSearch.findBestPermutation();
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
 	}
-	
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * If the budget is exhausted before the search is complete, the best tour found so far is returned, which is not necessarily the optimum.
+	 * Every node of the search tree counts as evaluation.
+	 *
+	 * @throws IllegalArgumentException if the problem has more than 64 cities
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		if (problem.size() > 64) {
+			throw new IllegalArgumentException("Too many cities for brute force: " + problem.size());
+		}
+
+		BruteForceSearch bruteForceSearch = new BruteForceSearch(problem, listener, progress);
+		if (problem.size() <= 3) {
+			return bruteForceSearch.initialTour();
+		}
+
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			return bruteForceSearch.findBestTour(pool, parallelism);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
 	private static class BruteForceSearch {
-		private List<City> cities;
-		private final DistanceCalculator distanceCalulator;
+		private final Problem problem;
 		private final SalesmanListener listener;
+		private final SolveProgress progress;
+		private final int n;
+		private final int[][] nearestCities;
 
-		private double bestDistance = Double.MAX_VALUE;
-		private List<City> bestPath = null;
+		private volatile double bestDistance = Double.MAX_VALUE;
+		private Tour bestTour = null;
+		private volatile boolean stopped;
 
-		public BruteForceSearch(List<City> cities, DistanceCalculator distanceCalulator, SalesmanListener listener) {
-			this.cities = cities;
-			this.distanceCalulator = distanceCalulator;
+		public BruteForceSearch(Problem problem, SalesmanListener listener, SolveProgress progress) {
+			this.problem = problem;
 			this.listener = listener;
+			this.progress = progress;
+			this.n = problem.size();
+
+			nearestCities = new int[n][];
+			for (int city = 0; city < n; city++) {
+				nearestCities[city] = nearestCities(city);
+			}
+		}
+
+		private int[] nearestCities(int city) {
+			Integer[] others = new Integer[n];
+			for (int i = 0; i < n; i++) {
+				others[i] = i;
+			}
+			Arrays.sort(others, (city1, city2) -> Double.compare(problem.distance(city, city1), problem.distance(city, city2)));
+
+			int[] result = new int[n - 1];
+			int count = 0;
+			for (Integer other : others) {
+				if (other != city) {
+					result[count++] = other;
+				}
+			}
+			return result;
+		}
+
+		public Tour initialTour() {
+			Tour tour = problem.createTour();
+			improve(tour.toArray(), tour.getDistance());
+			return bestTour;
+		}
+
+		public Tour findBestTour(ForkJoinPool pool, int threadCount) {
+			LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+			linKernighanSalesman.setRandom(new Random(0));
+			linKernighanSalesman.setKickCount(100 * n);
+			Tour initialTour = linKernighanSalesman.bestTour(problem, progress);
+			improve(initialTour.toArray(), initialTour.getDistance());
+			if (progress.isExhausted()) {
+				return bestTour;
+			}
+
+			SearchState rootState = new SearchState(n);
+			rootState.path[0] = 0;
+
+			if (pool == null) {
+				search(rootState, 1, 1L, 0);
+				return bestTour;
+			}
+
+			List<SearchState> prefixes = new ArrayList<>();
+			collectPrefixes(rootState, 1, 1L, 0, threadCount * MIN_TASKS_PER_THREAD, prefixes);
+
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (SearchState prefix : prefixes) {
+				tasks.add(() -> {
+					search(prefix, prefix.prefixLength, prefix.prefixVisited, prefix.prefixDistance);
+					return null;
+				});
+			}
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				get(future);
+			}
+			return bestTour;
+		}
+
+		/**
+		 * Collects the partial paths of the smallest depth that give at least the specified number of independent subtrees.
+		 */
+		private void collectPrefixes(SearchState rootState, int depth, long visited, double distance, int minCount, List<SearchState> prefixes) {
+			List<SearchState> current = new ArrayList<>();
+			rootState.setPrefix(depth, visited, distance);
+			current.add(rootState);
+
+			while (current.size() < minCount && current.get(0).prefixLength < n - 2) {
+				List<SearchState> next = new ArrayList<>();
+				for (SearchState state : current) {
+					int last = state.path[state.prefixLength - 1];
+					for (int city : nearestCities[last]) {
+						if (isAllowed(city, state.prefixVisited)) {
+							SearchState child = new SearchState(n);
+							System.arraycopy(state.path, 0, child.path, 0, state.prefixLength);
+							child.path[state.prefixLength] = city;
+							child.setPrefix(state.prefixLength + 1, state.prefixVisited | (1L << city), state.prefixDistance + problem.distance(last, city));
+							next.add(child);
+						}
+					}
+				}
+				current = next;
+			}
+
+			prefixes.addAll(current);
+		}
+
+		private void search(SearchState state, int depth, long visited, double distance) {
+			int[] path = state.path;
+			int current = path[depth - 1];
+
+			if (depth == n) {
+				double totalDistance = distance + problem.distance(current, path[0]);
+				if (totalDistance < bestDistance) {
+					improve(path.clone(), totalDistance);
+				}
+				return;
+			}
+
+			if (++state.nodeCount % 1024 == 0) {
+				ThreadUtil.checkThreadInterrupted();
+				progress.addEvaluations(1024);
+				if (progress.isExhausted()) {
+					stopped = true;
+				}
+			}
+			if (stopped) {
+				return;
+			}
+
+			if (distance + lowerBound(state, current, visited) >= bestDistance) {
+				return;
+			}
+
+			for (int city : nearestCities[current]) {
+				if (isAllowed(city, visited)) {
+					double nextDistance = distance + problem.distance(current, city);
+					if (nextDistance < bestDistance) {
+						path[depth] = city;
+						search(state, depth + 1, visited | (1L << city), nextDistance);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns whether the specified city may be visited next.
+		 *
+		 * The second city must be visited before the third city, which excludes the reversed direction of every cycle.
+		 */
+		private boolean isAllowed(int city, long visited) {
+			if ((visited & (1L << city)) != 0) {
+				return false;
+			}
+			return city != 2 || (visited & (1L << 1)) != 0;
+		}
+
+		/**
+		 * Calculates a lower bound for the distance from the current city through all unvisited cities back to the start city.
+		 *
+		 * The remaining path consists of an edge from the current city into the unvisited cities,
+		 * a path through all unvisited cities (at least as long as their minimum spanning tree)
+		 * and an edge back to the start city.
+		 */
+		private double lowerBound(SearchState state, int current, long visited) {
+			int[] unvisited = state.unvisited;
+			int count = 0;
+			for (int city = 0; city < n; city++) {
+				if ((visited & (1L << city)) == 0) {
+					unvisited[count++] = city;
+				}
+			}
+
+			int start = state.path[0];
+			double minFromCurrent = Double.MAX_VALUE;
+			double minToStart = Double.MAX_VALUE;
+			for (int i = 0; i < count; i++) {
+				minFromCurrent = Math.min(minFromCurrent, problem.distance(current, unvisited[i]));
+				minToStart = Math.min(minToStart, problem.distance(unvisited[i], start));
+			}
+
+			return minFromCurrent + minToStart + minimumSpanningTree(state, count);
 		}
 
-		public List<City> findBestPermutation() {
-			PermutationUtil.permutations(cities, (permutation) -> {
-				checkPath(permutation);
-			});
+		/**
+		 * Calculates the length of the minimum spanning tree of the unvisited cities using Prim's algorithm in O(n<sup>2</sup>).
+		 */
+		private double minimumSpanningTree(SearchState state, int count) {
+			int[] unvisited = state.unvisited;
+			double[] connectionDistances = state.connectionDistances;
+
+			for (int i = 1; i < count; i++) {
+				connectionDistances[i] = problem.distance(unvisited[0], unvisited[i]);
+			}
+
+			double total = 0;
+			for (int remaining = count - 1; remaining > 0; remaining--) {
+				int nearest = 1;
+				for (int i = 2; i <= remaining; i++) {
+					if (connectionDistances[i] < connectionDistances[nearest]) {
+						nearest = i;
+					}
+				}
+				total += connectionDistances[nearest];
 
-			return bestPath;
+				int added = unvisited[nearest];
+				unvisited[nearest] = unvisited[remaining];
+				connectionDistances[nearest] = connectionDistances[remaining];
+				for (int i = 1; i < remaining; i++) {
+					connectionDistances[i] = Math.min(connectionDistances[i], problem.distance(added, unvisited[i]));
+				}
+			}
+			return total;
 		}
-		
-		private void checkPath(List<City> permutation) {
-			double distance = distanceCalulator.distance(permutation);
+
+		private synchronized void improve(int[] path, double distance) {
 			if (distance < bestDistance) {
 				bestDistance = distance;
-				bestPath = new ArrayList<>(permutation);
-				
+				bestTour = new Tour(problem, path, distance);
+
 				if (listener != null) {
-					listener.improvedSolution(bestPath);
+					listener.improvedSolution(bestTour);
 				}
-			} else {
-				if (listener != null) {
-					listener.discardedSolution(permutation);
-				}				
+				progress.improvedSolution(bestTour);
 			}
 		}
+
+		private static <T> T get(Future<T> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				future.cancel(true);
+				throw new ThreadInterruptedException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * The working arrays of a single search thread, starting with a partial path.
+	 */
+	private static class SearchState {
+		private final int[] path;
+		private final int[] unvisited;
+		private final double[] connectionDistances;
+		private int nodeCount;
+
+		private int prefixLength;
+		private long prefixVisited;
+		private double prefixDistance;
+
+		public SearchState(int n) {
+			path = new int[n];
+			unvisited = new int[n];
+			connectionDistances = new double[n];
+		}
+
+		public void setPrefix(int prefixLength, long prefixVisited, double prefixDistance) {
+			this.prefixLength = prefixLength;
+			this.prefixVisited = prefixVisited;
+			this.prefixDistance = prefixDistance;
+		}
 	}
 }
@@ -0,0 +1,29 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Random;
+
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Recombines two parent tours into a child for the {@link GeneticSalesman}.
+ *
+ * The child is written into an array that is reused for many children,
+ * implementations keep their working arrays in fields, so that no memory is allocated per child.
+ * Instances are therefore not thread-safe, every thread creates its own instance for the {@link ch.obermuhlner.salesman.model.Problem}.
+ *
+ * @see OrderCrossover
+ * @see PartiallyMappedCrossover
+ * @see EdgeAssemblyCrossover
+ */
+public interface Crossover {
+
+	/**
+	 * Creates a child of the specified parents.
+	 *
+	 * @param parent1 the first parent
+	 * @param parent2 the second parent
+	 * @param child the array that receives the indexes of the cities of the child, with the size of the problem
+	 * @param random the {@link Random} for the random choices of the crossover
+	 */
+	void cross(Tour parent1, Tour parent2, int[] child, Random random);
+}
@@ -0,0 +1,345 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import ch.obermuhlner.salesman.model.NeighborLists;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Simplified edge assembly crossover (EAX) with a single AB-cycle.
+ *
+ * The edges of the parents A and B that are not common to both form a graph in which every city has as many edges of A as of B.
+ * A random walk that alternates between edges of A and edges of B closes an AB-cycle.
+ * The child starts with the edges of A, the A edges of the AB-cycle are replaced by its B edges.
+ * This keeps every city at two edges, but may split the tour into several subtours.
+ * The subtours are merged, always the smallest subtour first, by exchanging one of its edges and an edge of another subtour
+ * with the two new edges of least additional length, searching only the nearest neighbors of the cities.
+ *
+ * The child therefore consists almost only of edges of its parents, which preserves the good edges of both.
+ * The full EAX of Nagata builds several AB-cycles per pair of parents and combines them with different strategies,
+ * this implementation creates a single child from a single AB-cycle.
+ */
+public class EdgeAssemblyCrossover implements Crossover {
+
+	private static final int NEIGHBOR_COUNT = 10;
+
+	private final Problem problem;
+	private final NeighborLists neighborLists;
+	private final int n;
+
+	private final int[] adjacentA;
+	private final int[] adjacentB;
+	private final int[] remainingA;
+	private final int[] remainingB;
+	private final int[] adjacent;
+
+	private final int[] path;
+	private final int[] evenPositions;
+	private final int[] oddPositions;
+
+	private final int[] subtours;
+	private final int[] subtourSizes;
+	private final int[] subtourStarts;
+	private final int[] subtourCities;
+
+	public EdgeAssemblyCrossover(Problem problem) {
+		this.problem = problem;
+		this.n = problem.size();
+		this.neighborLists = problem.getNeighborLists(Math.min(NEIGHBOR_COUNT, Math.max(1, n - 1)));
+
+		adjacentA = new int[2 * n];
+		adjacentB = new int[2 * n];
+		remainingA = new int[2 * n];
+		remainingB = new int[2 * n];
+		adjacent = new int[2 * n];
+
+		path = new int[2 * n + 1];
+		evenPositions = new int[n];
+		oddPositions = new int[n];
+		Arrays.fill(evenPositions, -1);
+		Arrays.fill(oddPositions, -1);
+
+		subtours = new int[n];
+		subtourSizes = new int[n];
+		subtourStarts = new int[n];
+		subtourCities = new int[n];
+	}
+
+	@Override
+	public void cross(Tour parent1, Tour parent2, int[] child, Random random) {
+		if (n < 5) {
+			copy(parent1, child);
+			return;
+		}
+
+		fillAdjacent(parent1, adjacentA);
+		fillAdjacent(parent2, adjacentB);
+		int differentEdgeCount = fillRemaining(adjacentA, adjacentB, remainingA);
+		if (differentEdgeCount == 0) {
+			copy(parent1, child);
+			return;
+		}
+		fillRemaining(adjacentB, adjacentA, remainingB);
+
+		System.arraycopy(adjacentA, 0, adjacent, 0, 2 * n);
+		applyRandomAbCycle(random);
+
+		int subtourCount = labelSubtours();
+		while (subtourCount > 1) {
+			mergeSmallestSubtour();
+			subtourCount--;
+		}
+
+		int previous = -1;
+		int city = 0;
+		for (int i = 0; i < n; i++) {
+			child[i] = city;
+			int next = adjacent[2 * city] != previous ? adjacent[2 * city] : adjacent[2 * city + 1];
+			previous = city;
+			city = next;
+		}
+	}
+
+	private void copy(Tour tour, int[] child) {
+		for (int i = 0; i < n; i++) {
+			child[i] = tour.getCityIndex(i);
+		}
+	}
+
+	private void fillAdjacent(Tour tour, int[] adjacentCities) {
+		for (int i = 0; i < n; i++) {
+			int city = tour.getCityIndex(i);
+			adjacentCities[2 * city] = tour.getCityIndex((i + n - 1) % n);
+			adjacentCities[2 * city + 1] = tour.getCityIndex((i + 1) % n);
+		}
+	}
+
+	/**
+	 * Fills the edges of the first tour that are not edges of the second tour, missing edges are -1.
+	 *
+	 * @return the number of city slots with an edge that is not common
+	 */
+	private int fillRemaining(int[] adjacentCities, int[] otherAdjacentCities, int[] remaining) {
+		int count = 0;
+		for (int city = 0; city < n; city++) {
+			for (int slot = 0; slot < 2; slot++) {
+				int other = adjacentCities[2 * city + slot];
+				if (other == otherAdjacentCities[2 * city] || other == otherAdjacentCities[2 * city + 1]) {
+					remaining[2 * city + slot] = -1;
+				} else {
+					remaining[2 * city + slot] = other;
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Walks randomly along the remaining edges, alternating between A and B, until the walk closes an AB-cycle,
+	 * then replaces the A edges of the cycle with its B edges.
+	 */
+	private void applyRandomAbCycle(Random random) {
+		int start = random.nextInt(n);
+		while (remainingA[2 * start] < 0 && remainingA[2 * start + 1] < 0) {
+			start = (start + 1) % n;
+		}
+
+		int length = 0;
+		path[length] = start;
+		evenPositions[start] = length;
+		length++;
+
+		int cycleStart;
+		while (true) {
+			int current = path[length - 1];
+			int[] remaining = (length - 1) % 2 == 0 ? remainingA : remainingB;
+			int slot;
+			if (remaining[2 * current] < 0) {
+				slot = 1;
+			} else if (remaining[2 * current + 1] < 0) {
+				slot = 0;
+			} else {
+				slot = random.nextInt(2);
+			}
+			int next = remaining[2 * current + slot];
+			remaining[2 * current + slot] = -1;
+			removeEdge(remaining, next, current);
+
+			int position = length;
+			path[length++] = next;
+			int[] positions = position % 2 == 0 ? evenPositions : oddPositions;
+			if (positions[next] >= 0) {
+				cycleStart = positions[next];
+				break;
+			}
+			positions[next] = position;
+		}
+
+		for (int i = 0; i < length; i++) {
+			evenPositions[path[i]] = -1;
+			oddPositions[path[i]] = -1;
+		}
+
+		for (int i = cycleStart; i < length - 1; i++) {
+			if (i % 2 == 0) {
+				removeEdge(adjacent, path[i], path[i + 1]);
+				removeEdge(adjacent, path[i + 1], path[i]);
+			}
+		}
+		for (int i = cycleStart; i < length - 1; i++) {
+			if (i % 2 != 0) {
+				addEdge(path[i], path[i + 1]);
+				addEdge(path[i + 1], path[i]);
+			}
+		}
+	}
+
+	private static void removeEdge(int[] adjacentCities, int city, int other) {
+		if (adjacentCities[2 * city] == other) {
+			adjacentCities[2 * city] = -1;
+		} else if (adjacentCities[2 * city + 1] == other) {
+			adjacentCities[2 * city + 1] = -1;
+		}
+	}
+
+	private void addEdge(int city, int other) {
+		if (adjacent[2 * city] < 0) {
+			adjacent[2 * city] = other;
+		} else {
+			adjacent[2 * city + 1] = other;
+		}
+	}
+
+	private void replaceEdge(int city, int oldOther, int newOther) {
+		if (adjacent[2 * city] == oldOther) {
+			adjacent[2 * city] = newOther;
+		} else {
+			adjacent[2 * city + 1] = newOther;
+		}
+	}
+
+	/**
+	 * Labels the cities with the index of their subtour.
+	 *
+	 * @return the number of subtours
+	 */
+	private int labelSubtours() {
+		Arrays.fill(subtours, -1);
+		int subtourCount = 0;
+		for (int start = 0; start < n; start++) {
+			if (subtours[start] >= 0) {
+				continue;
+			}
+
+			int size = 0;
+			int previous = -1;
+			int city = start;
+			do {
+				subtours[city] = subtourCount;
+				size++;
+				int next = adjacent[2 * city] != previous ? adjacent[2 * city] : adjacent[2 * city + 1];
+				previous = city;
+				city = next;
+			} while (city != start);
+
+			subtourSizes[subtourCount] = size;
+			subtourStarts[subtourCount] = start;
+			subtourCount++;
+		}
+
+		for (int i = subtourCount; i < n && subtourSizes[i] != 0; i++) {
+			subtourSizes[i] = 0;
+		}
+		return subtourCount;
+	}
+
+	/**
+	 * Merges the smallest subtour into another subtour with the 2-opt like exchange of two edges that adds the least length.
+	 */
+	private void mergeSmallestSubtour() {
+		int smallest = -1;
+		for (int i = 0; i < n && subtourSizes[i] != 0; i++) {
+			if (subtourSizes[i] > 0 && (smallest < 0 || subtourSizes[i] < subtourSizes[smallest])) {
+				smallest = i;
+			}
+		}
+
+		int size = subtourSizes[smallest];
+		int previous = -1;
+		int city = subtourStarts[smallest];
+		for (int i = 0; i < size; i++) {
+			subtourCities[i] = city;
+			int next = adjacent[2 * city] != previous ? adjacent[2 * city] : adjacent[2 * city + 1];
+			previous = city;
+			city = next;
+		}
+
+		double bestDelta = Double.POSITIVE_INFINITY;
+		int bestU = -1, bestV = -1, bestW = -1, bestX = -1;
+		boolean bestCrossed = false;
+		for (int i = 0; i < size; i++) {
+			int u = subtourCities[i];
+			int v = subtourCities[(i + 1) % size];
+			double uv = problem.distance(u, v);
+			for (int rank = 0; rank < neighborLists.getNeighborCount(); rank++) {
+				int w = neighborLists.getNeighbor(u, rank);
+				if (subtours[w] == smallest) {
+					continue;
+				}
+				for (int slot = 0; slot < 2; slot++) {
+					int x = adjacent[2 * w + slot];
+					double removed = uv + problem.distance(w, x);
+					double delta = problem.distance(u, w) + problem.distance(v, x) - removed;
+					if (delta < bestDelta) {
+						bestDelta = delta;
+						bestU = u; bestV = v; bestW = w; bestX = x;
+						bestCrossed = false;
+					}
+					delta = problem.distance(u, x) + problem.distance(v, w) - removed;
+					if (delta < bestDelta) {
+						bestDelta = delta;
+						bestU = u; bestV = v; bestW = w; bestX = x;
+						bestCrossed = true;
+					}
+				}
+			}
+		}
+
+		if (bestU < 0) {
+			// none of the nearest neighbors is in another subtour, connect the first edge to the nearest city of any other subtour
+			int u = subtourCities[0];
+			int v = subtourCities[1 % size];
+			for (int w = 0; w < n; w++) {
+				if (subtours[w] != smallest && (bestW < 0 || problem.distance(u, w) < problem.distance(u, bestW))) {
+					bestW = w;
+				}
+			}
+			bestU = u;
+			bestV = v;
+			bestX = adjacent[2 * bestW];
+			bestCrossed = problem.distance(u, bestX) + problem.distance(v, bestW) < problem.distance(u, bestW) + problem.distance(v, bestX);
+		}
+
+		if (bestCrossed) {
+			replaceEdge(bestU, bestV, bestX);
+			replaceEdge(bestV, bestU, bestW);
+			replaceEdge(bestW, bestX, bestV);
+			replaceEdge(bestX, bestW, bestU);
+		} else {
+			replaceEdge(bestU, bestV, bestW);
+			replaceEdge(bestV, bestU, bestX);
+			replaceEdge(bestW, bestX, bestU);
+			replaceEdge(bestX, bestW, bestV);
+		}
+
+		int target = subtours[bestW];
+		for (int i = 0; i < size; i++) {
+			subtours[subtourCities[i]] = target;
+		}
+		subtourSizes[target] += size;
+		subtourSizes[smallest] = -1;
+	}
+}
@@ -1,28 +1,54 @@
 package ch.obermuhlner.salesman.strategies;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
 import ch.obermuhlner.salesman.model.SalesmanListener;
-import ch.obermuhlner.salesman.util.MathUtil;
-import ch.obermuhlner.salesman.util.ThreadUtil;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
 
 public class GeneticSalesman implements Salesman {
 
+	/**
+	 * The local search that improves the children in the memetic mode.
+	 */
+	public enum LocalSearch {
+		/**
+		 * No local search, the children are only mutated or recombined.
+		 */
+		NONE,
+		/**
+		 * Every child is improved with 2-opt and Or-opt moves until it is a local optimum.
+		 */
+		FULL,
+		/**
+		 * Every child is improved by a single pass that applies the first improving move at every changed city.
+		 */
+		FIRST_IMPROVEMENT,
+		/**
+		 * A child is improved until it is a local optimum with the probability set by {@link GeneticSalesman#setLocalSearchProbability(double)}.
+		 */
+		PROBABILISTIC
+	}
+
 	private SalesmanListener listener;
 	
+	private Random random = new Random();
+	private int parallelism = 1;
+	
 	private boolean initialSimpleSalesmanPopulation = true;
 	private int initialRandomPopulationCount = 10;
 	private int evolutionStepCount = 50000;
 	private int evolutionGenerationCount = 20;
 	private int mutationCount = 2;
+	private boolean rejectWorseChildren = false;
+	private Function<Problem, Crossover> crossover = null;
+	private Selection selection = new TournamentSelection(2);
+	private LocalSearch localSearch = LocalSearch.NONE;
+	private double localSearchProbability = 0.1;
 
 	public void setInitialSimpleSalesmanPopulation(boolean initialSimpleSalesmanPopulation) {
 		this.initialSimpleSalesmanPopulation = initialSimpleSalesmanPopulation;
@@ -36,6 +62,68 @@ public class GeneticSalesman implements Salesman {
 		this.mutationCount = mutationCount;
 	}
 	
+	/**
+	 * Sets whether children that are longer than the worst tour of the population are rejected.
+	 * 
+	 * The distance of a child is derived from its parent before the child is created,
+	 * so rejected children cost only a few distance lookups.
+	 * Rejected children count as failed attempt, like duplicates of an existing tour.
+	 * 
+	 * @param rejectWorseChildren <code>true</code> to reject children that are longer than the worst tour of the population
+	 */
+	public void setRejectWorseChildren(boolean rejectWorseChildren) {
+		this.rejectWorseChildren = rejectWorseChildren;
+	}
+	
+	/**
+	 * Sets the factory of the {@link Crossover} that recombines two parents into a child.
+	 * 
+	 * With a crossover every generation creates as many children as the population has tours,
+	 * the mutation count is then only applied to children that are rejected as duplicates or as too long, before they are tried again.
+	 * Without a crossover (the default) the children are created by swapping random cities of a single parent.
+	 * 
+	 * @param crossover the factory of the {@link Crossover}, for example <code>EdgeAssemblyCrossover::new</code>, or <code>null</code> for mutation only
+	 */
+	public void setCrossover(Function<Problem, Crossover> crossover) {
+		this.crossover = crossover;
+	}
+
+	/**
+	 * Sets the {@link Selection} of the parents of the {@link Crossover}.
+	 * 
+	 * The default is a {@link TournamentSelection} of size 2.
+	 * 
+	 * @param selection the {@link Selection}
+	 */
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+	
+	/**
+	 * Sets the local search of the memetic mode, which improves every tour of the initial population and the selected children.
+	 * 
+	 * The local search only considers moves to the nearest neighbors of the cities
+	 * and starts only at the cities whose edges differ from the parent, which is already a local optimum.
+	 * Every searched city counts as evaluation.
+	 * The default is {@link LocalSearch#NONE}.
+	 * 
+	 * @param localSearch the {@link LocalSearch}
+	 */
+	public void setLocalSearch(LocalSearch localSearch) {
+		this.localSearch = localSearch;
+	}
+
+	/**
+	 * Sets the probability that a child is improved with {@link LocalSearch#PROBABILISTIC}.
+	 * 
+	 * The default is 0.1.
+	 * 
+	 * @param localSearchProbability the probability between 0 and 1
+	 */
+	public void setLocalSearchProbability(double localSearchProbability) {
+		this.localSearchProbability = localSearchProbability;
+	}
+	
 	public void setEvolutionStepCount(int evolutionStepCount) {
 		this.evolutionStepCount = evolutionStepCount;
 	}
@@ -48,138 +136,64 @@ public class GeneticSalesman implements Salesman {
 		this.listener = listener;
 	}
 
-	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
-		GeneticSearch geneticSearch = new GeneticSearch(cities, distanceCalulator, new Random(), mutationCount, listener);
-		
-		if (initialSimpleSalesmanPopulation) {
-			geneticSearch.addSimpleSalesmanPopulation(cities);
-		}
-		geneticSearch.addRandomPopulation(cities, initialRandomPopulationCount);
-		
-		for (int i = 0; i < evolutionStepCount && !geneticSearch.exhaustedAllPossibleSolutions; i++) {
-			geneticSearch.runEvolution(evolutionGenerationCount);
-		}
-		
-		return geneticSearch.getBest();
+	/**
+	 * Sets the {@link Random} used to create the population.
+	 * 
+	 * A {@link Random} with a fixed seed gives reproducible results, also with a parallelism greater than 1.
+	 * 
+	 * @param random the {@link Random}
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
 	}
-	
-	private static class GeneticSearch {
-		private final DistanceCalculator distanceCalulator;
-		private final Random random;
-		
-		private final int mutationCount;
-		private final SalesmanListener listener;
-
-		private final List<List<City>> population = new ArrayList<>();
 
-		public boolean exhaustedAllPossibleSolutions = false;
-
-		private GeneticSearch(List<City> cities, DistanceCalculator distanceCalulator, Random random, int mutationCount, SalesmanListener listener) {
-			this.distanceCalulator = distanceCalulator;
-			this.random = random;
-			this.mutationCount = mutationCount;
-			this.listener = listener;
-		}
-		
-		public void addSimpleSalesmanPopulation(List<City> cities) {
-			for (int i = 0; i < cities.size(); i++) {
-				NearestSalesman simpleSalesman = new NearestSalesman(i);
-				List<City> path = simpleSalesman.bestPath(cities, distanceCalulator);
-				population.add(path);
-			}
-		}
-		
-		public void addRandomPopulation(List<City> cities, int count) {
-			for (int i = 0; i < count; i++) {
-				population.add(randomShuffle(cities, cities.size()));
-			}
-			
-			sortPopulation();
-		}
-
-		/**
-		 * Let the population grow for several generations before reducing the population to the original size.
-		 * 
-		 * @param generationCount the number of generations
-		 */
-		public void runEvolution(int generationCount) {
-			int n = population.size();
-			Set<List<City>> newPopulation = new HashSet<>(population); 
-
-			int cityCount = population.get(0).size();
-			long maxPossibleCombinations = cityCount > 10 ? Long.MAX_VALUE : MathUtil.factorial(cityCount);
+	/**
+	 * Sets the number of worker threads that breed children and evaluate the population in parallel.
+	 * 
+	 * A parallelism of 1 (the default) runs everything in the calling thread.
+	 * 
+	 * @param parallelism the number of worker threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
 
-			List<List<City>> currentGeneration = population;
-			List<List<City>> nextGeneration = new ArrayList<>();
-			for (int generationStep = 0; generationStep < generationCount && !exhaustedAllPossibleSolutions; generationStep++) {
-				for (int i = 0; i < currentGeneration.size() && !exhaustedAllPossibleSolutions; i++) {
-					List<City> parent = currentGeneration.get(i);
-					if (newPopulation.size() < maxPossibleCombinations) {
-						List<City> child = null;
-						int attempt = 0;
-						do {
-							child = randomShuffle(parent, mutationCount);
-							if (attempt++ > 1000) {
-								child = null;
-							}
+	@Override
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
+	}
 
-							ThreadUtil.checkThreadInterrupted();
-						} while (child != null && newPopulation.contains(child));
-						
-						if (child != null) {
-							nextGeneration.add(child);
-							newPopulation.add(child);
-						}
-					} else {
-						exhaustedAllPossibleSolutions = true;
-					}
-				}
-				
-				currentGeneration = nextGeneration;
-				nextGeneration = new ArrayList<>();
-			}
-			
-			population.clear();
-			population.addAll(newPopulation);
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The budget is checked after every generation, every tour of the initial population and every mutated child counts as evaluation.
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			GeneticSearch geneticSearch = new GeneticSearch(problem, random, mutationCount, rejectWorseChildren, pool, parallelism, listener);
+			geneticSearch.setProgress(progress);
+			geneticSearch.setCrossover(crossover, selection);
+			geneticSearch.setLocalSearch(localSearch, localSearchProbability);
 			
-			sortPopulation();
-
-			while (population.size() > n) {
-				population.remove(population.size()-1);
+			if (initialSimpleSalesmanPopulation) {
+				geneticSearch.addSimpleSalesmanPopulation();
 			}
+			geneticSearch.addRandomPopulation(initialRandomPopulationCount);
+			geneticSearch.improvePopulation();
+			geneticSearch.reportProgress();
 			
-			if (listener != null) {
-				listener.improvedSolutions(population);
+			for (int i = 0; i < evolutionStepCount && !geneticSearch.exhaustedAllPossibleSolutions && !progress.isExhausted(); i++) {
+				geneticSearch.runEvolution(evolutionGenerationCount);
+				geneticSearch.reportProgress();
 			}
-		}
-
-		private List<City> randomShuffle(List<City> cities, int mutationCount) {
-			List<City> shuffled = new ArrayList<>(cities);
 			
-			for (int i = 0; i < mutationCount; i++) {
-				int index1 = random.nextInt(shuffled.size());
-				int index2 = random.nextInt(shuffled.size());
-				
-				City tmp = shuffled.get(index1);
-				shuffled.set(index1, shuffled.get(index2));
-				shuffled.set(index2, tmp);
+			return geneticSearch.getBest();
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
 			}
-			
-			return shuffled;
-		}
-
-		public List<City> getBest() {
-			return population.get(0);
-		}
-
-		private void sortPopulation() {
-			population.sort(new Comparator<List<City>>() {
-				@Override
-				public int compare(List<City> o1, List<City> o2) {
-					return Double.compare(distanceCalulator.distance(o1), distanceCalulator.distance(o2));
-				}
-			});
 		}
 	}
 }
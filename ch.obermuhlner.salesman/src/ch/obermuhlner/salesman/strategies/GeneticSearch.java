@@ -0,0 +1,826 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.LongHashSet;
+import ch.obermuhlner.salesman.util.MathUtil;
+import ch.obermuhlner.salesman.util.ThreadInterruptedException;
+import ch.obermuhlner.salesman.util.ThreadUtil;
+
+/**
+ * The population of tours of a {@link GeneticSalesman} that evolves by mutating the tours,
+ * or by recombining them with a {@link Crossover} if one is set.
+ *
+ * In the memetic mode the children are additionally improved with a {@link TwoOptSearch} before they enter the population.
+ */
+class GeneticSearch {
+
+	private static final Comparator<Tour> DISTANCE_COMPARATOR = Comparator.comparingDouble(Tour::getDistance);
+
+	private static final int MAX_EXPECTED_POPULATION_SIZE = 1 << 20;
+
+	private static final int MAX_CROSSOVER_ATTEMPTS = 10;
+
+	private static final int LOCAL_SEARCH_NEIGHBOR_COUNT = 10;
+
+	private final Problem problem;
+	private final Random random;
+	
+	private final int mutationCount;
+	private final boolean rejectWorseChildren;
+	private final SwapMutation mutation;
+	private final ForkJoinPool pool;
+	private final int chunkCount;
+	private final SalesmanListener listener;
+
+	private Function<Problem, Crossover> crossoverFactory;
+	private Selection selection;
+	private Crossover[] crossovers;
+	private int[][] childBuffers;
+	private TwoOptSearch[] crossoverSearches;
+	private SwapMutation[] chunkMutations;
+	private TwoOptSearch[] chunkMutationSearches;
+
+	private GeneticSalesman.LocalSearch localSearch = GeneticSalesman.LocalSearch.NONE;
+	private double localSearchProbability;
+	private TwoOptSearch twoOptSearch;
+
+	private final List<Tour> population = new ArrayList<>();
+	private final LongAdder evaluationCount = new LongAdder();
+	private long reportedEvaluationCount;
+	private SolveProgress progress;
+
+	private SolverMetrics metrics;
+	private LongAdder childCount = new LongAdder();
+	private LongAdder duplicateCount = new LongAdder();
+	private LongAdder rejectedCount = new LongAdder();
+	private LongAdder localSearchCount = new LongAdder();
+	private LongAdder localSearchMoveCount = new LongAdder();
+
+	public boolean exhaustedAllPossibleSolutions = false;
+
+	GeneticSearch(Problem problem, Random random, int mutationCount, boolean rejectWorseChildren, ForkJoinPool pool, int chunkCount, SalesmanListener listener) {
+		this.problem = problem;
+		this.random = random;
+		this.mutationCount = mutationCount;
+		this.rejectWorseChildren = rejectWorseChildren;
+		this.mutation = new SwapMutation(problem);
+		this.pool = pool;
+		this.chunkCount = chunkCount;
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the {@link SolveProgress} that receives the evaluations and stops the growth of the population when its budget is exhausted.
+	 * 
+	 * The counters and phases of the search are added to the {@link SolverMetrics} of the progress, if they were already created.
+	 * 
+	 * @param progress the {@link SolveProgress}, or <code>null</code> for an unlimited budget
+	 */
+	public void setProgress(SolveProgress progress) {
+		this.progress = progress;
+		metrics = progress != null ? progress.getMetricsIfCreated() : null;
+		if (metrics != null) {
+			childCount = metrics.counter("genetic.children");
+			duplicateCount = metrics.counter("genetic.duplicates");
+			rejectedCount = metrics.counter("genetic.rejected");
+			localSearchCount = metrics.counter("genetic.localSearches");
+			localSearchMoveCount = metrics.counter("genetic.localSearchMoves");
+		}
+	}
+	
+	/**
+	 * Sets the {@link Crossover} that creates the children from two parents chosen by the {@link Selection}.
+	 * 
+	 * Every thread creates its own {@link Crossover} with the factory.
+	 * 
+	 * @param crossoverFactory the factory of the {@link Crossover}, or <code>null</code> to create the children by mutation only
+	 * @param selection the {@link Selection} of the parents
+	 */
+	public void setCrossover(Function<Problem, Crossover> crossoverFactory, Selection selection) {
+		this.crossoverFactory = crossoverFactory;
+		this.selection = selection;
+		this.crossovers = null;
+		this.childBuffers = null;
+	}
+
+	/**
+	 * Sets the local search of the memetic mode.
+	 * 
+	 * The {@link TwoOptSearch} of the progress counts the searched cities as evaluations and checks the budget while it searches.
+	 * 
+	 * @param localSearch the {@link GeneticSalesman.LocalSearch}
+	 * @param localSearchProbability the probability that a child is improved with {@link GeneticSalesman.LocalSearch#PROBABILISTIC}
+	 */
+	public void setLocalSearch(GeneticSalesman.LocalSearch localSearch, double localSearchProbability) {
+		this.localSearch = localSearch;
+		this.localSearchProbability = localSearchProbability;
+		this.twoOptSearch = null;
+		this.crossovers = null;
+		this.chunkMutations = null;
+		this.chunkMutationSearches = null;
+	}
+
+	/**
+	 * Adds the tours of the {@link NearestSalesman} that start at every city.
+	 * 
+	 * With a pool the start cities are split into chunks that are created in parallel,
+	 * every chunk checks the budget after each tour, so the tours are only created until the budget is exhausted.
+	 * The tours are added in the order of their start cities.
+	 */
+	public void addSimpleSalesmanPopulation() {
+		if (pool == null) {
+			addSimpleSalesmanPopulation(0, 1);
+			return;
+		}
+
+		SolverMetrics.Phase initialPopulationPhase = startPhase("genetic.initialPopulation");
+		try {
+			int n = problem.size();
+			int chunks = Math.max(1, Math.min(chunkCount, n));
+			List<Callable<List<Tour>>> tasks = new ArrayList<>(chunks);
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				int firstCity = n * chunk / chunks;
+				int endCity = n * (chunk + 1) / chunks;
+				tasks.add(() -> createNearestTours(firstCity, endCity));
+			}
+			for (Future<List<Tour>> future : pool.invokeAll(tasks)) {
+				population.addAll(get(future));
+			}
+		} finally {
+			initialPopulationPhase.close();
+		}
+	}
+
+	private List<Tour> createNearestTours(int firstCity, int endCity) {
+		List<Tour> tours = new ArrayList<>(endCity - firstCity);
+		for (int i = firstCity; i < endCity; i++) {
+			tours.add(new NearestSalesman(i).bestTour(problem));
+			evaluationCount.increment();
+			if (isExhausted()) {
+				break;
+			}
+		}
+		return tours;
+	}
+
+	/**
+	 * Adds the tours of the {@link NearestSalesman} that start at every <code>cityStep</code>-th city, beginning with <code>firstCity</code>.
+	 * 
+	 * This allows several populations to start with different nearest neighbor tours.
+	 * The tours are created in the calling thread.
+	 * 
+	 * @param firstCity the index of the first start city
+	 * @param cityStep the distance between the indexes of the start cities
+	 */
+	public void addSimpleSalesmanPopulation(int firstCity, int cityStep) {
+		SolverMetrics.Phase initialPopulationPhase = startPhase("genetic.initialPopulation");
+		try {
+			for (int i = firstCity; i < problem.size(); i += cityStep) {
+				NearestSalesman simpleSalesman = new NearestSalesman(i);
+				population.add(simpleSalesman.bestTour(problem));
+				evaluationCount.increment();
+				if (isExhausted()) {
+					break;
+				}
+			}
+		} finally {
+			initialPopulationPhase.close();
+		}
+	}
+	
+	public void addRandomPopulation(int count) {
+		SolverMetrics.Phase initialPopulationPhase = startPhase("genetic.initialPopulation");
+		try {
+			Tour tour = problem.createTour();
+			for (int i = 0; i < count; i++) {
+				population.add(randomShuffle(tour, tour.size(), random));
+			}
+			evaluationCount.add(count);
+			
+			sortPopulation();
+		} finally {
+			initialPopulationPhase.close();
+		}
+	}
+
+	/**
+	 * Improves every tour of the population with the local search of the memetic mode, in parallel if there is a pool.
+	 * 
+	 * Does nothing without local search.
+	 */
+	public void improvePopulation() {
+		if (localSearch == GeneticSalesman.LocalSearch.NONE || problem.size() < 4) {
+			return;
+		}
+
+		SolverMetrics.Phase initialPopulationPhase = startPhase("genetic.initialPopulation");
+		try {
+			List<Tour> improved;
+			if (pool != null) {
+				int chunks = Math.max(1, Math.min(chunkCount, population.size()));
+				List<Callable<List<Tour>>> tasks = new ArrayList<>(chunks);
+				for (int chunk = 0; chunk < chunks; chunk++) {
+					List<Tour> chunkTours = population.subList(population.size() * chunk / chunks, population.size() * (chunk + 1) / chunks);
+					tasks.add(() -> improve(chunkTours, createTwoOptSearch()));
+				}
+				improved = new ArrayList<>(population.size());
+				for (Future<List<Tour>> future : pool.invokeAll(tasks)) {
+					improved.addAll(get(future));
+				}
+			} else {
+				improved = improve(population, getTwoOptSearch());
+			}
+
+			population.clear();
+			population.addAll(improved);
+			sortPopulation();
+		} finally {
+			initialPopulationPhase.close();
+		}
+	}
+
+	private List<Tour> improve(List<Tour> tours, TwoOptSearch search) {
+		List<Tour> improved = new ArrayList<>(tours.size());
+		for (Tour tour : tours) {
+			if (progress != null && progress.isExhausted()) {
+				improved.add(tour);
+				continue;
+			}
+			localSearchCount.increment();
+			improved.add(search.improve(tour));
+			localSearchMoveCount.add(search.getMoveCount());
+		}
+		return improved;
+	}
+
+	/**
+	 * Let the population grow for several generations before reducing the population to the original size.
+	 * 
+	 * Children that describe the same cycle as another tour of the grown population (also rotated or reversed) are rejected,
+	 * which is detected by their fingerprints before the children are created.
+	 * 
+	 * With a {@link Crossover} every generation creates as many children as the population has tours
+	 * and the population is reduced to the best tours of parents and children after every generation (see {@link #runCrossoverEvolution(int)}).
+	 * 
+	 * @param generationCount the number of generations
+	 */
+	public void runEvolution(int generationCount) {
+		if (crossoverFactory != null) {
+			runCrossoverEvolution(generationCount);
+			return;
+		}
+
+		int n = population.size();
+		int expectedSize = (int) Math.min((long) n * (generationCount + 1), MAX_EXPECTED_POPULATION_SIZE);
+		LongHashSet fingerprints = new LongHashSet(expectedSize);
+		List<Tour> newPopulation = new ArrayList<>(expectedSize);
+		for (Tour tour : population) {
+			if (fingerprints.add(tour.getFingerprint())) {
+				newPopulation.add(tour);
+			}
+		}
+
+		long maxPossibleCombinations = maxPossibleCycles(problem.size());
+		double distanceLimit = rejectWorseChildren ? population.get(n - 1).getDistance() : Double.POSITIVE_INFINITY;
+
+		List<Tour> currentGeneration = population;
+		List<Tour> nextGeneration = new ArrayList<>();
+		SolverMetrics.Phase evolutionPhase = startPhase("genetic.evolution");
+		try {
+			for (int generationStep = 0; generationStep < generationCount && !exhaustedAllPossibleSolutions && !isExhausted(); generationStep++) {
+				if (pool != null) {
+					ThreadUtil.checkThreadInterrupted();
+					if (fingerprints.size() < maxPossibleCombinations) {
+						currentGeneration = breedParallel(currentGeneration, fingerprints, distanceLimit);
+						newPopulation.addAll(currentGeneration);
+					} else {
+						exhaustedAllPossibleSolutions = true;
+					}
+				} else {
+					for (int i = 0; i < currentGeneration.size() && !exhaustedAllPossibleSolutions; i++) {
+						Tour parent = currentGeneration.get(i);
+						if (fingerprints.size() < maxPossibleCombinations) {
+							Tour child = null;
+							for (int attempt = 0; attempt <= 1000 && child == null; attempt++) {
+								child = mutate(parent, mutation, getTwoOptSearch(), distanceLimit, random, fingerprints, null);
+
+								ThreadUtil.checkThreadInterrupted();
+							}
+					
+							if (child != null) {
+								childCount.increment();
+								nextGeneration.add(child);
+								newPopulation.add(child);
+								fingerprints.add(child.getFingerprint());
+							}
+						} else {
+							exhaustedAllPossibleSolutions = true;
+						}
+					}
+			
+					currentGeneration = nextGeneration;
+					nextGeneration = new ArrayList<>();
+				}
+			}
+		} finally {
+			evolutionPhase.close();
+		}
+		
+		SolverMetrics.Phase selectionPhase = startPhase("genetic.selection");
+		try {
+			selectBest(newPopulation, n);
+		} finally {
+			selectionPhase.close();
+		}
+		
+		if (listener != null) {
+			listener.improvedSolutions(population);
+		}
+	}
+
+	/**
+	 * Let the population evolve with the {@link Crossover} for several generations.
+	 * 
+	 * Every generation the parents are chosen from the population by the {@link Selection},
+	 * the population is then replaced by the best tours of parents and children.
+	 * A child that is longer than the distance limit or describes an already known cycle is evaluated again with new parents,
+	 * the retries additionally mutate the child to escape a converged population.
+	 * 
+	 * @param generationCount the number of generations
+	 */
+	private void runCrossoverEvolution(int generationCount) {
+		int n = population.size();
+		int chunks = pool != null ? Math.max(1, Math.min(chunkCount, n)) : 1;
+		if (crossovers == null || crossovers.length != chunks) {
+			crossovers = new Crossover[chunks];
+			childBuffers = new int[chunks][];
+			crossoverSearches = new TwoOptSearch[chunks];
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				crossovers[chunk] = crossoverFactory.apply(problem);
+				childBuffers[chunk] = new int[problem.size()];
+				crossoverSearches[chunk] = createTwoOptSearch();
+			}
+		}
+
+		int expectedSize = (int) Math.min((long) n * (generationCount + 1), MAX_EXPECTED_POPULATION_SIZE);
+		LongHashSet fingerprints = new LongHashSet(expectedSize);
+		List<Tour> candidates = new ArrayList<>(2 * n);
+		for (Tour tour : population) {
+			if (fingerprints.add(tour.getFingerprint())) {
+				candidates.add(tour);
+			}
+		}
+
+		long maxPossibleCombinations = maxPossibleCycles(problem.size());
+
+		SolverMetrics.Phase evolutionPhase = startPhase("genetic.evolution");
+		try {
+			for (int generationStep = 0; generationStep < generationCount && !exhaustedAllPossibleSolutions && !isExhausted(); generationStep++) {
+				ThreadUtil.checkThreadInterrupted();
+				if (fingerprints.size() >= maxPossibleCombinations) {
+					exhaustedAllPossibleSolutions = true;
+					break;
+				}
+
+				List<Tour> parents = population;
+				double distanceLimit = rejectWorseChildren ? parents.get(parents.size() - 1).getDistance() : Double.POSITIVE_INFINITY;
+				if (pool != null) {
+					candidates.addAll(crossParallel(parents, n, fingerprints, distanceLimit));
+				} else {
+					List<Tour> children = cross(parents, n, crossovers[0], childBuffers[0], crossoverSearches[0], fingerprints, distanceLimit, random);
+					for (Tour child : children) {
+						fingerprints.add(child.getFingerprint());
+					}
+					childCount.add(children.size());
+					candidates.addAll(children);
+				}
+
+				SolverMetrics.Phase selectionPhase = startPhase("genetic.selection");
+				try {
+					selectBest(candidates, n);
+				} finally {
+					selectionPhase.close();
+				}
+				candidates.clear();
+				candidates.addAll(population);
+			}
+		} finally {
+			evolutionPhase.close();
+		}
+
+		if (listener != null) {
+			listener.improvedSolutions(population);
+		}
+	}
+
+	/**
+	 * Creates the children of a generation in parallel chunks, each with its own {@link Crossover} and {@link Random} stream.
+	 * 
+	 * The children are merged in the order of the chunks, so the result does not depend on the thread scheduling.
+	 */
+	private List<Tour> crossParallel(List<Tour> parents, int count, LongHashSet existingFingerprints, double distanceLimit) {
+		int chunks = crossovers.length;
+		List<Callable<List<Tour>>> tasks = new ArrayList<>(chunks);
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int chunkSize = count * (chunk + 1) / chunks - count * chunk / chunks;
+			Crossover chunkCrossover = crossovers[chunk];
+			int[] chunkChild = childBuffers[chunk];
+			TwoOptSearch chunkSearch = crossoverSearches[chunk];
+			Random chunkRandom = new Random(random.nextLong());
+			tasks.add(() -> cross(parents, chunkSize, chunkCrossover, chunkChild, chunkSearch, existingFingerprints, distanceLimit, chunkRandom));
+		}
+
+		List<Future<List<Tour>>> chunkChildren = pool.invokeAll(tasks);
+
+		List<Tour> children = new ArrayList<>(count);
+		for (Future<List<Tour>> future : chunkChildren) {
+			for (Tour child : get(future)) {
+				if (existingFingerprints.add(child.getFingerprint())) {
+					children.add(child);
+				} else {
+					duplicateCount.increment();
+				}
+			}
+		}
+		childCount.add(children.size());
+		return children;
+	}
+
+	/**
+	 * Creates the specified number of children with the {@link Crossover}, the existing fingerprints are only read, so that all chunks can share them.
+	 * 
+	 * The child is created in the reusable array, only accepted children are copied into a new {@link Tour}.
+	 */
+	private List<Tour> cross(List<Tour> parents, int count, Crossover crossover, int[] child, TwoOptSearch search, LongHashSet existingFingerprints, double distanceLimit, Random random) {
+		LongHashSet chunkFingerprints = new LongHashSet(count);
+		List<Tour> children = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			for (int attempt = 0; attempt < MAX_CROSSOVER_ATTEMPTS; attempt++) {
+				evaluationCount.increment();
+				Tour parent1 = parents.get(selection.select(parents.size(), random));
+				Tour parent2 = parents.get(selection.select(parents.size(), random));
+				crossover.cross(parent1, parent2, child, random);
+				if (attempt > 0) {
+					for (int j = 0; j < mutationCount; j++) {
+						int index1 = random.nextInt(child.length);
+						int index2 = random.nextInt(child.length);
+						int tmp = child[index1];
+						child[index1] = child[index2];
+						child[index2] = tmp;
+					}
+				}
+
+				boolean improve = isLocalSearchChild(search, random);
+				double distance = problem.distance(child);
+				if (!improve && distance > distanceLimit) {
+					rejectedCount.increment();
+					continue;
+				}
+
+				long fingerprint = Tour.fingerprint(child);
+				if (isKnown(fingerprint, existingFingerprints, chunkFingerprints)) {
+					duplicateCount.increment();
+					continue;
+				}
+
+				Tour tour = new Tour(problem, child.clone(), distance, fingerprint);
+				if (improve) {
+					tour = improveChild(tour, parent1, search, distanceLimit, existingFingerprints, chunkFingerprints);
+					if (tour == null) {
+						continue;
+					}
+				}
+				chunkFingerprints.add(tour.getFingerprint());
+				children.add(tour);
+				break;
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * Breeds one child for every parent in parallel.
+	 * 
+	 * The parents are split into a fixed number of chunks, each with its own {@link Random} stream,
+	 * that are checked concurrently against the existing population.
+	 * Every chunk keeps its {@link SwapMutation} and {@link TwoOptSearch} for all generations.
+	 * The children are merged in the order of their parents, so the result does not depend on the thread scheduling.
+	 */
+	private List<Tour> breedParallel(List<Tour> parents, LongHashSet existingFingerprints, double distanceLimit) {
+		int chunks = Math.min(chunkCount, parents.size());
+		if (chunkMutations == null) {
+			chunkMutations = new SwapMutation[chunkCount];
+			chunkMutationSearches = new TwoOptSearch[chunkCount];
+		}
+		List<Callable<List<Tour>>> tasks = new ArrayList<>(chunks);
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			if (chunkMutations[chunk] == null) {
+				chunkMutations[chunk] = new SwapMutation(problem);
+				chunkMutationSearches[chunk] = createTwoOptSearch();
+			}
+			List<Tour> chunkParents = parents.subList(parents.size() * chunk / chunks, parents.size() * (chunk + 1) / chunks);
+			SwapMutation chunkMutation = chunkMutations[chunk];
+			TwoOptSearch chunkSearch = chunkMutationSearches[chunk];
+			Random chunkRandom = new Random(random.nextLong());
+			tasks.add(() -> breed(chunkParents, chunkMutation, chunkSearch, existingFingerprints, distanceLimit, chunkRandom));
+		}
+		
+		List<Future<List<Tour>>> chunkChildren = pool.invokeAll(tasks);
+
+		List<Tour> children = new ArrayList<>(parents.size());
+		for (Future<List<Tour>> future : chunkChildren) {
+			for (Tour child : get(future)) {
+				if (existingFingerprints.add(child.getFingerprint())) {
+					children.add(child);
+				} else {
+					duplicateCount.increment();
+				}
+			}
+		}
+		childCount.add(children.size());
+		return children;
+	}
+
+	/**
+	 * Breeds the children of a chunk, the existing fingerprints are only read, so that all chunks can share them.
+	 */
+	private List<Tour> breed(List<Tour> parents, SwapMutation chunkMutation, TwoOptSearch chunkSearch, LongHashSet existingFingerprints, double distanceLimit, Random random) {
+		LongHashSet chunkFingerprints = new LongHashSet(parents.size());
+		List<Tour> children = new ArrayList<>(parents.size());
+		for (Tour parent : parents) {
+			Tour child = null;
+			for (int attempt = 0; attempt <= 1000 && child == null; attempt++) {
+				child = mutate(parent, chunkMutation, chunkSearch, distanceLimit, random, existingFingerprints, chunkFingerprints);
+			}
+
+			if (child != null) {
+				chunkFingerprints.add(child.getFingerprint());
+				children.add(child);
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * Creates a child by swapping random cities of the parent.
+	 * 
+	 * The distance and the fingerprint of the child are derived from the parent,
+	 * so children that are too long or already known are rejected without creating them.
+	 * A child that will be improved by the local search is only rejected by its distance after the local search.
+	 * 
+	 * @param search the {@link TwoOptSearch} of the memetic mode, or <code>null</code>
+	 * @param existingFingerprints the fingerprints of the known tours
+	 * @param moreFingerprints more fingerprints of known tours, or <code>null</code>
+	 * @return the created child, or <code>null</code> if the child would be longer than the distance limit or is already known
+	 */
+	private Tour mutate(Tour parent, SwapMutation mutation, TwoOptSearch search, double distanceLimit, Random random, LongHashSet existingFingerprints, LongHashSet moreFingerprints) {
+		evaluationCount.increment();
+		mutation.reset(parent);
+		for (int i = 0; i < mutationCount; i++) {
+			mutation.swap(random.nextInt(parent.size()), random.nextInt(parent.size()));
+		}
+		
+		boolean improve = isLocalSearchChild(search, random);
+		if (!improve && mutation.getDistance() > distanceLimit) {
+			rejectedCount.increment();
+			return null;
+		}
+
+		if (isKnown(mutation.getFingerprint(), existingFingerprints, moreFingerprints)) {
+			duplicateCount.increment();
+			return null;
+		}
+
+		Tour child = mutation.createChild();
+		if (improve) {
+			return improveChild(child, parent, search, distanceLimit, existingFingerprints, moreFingerprints);
+		}
+		return child;
+	}
+
+	/**
+	 * Returns whether the next child is improved by the local search of the memetic mode.
+	 */
+	private boolean isLocalSearchChild(TwoOptSearch search, Random random) {
+		if (search == null) {
+			return false;
+		}
+		return localSearch != GeneticSalesman.LocalSearch.PROBABILISTIC || random.nextDouble() < localSearchProbability;
+	}
+
+	/**
+	 * Improves a child with the local search, starting only at the cities whose edges differ from its parent.
+	 * 
+	 * The parents of the memetic mode are local optima, so only the neighborhood of the new edges can be improved.
+	 * 
+	 * @return the improved child, or <code>null</code> if it is longer than the distance limit or is already known
+	 */
+	private Tour improveChild(Tour child, Tour parent, TwoOptSearch search, double distanceLimit, LongHashSet existingFingerprints, LongHashSet moreFingerprints) {
+		localSearchCount.increment();
+		Tour improved = search.improve(child, parent);
+		localSearchMoveCount.add(search.getMoveCount());
+
+		if (improved.getDistance() > distanceLimit) {
+			rejectedCount.increment();
+			return null;
+		}
+		if (isKnown(improved.getFingerprint(), existingFingerprints, moreFingerprints)) {
+			duplicateCount.increment();
+			return null;
+		}
+		return improved;
+	}
+
+	private static boolean isKnown(long fingerprint, LongHashSet existingFingerprints, LongHashSet moreFingerprints) {
+		return existingFingerprints.contains(fingerprint) || (moreFingerprints != null && moreFingerprints.contains(fingerprint));
+	}
+
+	private TwoOptSearch getTwoOptSearch() {
+		if (twoOptSearch == null) {
+			twoOptSearch = createTwoOptSearch();
+		}
+		return twoOptSearch;
+	}
+
+	/**
+	 * Creates the {@link TwoOptSearch} of the memetic mode for the calling thread.
+	 * 
+	 * @return the {@link TwoOptSearch}, or <code>null</code> without local search
+	 */
+	private TwoOptSearch createTwoOptSearch() {
+		if (localSearch == GeneticSalesman.LocalSearch.NONE || problem.size() < 4) {
+			return null;
+		}
+		TwoOptSearch search = new TwoOptSearch(problem, problem.getNeighborLists(Math.min(LOCAL_SEARCH_NEIGHBOR_COUNT, problem.size() - 1)));
+		search.setSinglePass(localSearch == GeneticSalesman.LocalSearch.FIRST_IMPROVEMENT);
+		search.setProgress(progress);
+		return search;
+	}
+
+	/**
+	 * Returns the number of different cycles through the specified number of cities, ignoring the starting city and the direction.
+	 */
+	private static long maxPossibleCycles(int cityCount) {
+		if (cityCount > 20) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(1, MathUtil.factorial(Math.max(0, cityCount - 1)) / 2);
+	}
+
+	private Tour randomShuffle(Tour tour, int mutationCount, Random random) {
+		int[] shuffled = tour.toArray();
+		
+		for (int i = 0; i < mutationCount; i++) {
+			int index1 = random.nextInt(shuffled.length);
+			int index2 = random.nextInt(shuffled.length);
+			
+			int tmp = shuffled[index1];
+			shuffled[index1] = shuffled[index2];
+			shuffled[index2] = tmp;
+		}
+		
+		return new Tour(problem, shuffled);
+	}
+
+	public Tour getBest() {
+		return population.get(0);
+	}
+
+	/**
+	 * Returns the best tours of the population.
+	 * 
+	 * @param count the maximum number of tours
+	 * @return the best tours, sorted by distance
+	 */
+	public List<Tour> getBest(int count) {
+		return new ArrayList<>(population.subList(0, Math.min(count, population.size())));
+	}
+
+	/**
+	 * Adds tours from another population, which replace the worst tours so that the size of the population stays the same.
+	 * 
+	 * Immigrants that describe the same cycle as a tour of the population or are longer than all tours of the population are ignored.
+	 * 
+	 * @param immigrants the tours to add
+	 */
+	public void immigrate(Collection<Tour> immigrants) {
+		LongHashSet fingerprints = new LongHashSet(population.size() + immigrants.size());
+		List<Tour> candidates = new ArrayList<>(population.size() + immigrants.size());
+		for (Tour tour : population) {
+			fingerprints.add(tour.getFingerprint());
+			candidates.add(tour);
+		}
+		for (Tour immigrant : immigrants) {
+			if (fingerprints.add(immigrant.getFingerprint())) {
+				candidates.add(immigrant);
+			}
+		}
+		selectBest(candidates, population.size());
+	}
+
+	/**
+	 * Returns the number of tours that were evaluated, including the tours of the initial population and rejected children.
+	 * 
+	 * @return the number of evaluated tours
+	 */
+	public long getEvaluationCount() {
+		return evaluationCount.sum();
+	}
+
+	/**
+	 * Reports the new evaluations and the best tour to the {@link SolveProgress}.
+	 * 
+	 * @return <code>true</code> if the best tour of the population is the new best tour of the {@link SolveProgress}
+	 */
+	public boolean reportProgress() {
+		if (progress == null) {
+			return false;
+		}
+		isExhausted();
+		return progress.improvedSolution(getBest());
+	}
+
+	/**
+	 * Reports the new evaluations to the {@link SolveProgress} and returns whether its budget is exhausted.
+	 * 
+	 * Synchronized because the chunks of the initial population check the budget concurrently.
+	 */
+	private synchronized boolean isExhausted() {
+		if (progress == null) {
+			return false;
+		}
+
+		long count = evaluationCount.sum();
+		progress.addEvaluations(count - reportedEvaluationCount);
+		reportedEvaluationCount = count;
+		return progress.isExhausted();
+	}
+
+	/**
+	 * Starts to measure a phase in the {@link SolverMetrics} of the progress.
+	 * 
+	 * @return the started phase, or {@link SolverMetrics.Phase#NONE} if there are no metrics
+	 */
+	private SolverMetrics.Phase startPhase(String name) {
+		return metrics != null ? metrics.startPhase(name) : SolverMetrics.Phase.NONE;
+	}
+
+	private void sortPopulation() {
+		population.sort(DISTANCE_COMPARATOR);
+	}
+
+	/**
+	 * Replaces the population with the best tours of the candidates.
+	 * 
+	 * Only the selected tours are kept in a bounded heap, so the candidates are never sorted completely.
+	 * 
+	 * @param candidates the candidate tours
+	 * @param count the number of tours to select
+	 */
+	private void selectBest(Collection<Tour> candidates, int count) {
+		PriorityQueue<Tour> worstFirst = new PriorityQueue<>(count + 1, DISTANCE_COMPARATOR.reversed());
+		for (Tour candidate : candidates) {
+			if (worstFirst.size() < count) {
+				worstFirst.add(candidate);
+			} else if (candidate.getDistance() < worstFirst.peek().getDistance()) {
+				worstFirst.poll();
+				worstFirst.add(candidate);
+			}
+		}
+
+		population.clear();
+		population.addAll(worstFirst);
+		sortPopulation();
+	}
+
+	private static <T> T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			throw new ThreadInterruptedException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+}
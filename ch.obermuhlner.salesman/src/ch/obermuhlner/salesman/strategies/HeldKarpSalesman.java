@@ -0,0 +1,351 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.ThreadInterruptedException;
+import ch.obermuhlner.salesman.util.ThreadUtil;
+
+/**
+ * Solves the traveling salesman problem exactly using the Held-Karp dynamic programming algorithm.
+ *
+ * For every subset of cities and every city in the subset the table contains the shortest path
+ * that starts at the first city, visits all cities of the subset and ends at the specified city.
+ * The subsets are calculated in order of increasing size, each size depends only on the previous size.
+ *
+ * This algorithm is O(n<sup>2</sup> 2<sup>n</sup>) in time and O(n 2<sup>n</sup>) in memory.
+ * The table stores <code>float</code> values, so 24 cities need about 180 MB.
+ */
+public class HeldKarpSalesman implements Salesman {
+
+	private SalesmanListener listener;
+
+	private int parallelism = 1;
+
+	private long maxMemory = Runtime.getRuntime().maxMemory() / 2;
+
+	public void setListener(SalesmanListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the number of worker threads that calculate the subsets of the same size in parallel.
+	 *
+	 * A parallelism of 1 (the default) runs everything in the calling thread.
+	 *
+	 * @param parallelism the number of worker threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the maximum number of bytes the table may use.
+	 *
+	 * The default is half of the maximum memory of the JVM.
+	 *
+	 * @param maxMemory the maximum number of bytes
+	 */
+	public void setMaxMemory(long maxMemory) {
+		this.maxMemory = maxMemory;
+	}
+
+	/**
+	 * Returns the number of bytes of the table needed to solve a problem with the specified number of cities.
+	 *
+	 * @param cityCount the number of cities
+	 * @return the number of bytes
+	 */
+	public static long requiredMemory(int cityCount) {
+		return tableSize(cityCount) * Float.BYTES;
+	}
+
+	private static long tableSize(int cityCount) {
+		if (cityCount <= 1) {
+			return 0;
+		}
+		int m = cityCount - 1;
+		return m * (1L << (m - 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the table would need more than the maximum memory
+	 */
+	@Override
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The dynamic program has no intermediate solutions, if the budget is exhausted before it is complete
+	 * the best tour of the {@link SolveProgress} or a nearest neighbor tour is returned instead.
+	 * Every entry of the table counts as evaluation.
+	 *
+	 * @throws IllegalArgumentException if the table would need more than the maximum memory
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		if (problem.size() <= 3) {
+			Tour tour = problem.createTour();
+			if (listener != null) {
+				listener.improvedSolution(tour);
+			}
+			progress.improvedSolution(tour);
+			return tour;
+		}
+
+		long tableSize = tableSize(problem.size());
+		if (problem.size() > 32 || tableSize > Integer.MAX_VALUE - 8 || tableSize * Float.BYTES > maxMemory) {
+			throw new IllegalArgumentException("Too many cities for Held-Karp: " + problem.size() + " cities would need " + (tableSize * Float.BYTES / (1024 * 1024)) + " MB");
+		}
+
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			HeldKarpSearch heldKarpSearch = new HeldKarpSearch(problem, (int) tableSize, pool, progress);
+			Tour tour = heldKarpSearch.findBestTour();
+			if (tour == null) {
+				tour = progress.getBest() != null ? progress.getBest() : new NearestSalesman().bestTour(problem);
+			}
+			if (listener != null) {
+				listener.improvedSolution(tour);
+			}
+			progress.improvedSolution(tour);
+			return tour;
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * The first city is the fixed start, the other m cities are represented by the bits 0 to m-1 of a subset.
+	 *
+	 * The table is split into one block per end city.
+	 * Since the end city is always part of the subset, its bit is removed from the subset index inside its block,
+	 * so the table needs only m * 2<sup>m-1</sup> instead of m * 2<sup>m</sup> entries.
+	 */
+	private static class HeldKarpSearch {
+		private final Problem problem;
+		private final ForkJoinPool pool;
+		private final SolveProgress progress;
+		private final int m;
+		private final int blockSize;
+		private final float[] distances;
+		private final float[] table;
+		private volatile boolean stopped;
+
+		public HeldKarpSearch(Problem problem, int tableSize, ForkJoinPool pool, SolveProgress progress) {
+			this.problem = problem;
+			this.pool = pool;
+			this.progress = progress;
+			this.m = problem.size() - 1;
+			this.blockSize = 1 << (m - 1);
+
+			int n = problem.size();
+			distances = new float[n * n];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					distances[i * n + j] = (float) problem.distance(i, j);
+				}
+			}
+
+			table = new float[tableSize];
+		}
+
+		/**
+		 * Calculates the shortest tour.
+		 *
+		 * @return the shortest tour, or <code>null</code> if the budget was exhausted before the table was complete
+		 */
+		public Tour findBestTour() {
+			for (int size = 0; size < m; size++) {
+				if (progress.isExhausted()) {
+					return null;
+				}
+				calculateSubsets(size);
+				ThreadUtil.checkThreadInterrupted();
+				if (stopped) {
+					return null;
+				}
+			}
+
+			int fullSet = (1 << m) - 1;
+			int bestEnd = -1;
+			float bestDistance = Float.MAX_VALUE;
+			for (int end = 0; end < m; end++) {
+				float distance = table[index(end, fullSet)] + distance(end + 1, 0);
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					bestEnd = end;
+				}
+			}
+
+			return reconstructTour(fullSet, bestEnd);
+		}
+
+		private void calculateSubsets(int size) {
+			if (pool == null) {
+				for (int end = 0; end < m; end++) {
+					calculateSubsets(size, end);
+				}
+				return;
+			}
+
+			List<Callable<Void>> tasks = new ArrayList<>(m);
+			for (int end = 0; end < m; end++) {
+				int taskEnd = end;
+				tasks.add(() -> {
+					calculateSubsets(size, taskEnd);
+					return null;
+				});
+			}
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				get(future);
+			}
+		}
+
+		/**
+		 * Calculates the shortest paths ending at the specified city through all subsets of other cities with the specified size.
+		 */
+		private void calculateSubsets(int size, int end) {
+			int blockOffset = end * blockSize;
+			int endCity = end + 1;
+
+			if (size == 0) {
+				table[blockOffset] = distance(0, endCity);
+				progress.addEvaluations(1);
+				return;
+			}
+
+			int count = 0;
+			int compressed = (1 << size) - 1;
+			while (compressed < blockSize) {
+				int others = expand(compressed, end);
+
+				float best = Float.MAX_VALUE;
+				int remaining = others;
+				while (remaining != 0) {
+					int previous = Integer.numberOfTrailingZeros(remaining);
+					remaining &= remaining - 1;
+
+					float distance = table[previous * blockSize + compress(others ^ (1 << previous), previous)] + distance(previous + 1, endCity);
+					if (distance < best) {
+						best = distance;
+					}
+				}
+				table[blockOffset + compressed] = best;
+
+				if (++count % 65536 == 0) {
+					ThreadUtil.checkThreadInterrupted();
+					progress.addEvaluations(65536);
+					if (progress.isExhausted()) {
+						stopped = true;
+						return;
+					}
+				}
+
+				compressed = nextSubsetOfSameSize(compressed);
+			}
+			progress.addEvaluations(count % 65536);
+		}
+
+		private Tour reconstructTour(int fullSet, int bestEnd) {
+			int n = m + 1;
+			int[] path = new int[n];
+			int subset = fullSet;
+			int end = bestEnd;
+			for (int position = n - 1; position > 0; position--) {
+				path[position] = end + 1;
+				int others = subset ^ (1 << end);
+				float expected = table[index(end, subset)];
+
+				int bestPrevious = -1;
+				float best = Float.MAX_VALUE;
+				int remaining = others;
+				while (remaining != 0) {
+					int previous = Integer.numberOfTrailingZeros(remaining);
+					remaining &= remaining - 1;
+
+					float distance = table[index(previous, others)] + distance(previous + 1, end + 1);
+					if (distance < best) {
+						best = distance;
+						bestPrevious = previous;
+					}
+					if (distance == expected) {
+						break;
+					}
+				}
+
+				subset = others;
+				end = bestPrevious;
+			}
+			path[0] = 0;
+
+			return new Tour(problem, path);
+		}
+
+		/**
+		 * Returns the index of the shortest path through the specified subset (including the end city) ending at the end city.
+		 */
+		private int index(int end, int subset) {
+			return end * blockSize + compress(subset & ~(1 << end), end);
+		}
+
+		private float distance(int city1, int city2) {
+			return distances[city1 * (m + 1) + city2];
+		}
+
+		/**
+		 * Removes the specified bit (which must be 0) from the subset.
+		 */
+		private static int compress(int subset, int bit) {
+			int lowMask = (1 << bit) - 1;
+			return ((subset >>> (bit + 1)) << bit) | (subset & lowMask);
+		}
+
+		/**
+		 * Inserts a 0 at the specified bit into the compressed subset.
+		 */
+		private static int expand(int compressed, int bit) {
+			int lowMask = (1 << bit) - 1;
+			return ((compressed >>> bit) << (bit + 1)) | (compressed & lowMask);
+		}
+
+		/**
+		 * Returns the next larger number with the same number of bits set (Gosper's hack).
+		 */
+		private static int nextSubsetOfSameSize(int subset) {
+			int lowest = subset & -subset;
+			int ripple = subset + lowest;
+			return (((ripple ^ subset) >>> 2) / lowest) | ripple;
+		}
+
+		private static <T> T get(Future<T> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				future.cancel(true);
+				throw new ThreadInterruptedException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.ThreadInterruptedException;
+
+/**
+ * Solves the traveling salesman problem with several independent populations of the {@link GeneticSalesman} (island model).
+ *
+ * Every island evolves its own population in its own thread, with its own {@link Random} and mutation count.
+ * The nearest neighbor tours of the initial population are distributed over the islands.
+ *
+ * After a number of evolution steps every island sends copies of its best tours to the next island in a ring,
+ * through lock-free queues, so the islands never wait for each other.
+ * The migrants replace the worst tours of the receiving island.
+ * Since the populations only exchange a few tours from time to time they stay diverse,
+ * which counteracts the premature convergence of a single large population.
+ *
+ * The result depends on the timing of the migrations, so it is not reproducible with more than one island.
+ */
+public class IslandGeneticSalesman implements Salesman {
+
+	private SalesmanListener listener;
+
+	private Random random = new Random();
+	private int islandCount = Runtime.getRuntime().availableProcessors();
+	private int[] mutationCounts = { 1, 2, 3 };
+
+	private int initialRandomPopulationCount = 10;
+	private int evolutionStepCount = 50000;
+	private int evolutionGenerationCount = 20;
+	private boolean rejectWorseChildren = false;
+	private Function<Problem, Crossover> crossover = null;
+	private Selection selection = new TournamentSelection(2);
+	private GeneticSalesman.LocalSearch localSearch = GeneticSalesman.LocalSearch.NONE;
+	private double localSearchProbability = 0.1;
+
+	private int migrationInterval = 10;
+	private int migrantCount = 2;
+
+	/**
+	 * Sets the {@link SalesmanListener} that receives the improvements of all islands.
+	 *
+	 * The islands report their improvements concurrently from their own threads without any locking,
+	 * so the listener must be thread-safe, for example a {@link ch.obermuhlner.salesman.model.CoalescingSalesmanListener}.
+	 *
+	 * @param listener the thread-safe {@link SalesmanListener}
+	 */
+	public void setListener(SalesmanListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the {@link Random} that creates the seeds of the islands.
+	 *
+	 * @param random the {@link Random}
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Sets the number of islands, each island runs in its own thread.
+	 *
+	 * The default is the number of available processors.
+	 *
+	 * @param islandCount the number of islands
+	 */
+	public void setIslandCount(int islandCount) {
+		this.islandCount = islandCount;
+	}
+
+	/**
+	 * Sets the number of random swaps that create a child, the island <code>i</code> uses the mutation count at index <code>i</code> modulo the number of mutation counts.
+	 *
+	 * @param mutationCounts the mutation counts of the islands
+	 */
+	public void setMutationCounts(int... mutationCounts) {
+		this.mutationCounts = mutationCounts.clone();
+	}
+
+	public void setInitialRandomPopulationCount(int initialRandomPopulationCount) {
+		this.initialRandomPopulationCount = initialRandomPopulationCount;
+	}
+
+	/**
+	 * Sets the number of evolution steps of every island.
+	 *
+	 * @param evolutionStepCount the number of evolution steps
+	 */
+	public void setEvolutionStepCount(int evolutionStepCount) {
+		this.evolutionStepCount = evolutionStepCount;
+	}
+
+	public void setEvolutionGenerationCount(int evolutionGenerationCount) {
+		this.evolutionGenerationCount = evolutionGenerationCount;
+	}
+
+	/**
+	 * @see GeneticSalesman#setRejectWorseChildren(boolean)
+	 */
+	public void setRejectWorseChildren(boolean rejectWorseChildren) {
+		this.rejectWorseChildren = rejectWorseChildren;
+	}
+
+	/**
+	 * @see GeneticSalesman#setCrossover(Function)
+	 */
+	public void setCrossover(Function<Problem, Crossover> crossover) {
+		this.crossover = crossover;
+	}
+
+	/**
+	 * @see GeneticSalesman#setSelection(Selection)
+	 */
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+
+	/**
+	 * @see GeneticSalesman#setLocalSearch(GeneticSalesman.LocalSearch)
+	 */
+	public void setLocalSearch(GeneticSalesman.LocalSearch localSearch) {
+		this.localSearch = localSearch;
+	}
+
+	/**
+	 * @see GeneticSalesman#setLocalSearchProbability(double)
+	 */
+	public void setLocalSearchProbability(double localSearchProbability) {
+		this.localSearchProbability = localSearchProbability;
+	}
+
+	/**
+	 * Sets the number of evolution steps between two migrations.
+	 *
+	 * @param migrationInterval the number of evolution steps
+	 */
+	public void setMigrationInterval(int migrationInterval) {
+		this.migrationInterval = migrationInterval;
+	}
+
+	/**
+	 * Sets the number of best tours that are sent to the next island in every migration.
+	 *
+	 * @param migrantCount the number of tours
+	 */
+	public void setMigrantCount(int migrantCount) {
+		this.migrantCount = migrantCount;
+	}
+
+	@Override
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * All islands share the budget, the islands check it after every generation.
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		int count = Math.max(1, islandCount);
+		List<Island> islands = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int mutationCount = mutationCounts[i % mutationCounts.length];
+			GeneticSearch geneticSearch = new GeneticSearch(problem, new Random(random.nextLong()), mutationCount, rejectWorseChildren, null, 1, null);
+			geneticSearch.setProgress(progress);
+			geneticSearch.setCrossover(crossover, selection);
+			geneticSearch.setLocalSearch(localSearch, localSearchProbability);
+			islands.add(new Island(i, geneticSearch));
+		}
+		for (int i = 0; i < count; i++) {
+			islands.get(i).next = islands.get((i + 1) % count);
+		}
+
+		if (count == 1) {
+			islands.get(0).evolve(problem, count, progress);
+			return islands.get(0).geneticSearch.getBest();
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(count);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>(count);
+			for (Island island : islands) {
+				tasks.add(() -> {
+					island.evolve(problem, count, progress);
+					return null;
+				});
+			}
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				get(future);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		Tour best = null;
+		for (Island island : islands) {
+			Tour tour = island.geneticSearch.getBest();
+			if (best == null || tour.getDistance() < best.getDistance()) {
+				best = tour;
+			}
+		}
+		return best;
+	}
+
+	private void reportImprovement(Tour tour) {
+		if (listener != null) {
+			listener.improvedSolution(tour);
+		}
+	}
+
+	private static <T> T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			throw new ThreadInterruptedException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * A population that is evolved by a single thread and receives migrants from the previous island.
+	 */
+	private class Island {
+		private final int index;
+		private final GeneticSearch geneticSearch;
+		private final Queue<Tour> immigrants = new ConcurrentLinkedQueue<>();
+		private Island next;
+
+		public Island(int index, GeneticSearch geneticSearch) {
+			this.index = index;
+			this.geneticSearch = geneticSearch;
+		}
+
+		public void evolve(Problem problem, int islandCount, SolveProgress progress) {
+			int randomPopulationCount = initialRandomPopulationCount;
+			if (index < problem.size()) {
+				geneticSearch.addSimpleSalesmanPopulation(index, islandCount);
+			} else {
+				randomPopulationCount = Math.max(1, randomPopulationCount);
+			}
+			geneticSearch.addRandomPopulation(randomPopulationCount);
+			geneticSearch.improvePopulation();
+			report();
+
+			for (int step = 1; step <= evolutionStepCount && !geneticSearch.exhaustedAllPossibleSolutions && !progress.isExhausted(); step++) {
+				geneticSearch.runEvolution(evolutionGenerationCount);
+				report();
+
+				if (step % migrationInterval == 0) {
+					migrate();
+				}
+			}
+		}
+
+		private void migrate() {
+			next.immigrants.addAll(geneticSearch.getBest(migrantCount));
+
+			List<Tour> arrived = new ArrayList<>();
+			Tour immigrant;
+			while ((immigrant = immigrants.poll()) != null) {
+				arrived.add(immigrant);
+			}
+			if (!arrived.isEmpty()) {
+				geneticSearch.immigrate(arrived);
+			}
+		}
+
+		private void report() {
+			if (geneticSearch.reportProgress()) {
+				reportImprovement(geneticSearch.getBest());
+			}
+		}
+	}
+}
@@ -0,0 +1,595 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+import ch.obermuhlner.salesman.model.NeighborLists;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.ThreadUtil;
+
+/**
+ * Solves the traveling salesman problem with chained Lin-Kernighan.
+ *
+ * The tour of an initial {@link Salesman} is improved with variable depth k-opt moves,
+ * each built as a chain of 2-opt moves that is extended as long as the partial gain is positive.
+ * The candidates for new edges are restricted to the nearest neighbors of a city.
+ *
+ * The local optimum is then repeatedly perturbed with a random segment double bridge kick
+ * that is followed by a Lin-Kernighan search around the changed edges.
+ * A kick that does not lead to a shorter tour is undone.
+ *
+ * The result depends on the {@link Random}, so repeated calls can be combined with {@link RepeatSalesman} or {@link BestSalesman}.
+ */
+public class LinKernighanSalesman implements Salesman {
+
+	/**
+	 * The maximum number of kicks between two reports to the listener, so that long runs still report their progress.
+	 */
+	private static final int MAX_REPORT_INTERVAL = 1000;
+
+	private Salesman initialSalesman = new NearestSalesman();
+
+	private SalesmanListener listener;
+
+	private Random random = new Random();
+
+	private int neighborCount = 10;
+	private int maxDepth = 50;
+	private int kickCount = 10000;
+
+	public void setInitialSalesman(Salesman initialSalesman) {
+		this.initialSalesman = initialSalesman;
+	}
+
+	/**
+	 * Sets the number of nearest neighbors of every city that are considered as candidates for a new edge.
+	 *
+	 * @param neighborCount the number of nearest neighbors
+	 */
+	public void setNeighborCount(int neighborCount) {
+		this.neighborCount = neighborCount;
+	}
+
+	/**
+	 * Sets the maximum number of 2-opt moves in a single k-opt move.
+	 *
+	 * @param maxDepth the maximum depth of a k-opt move
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Sets the number of double bridge kicks applied to the local optimum.
+	 *
+	 * A kick count of 0 returns the first local optimum.
+	 *
+	 * @param kickCount the number of kicks
+	 */
+	public void setKickCount(int kickCount) {
+		this.kickCount = kickCount;
+	}
+
+	public void setListener(SalesmanListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the {@link Random} used to choose the kicks.
+	 *
+	 * @param random the {@link Random}
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	@Override
+	public Tour bestTour(Problem problem) {
+		return improve(initialSalesman.bestTour(problem));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The budget is checked after every kick, every city that is searched for an improving move counts as evaluation.
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		Tour initialTour;
+		SolverMetrics.Phase initialTourPhase = startPhase(progress.getMetricsIfCreated(), "linKernighan.initialTour");
+		try {
+			initialTour = initialSalesman.bestTour(problem, progress);
+		} finally {
+			initialTourPhase.close();
+		}
+		return improve(initialTour, progress);
+	}
+
+	/**
+	 * Improves the specified {@link Tour} with chained Lin-Kernighan.
+	 *
+	 * @param tour the {@link Tour} to improve
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour tour) {
+		return improve(tour, new SolveProgress());
+	}
+
+	/**
+	 * Improves the specified {@link Tour} with chained Lin-Kernighan until the kicks are done or the budget is exhausted.
+	 *
+	 * @param tour the {@link Tour} to improve
+	 * @param progress the {@link SolveProgress} that limits the search and receives the improved tours
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour tour, SolveProgress progress) {
+		Problem problem = tour.getProblem();
+		if (problem.size() < 5) {
+			return new TwoOptSalesman().improve(tour, progress);
+		}
+
+		SolverMetrics metrics = progress.getMetricsIfCreated();
+		LinKernighanSearch search = new LinKernighanSearch(problem, problem.getNeighborLists(neighborCount), maxDepth, random, progress);
+		SolverMetrics.Phase optimizationPhase = startPhase(metrics, "linKernighan.optimization");
+		try {
+			search.optimize(tour);
+		} finally {
+			optimizationPhase.close();
+		}
+
+		if (problem.size() >= 8) {
+			LongAdder kicks = counter(metrics, "linKernighan.kicks");
+			LongAdder improvingKicks = counter(metrics, "linKernighan.improvingKicks");
+			SolverMetrics.Phase kicksPhase = startPhase(metrics, "linKernighan.kicks");
+			try {
+				int reportInterval = Math.max(1, Math.min(kickCount / 100, MAX_REPORT_INTERVAL));
+				boolean improvedSinceReport = false;
+				for (int i = 0; i < kickCount && !progress.isExhausted(); i++) {
+					kicks.increment();
+					if (search.kick()) {
+						improvingKicks.increment();
+						progress.improvedDistance(search.getDistance());
+						improvedSinceReport = true;
+					}
+
+					if (improvedSinceReport && i % reportInterval == 0) {
+						Tour improved = search.createTour();
+						if (listener != null) {
+							listener.improvedSolution(improved);
+						}
+						progress.improvedSolution(improved);
+						improvedSinceReport = false;
+					}
+
+					ThreadUtil.checkThreadInterrupted();
+				}
+			} finally {
+				kicksPhase.close();
+			}
+		}
+
+		Tour result = search.createTour();
+		if (listener != null) {
+			listener.improvedSolution(result);
+		}
+		progress.improvedSolution(result);
+		return result;
+	}
+
+	/**
+	 * Starts to measure a phase in the specified {@link SolverMetrics}.
+	 *
+	 * @return the started phase, or {@link SolverMetrics.Phase#NONE} if there are no metrics
+	 */
+	private static SolverMetrics.Phase startPhase(SolverMetrics metrics, String name) {
+		return metrics != null ? metrics.startPhase(name) : SolverMetrics.Phase.NONE;
+	}
+
+	/**
+	 * Returns the counter with the specified name of the {@link SolverMetrics}, or a counter that nobody reads if there are no metrics.
+	 */
+	private static LongAdder counter(SolverMetrics metrics, String name) {
+		return metrics != null ? metrics.counter(name) : new LongAdder();
+	}
+
+	private static class LinKernighanSearch {
+		private static final double EPSILON = 1e-9;
+
+		private static final int MAX_KICK_SEGMENT_LENGTH = 50;
+
+		private static final int[] BREADTH = { 5, 3, 1 };
+
+		private final Problem problem;
+		private final NeighborLists neighborLists;
+		private final int maxDepth;
+		private final Random random;
+		private final SolveProgress progress;
+		private final int n;
+
+		private final int[] tour;
+		private final int[] positions;
+		private double distance;
+
+		private final int[] queue;
+		private final boolean[] queued;
+		private int queueStart;
+		private int queueSize;
+
+		private final int[] chainT2;
+		private final int[] chainT3;
+		private final int[] chainT4;
+		private final int[][] candidates;
+		private final double[][] candidateScores;
+		private double chainStartDistance;
+
+		private boolean journaling;
+		private int[] journal = new int[256];
+		private int journalSize;
+		private final int[] kickBuffer;
+
+		public LinKernighanSearch(Problem problem, NeighborLists neighborLists, int maxDepth, Random random, SolveProgress progress) {
+			this.problem = problem;
+			this.neighborLists = neighborLists;
+			this.maxDepth = Math.max(1, maxDepth);
+			this.random = random;
+			this.progress = progress;
+			this.n = problem.size();
+
+			tour = new int[n];
+			positions = new int[n];
+			queue = new int[n];
+			queued = new boolean[n];
+
+			chainT2 = new int[this.maxDepth];
+			chainT3 = new int[this.maxDepth];
+			chainT4 = new int[this.maxDepth];
+			candidates = new int[BREADTH.length][];
+			candidateScores = new double[BREADTH.length][];
+			for (int level = 0; level < BREADTH.length; level++) {
+				candidates[level] = new int[BREADTH[level]];
+				candidateScores[level] = new double[BREADTH[level]];
+			}
+
+			kickBuffer = new int[2 * MAX_KICK_SEGMENT_LENGTH];
+		}
+
+		/**
+		 * Runs Lin-Kernighan from every city of the specified {@link Tour} until no improving move is left or the budget is exhausted.
+		 */
+		public void optimize(Tour start) {
+			for (int i = 0; i < n; i++) {
+				int city = start.getCityIndex(i);
+				tour[i] = city;
+				positions[city] = i;
+			}
+			distance = start.getDistance();
+
+			for (int i = 0; i < n; i++) {
+				push(tour[i]);
+			}
+			runQueue();
+		}
+
+		/**
+		 * Applies a random double bridge kick followed by Lin-Kernighan around the changed edges.
+		 *
+		 * @return <code>true</code> if the tour was improved, <code>false</code> if the kick was undone
+		 */
+		public boolean kick() {
+			double startDistance = distance;
+			journaling = true;
+			journalSize = 0;
+
+			int maxLength = Math.max(1, Math.min(MAX_KICK_SEGMENT_LENGTH, n / 4));
+			int from = random.nextInt(n);
+			int length1 = 1 + random.nextInt(maxLength);
+			int length2 = 1 + random.nextInt(maxLength);
+			int a = cityAt(from - 1);
+			int b1 = cityAt(from);
+			int b2 = cityAt(from + length1 - 1);
+			int c1 = cityAt(from + length1);
+			int c2 = cityAt(from + length1 + length2 - 1);
+			int d = cityAt(from + length1 + length2);
+			distance += distance(a, c1) + distance(c2, b1) + distance(b2, d) - distance(a, b1) - distance(b2, c1) - distance(c2, d);
+
+			swapSegments(from, length1, length2);
+			addJournal(-1, from, length1, length2);
+
+			push(a);
+			push(b1);
+			push(b2);
+			push(c1);
+			push(c2);
+			push(d);
+			runQueue();
+
+			journaling = false;
+			if (distance < startDistance - EPSILON) {
+				return true;
+			}
+
+			undoJournal();
+			distance = startDistance;
+			return false;
+		}
+
+		public double getDistance() {
+			return distance;
+		}
+
+		public Tour createTour() {
+			return new Tour(problem, tour.clone(), distance);
+		}
+
+		private void runQueue() {
+			int iteration = 0;
+			while (queueSize > 0) {
+				int t1 = poll();
+				improveCity(t1);
+
+				if (++iteration % 256 == 0) {
+					ThreadUtil.checkThreadInterrupted();
+					progress.addEvaluations(256);
+					progress.improvedDistance(distance);
+					if (progress.isExhausted()) {
+						break;
+					}
+				}
+			}
+			progress.addEvaluations(iteration % 256);
+		}
+
+		private boolean improveCity(int t1) {
+			for (int direction = 0; direction < 2; direction++) {
+				int t2 = direction == 0 ? next(t1) : previous(t1);
+				chainStartDistance = distance;
+				if (step(0, t1, t2, distance(t1, t2))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Extends the chain of 2-opt moves that starts with removing the edge (t1, t2).
+		 *
+		 * The tour is valid after every 2-opt move, closed by the edge (t1, t4).
+		 * The deepest chain that gives a shorter tour is kept, the rest of the chain is undone.
+		 *
+		 * @return <code>true</code> if the tour was improved
+		 */
+		private boolean step(int level, int t1, int t2, double gain) {
+			boolean forward = next(t1) == t2;
+			int breadth = level < BREADTH.length ? BREADTH[level] : 1;
+			int[] levelCandidates = level < BREADTH.length ? candidates[level] : null;
+			double[] levelScores = level < BREADTH.length ? candidateScores[level] : null;
+
+			int candidateCount = 0;
+			int bestCandidate = -1;
+			double bestScore = Double.NEGATIVE_INFINITY;
+
+			for (int rank = 0; rank < neighborLists.getNeighborCount(); rank++) {
+				int t3 = neighborLists.getNeighbor(t2, rank);
+				double partialGain = gain - distance(t2, t3);
+				if (partialGain <= EPSILON) {
+					break;
+				}
+
+				int t4 = forward ? previous(t3) : next(t3);
+				if (t3 == t1 || t4 == t2 || isAdded(level, t3, t4)) {
+					continue;
+				}
+
+				double score = distance(t3, t4) - distance(t2, t3);
+				if (levelCandidates == null) {
+					if (score > bestScore) {
+						bestScore = score;
+						bestCandidate = t3;
+					}
+				} else {
+					int index;
+					if (candidateCount < breadth) {
+						index = candidateCount++;
+					} else if (score > levelScores[breadth - 1]) {
+						index = breadth - 1;
+					} else {
+						continue;
+					}
+					while (index > 0 && levelScores[index - 1] < score) {
+						levelScores[index] = levelScores[index - 1];
+						levelCandidates[index] = levelCandidates[index - 1];
+						index--;
+					}
+					levelScores[index] = score;
+					levelCandidates[index] = t3;
+				}
+			}
+
+			if (levelCandidates == null && bestCandidate >= 0) {
+				return tryMove(level, t1, t2, bestCandidate, gain, forward);
+			}
+			for (int i = 0; i < candidateCount; i++) {
+				if (tryMove(level, t1, t2, levelCandidates[i], gain, forward)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean tryMove(int level, int t1, int t2, int t3, double gain, boolean forward) {
+			int t4 = forward ? previous(t3) : next(t3);
+			int from = forward ? positions[t2] : positions[t4];
+			int to = forward ? positions[t4] : positions[t2];
+
+			double distanceT3T4 = distance(t3, t4);
+			double delta = distance(t2, t3) + distance(t1, t4) - distance(t1, t2) - distanceT3T4;
+			flip(from, to);
+			distance += delta;
+			chainT2[level] = t2;
+			chainT3[level] = t3;
+			chainT4[level] = t4;
+
+			if (level + 1 < maxDepth && step(level + 1, t1, t4, gain - distance(t2, t3) + distanceT3T4)) {
+				return true;
+			}
+
+			if (distance < chainStartDistance - EPSILON) {
+				push(t1);
+				for (int i = 0; i <= level; i++) {
+					push(chainT2[i]);
+					push(chainT3[i]);
+					push(chainT4[i]);
+				}
+				return true;
+			}
+
+			unflip(from, to);
+			distance -= delta;
+			return false;
+		}
+
+		/**
+		 * Returns whether the edge (a, b) was added by the current chain and must therefore not be removed again.
+		 */
+		private boolean isAdded(int level, int a, int b) {
+			for (int i = 0; i < level; i++) {
+				int t2 = chainT2[i];
+				int t3 = chainT3[i];
+				if ((t2 == a && t3 == b) || (t2 == b && t3 == a)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void flip(int from, int to) {
+			reverse(from, to);
+			if (journaling) {
+				addJournal(from, to, 0, 0);
+			}
+		}
+
+		private void unflip(int from, int to) {
+			reverse(from, to);
+			if (journaling) {
+				journalSize -= 4;
+			}
+		}
+
+		private void addJournal(int value1, int value2, int value3, int value4) {
+			if (journalSize + 4 > journal.length) {
+				journal = Arrays.copyOf(journal, journal.length * 2);
+			}
+			journal[journalSize++] = value1;
+			journal[journalSize++] = value2;
+			journal[journalSize++] = value3;
+			journal[journalSize++] = value4;
+		}
+
+		/**
+		 * Undoes all changes of the current kick in reverse order.
+		 *
+		 * A reversal of the same positions is its own inverse, a segment swap is undone by swapping the segments back.
+		 */
+		private void undoJournal() {
+			while (journalSize > 0) {
+				journalSize -= 4;
+				if (journal[journalSize] < 0) {
+					swapSegments(journal[journalSize + 1], journal[journalSize + 3], journal[journalSize + 2]);
+				} else {
+					reverse(journal[journalSize], journal[journalSize + 1]);
+				}
+			}
+		}
+
+		/**
+		 * Swaps the two consecutive segments starting at the specified position (segment double bridge).
+		 */
+		private void swapSegments(int from, int length1, int length2) {
+			int length = length1 + length2;
+			for (int i = 0; i < length; i++) {
+				kickBuffer[i] = cityAt(from + (i + length1) % length);
+			}
+			for (int i = 0; i < length; i++) {
+				int position = (from + i) % n;
+				int city = kickBuffer[i];
+				tour[position] = city;
+				positions[city] = position;
+			}
+		}
+
+		/**
+		 * Reverses the cities between the specified positions (inclusive) in the direction of the tour.
+		 *
+		 * If the segment is longer than half of the tour, the rest of the tour is reversed instead, which results in the same cycle.
+		 */
+		private void reverse(int from, int to) {
+			int length = to - from;
+			if (length < 0) {
+				length += n;
+			}
+			length += 1;
+
+			if (length * 2 > n) {
+				int newFrom = to + 1 == n ? 0 : to + 1;
+				int newTo = from == 0 ? n - 1 : from - 1;
+				from = newFrom;
+				to = newTo;
+				length = n - length;
+			}
+
+			for (int i = 0; i < length / 2; i++) {
+				int city1 = tour[from];
+				int city2 = tour[to];
+				tour[from] = city2;
+				positions[city2] = from;
+				tour[to] = city1;
+				positions[city1] = to;
+
+				from = from + 1 == n ? 0 : from + 1;
+				to = to == 0 ? n - 1 : to - 1;
+			}
+		}
+
+		private int cityAt(int position) {
+			return tour[((position % n) + n) % n];
+		}
+
+		private int next(int city) {
+			int position = positions[city] + 1;
+			return tour[position == n ? 0 : position];
+		}
+
+		private int previous(int city) {
+			int position = positions[city];
+			return tour[position == 0 ? n - 1 : position - 1];
+		}
+
+		private double distance(int city1, int city2) {
+			return problem.distance(city1, city2);
+		}
+
+		private void push(int city) {
+			if (!queued[city]) {
+				queued[city] = true;
+				int index = queueStart + queueSize;
+				queue[index >= n ? index - n : index] = city;
+				queueSize++;
+			}
+		}
+
+		private int poll() {
+			int city = queue[queueStart];
+			queueStart = queueStart + 1 == n ? 0 : queueStart + 1;
+			queueSize--;
+			queued[city] = false;
+			return city;
+		}
+	}
+}
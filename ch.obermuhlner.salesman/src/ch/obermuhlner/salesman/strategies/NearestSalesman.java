@@ -1,15 +1,16 @@
 package ch.obermuhlner.salesman.strategies;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
-
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.spatial.KdTree;
 
+/**
+ * Solves the traveling salesman problem by always traveling to the nearest city that was not yet visited.
+ *
+ * If the {@link Problem} has a {@link KdTree} the nearest city is found in O(log n),
+ * otherwise all remaining cities are compared in every step.
+ */
 public class NearestSalesman implements Salesman {
 
 	private int startIndex;
@@ -23,40 +24,70 @@ public class NearestSalesman implements Salesman {
 	}
 	
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalculator) {
-		Set<City> remainingCities = new LinkedHashSet<>(cities);
-		List<City> path = new ArrayList<>();
+	public Tour bestTour(Problem problem) {
+		int[] path = new int[problem.size()];
 		
-		if (!remainingCities.isEmpty()) {
-			City current = cities.get(startIndex % cities.size());
-			remainingCities.remove(current);
-			path.add(current);
-			
-			while (!remainingCities.isEmpty()) {
-				City closestCity = findClosestCity(current, remainingCities, distanceCalculator);
-				remainingCities.remove(closestCity);
-				path.add(closestCity);
-				
-				current = closestCity;
+		if (path.length > 0) {
+			KdTree kdTree = problem.getKdTree();
+			if (kdTree != null) {
+				fillPath(path, kdTree);
+			} else {
+				fillPath(path, problem);
 			}
 		}
 		
-		return path;
+		return new Tour(problem, path);
+	}
+
+	private void fillPath(int[] path, KdTree kdTree) {
+		KdTree.RemainingCities remainingCities = kdTree.remainingCities();
+
+		int current = startIndex % path.length;
+		remainingCities.remove(current);
+		int pathCount = 0;
+		path[pathCount++] = current;
+
+		while (!remainingCities.isEmpty()) {
+			current = remainingCities.nearest(current);
+			remainingCities.remove(current);
+			path[pathCount++] = current;
+		}
+	}
+
+	private void fillPath(int[] path, Problem problem) {
+		int[] remainingCities = problem.createTour().toArray();
+		int remainingCount = remainingCities.length;
+
+		int current = startIndex % path.length;
+		remove(remainingCities, remainingCount--, current);
+		int pathCount = 0;
+		path[pathCount++] = current;
+
+		while (remainingCount > 0) {
+			int closestPosition = findClosestCity(current, remainingCities, remainingCount, problem);
+			current = remainingCities[closestPosition];
+			remove(remainingCities, remainingCount--, closestPosition);
+			path[pathCount++] = current;
+		}
 	}
 	
-	private City findClosestCity(City start, Collection<City> candidates, DistanceCalculator distanceCalulator) {
-		City closestCity = null;
+	private static void remove(int[] elements, int count, int position) {
+		System.arraycopy(elements, position + 1, elements, position, count - position - 1);
+	}
+
+	private int findClosestCity(int start, int[] candidates, int candidateCount, Problem problem) {
+		int closestPosition = -1;
 		double closestDistance = Double.MAX_VALUE;
 		
-		for (City candidate : candidates) {
-			double distance = distanceCalulator.distance(start, candidate);
+		for (int i = 0; i < candidateCount; i++) {
+			double distance = problem.distance(start, candidates[i]);
 			if (distance < closestDistance) {
-				closestCity = candidate;
+				closestPosition = i;
 				closestDistance = distance;
 			}
 		}
 		
-		return closestCity;
+		return closestPosition;
 	}
 
 }
@@ -0,0 +1,62 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Order crossover (OX).
+ *
+ * The child inherits a random segment of the first parent at the same positions,
+ * the remaining positions are filled after the segment with the missing cities in the order of the second parent.
+ */
+public class OrderCrossover implements Crossover {
+
+	private final int[] stamps;
+	private int stamp;
+
+	public OrderCrossover(Problem problem) {
+		stamps = new int[problem.size()];
+	}
+
+	@Override
+	public void cross(Tour parent1, Tour parent2, int[] child, Random random) {
+		int n = parent1.size();
+		int start = random.nextInt(n);
+		int end = random.nextInt(n);
+		if (start > end) {
+			int tmp = start;
+			start = end;
+			end = tmp;
+		}
+
+		int segmentStamp = nextStamp();
+		for (int i = start; i <= end; i++) {
+			int city = parent1.getCityIndex(i);
+			child[i] = city;
+			stamps[city] = segmentStamp;
+		}
+
+		int position = (end + 1) % n;
+		for (int i = 1; i <= n; i++) {
+			int city = parent2.getCityIndex((end + i) % n);
+			if (stamps[city] != segmentStamp) {
+				child[position] = city;
+				position = (position + 1) % n;
+			}
+		}
+	}
+
+	/**
+	 * Returns a new stamp for the marked cities, so that the marks never need to be cleared.
+	 */
+	private int nextStamp() {
+		if (++stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+}
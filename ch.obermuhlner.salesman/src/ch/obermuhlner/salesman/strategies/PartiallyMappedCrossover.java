@@ -0,0 +1,68 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Partially mapped crossover (PMX).
+ *
+ * The child inherits a random segment of the first parent and all other positions of the second parent.
+ * A city of the second parent that is already part of the segment is replaced by following the mapping
+ * between the two parents within the segment until a city outside of the segment is found.
+ */
+public class PartiallyMappedCrossover implements Crossover {
+
+	private final int[] positions1;
+	private final int[] stamps;
+	private int stamp;
+
+	public PartiallyMappedCrossover(Problem problem) {
+		positions1 = new int[problem.size()];
+		stamps = new int[problem.size()];
+	}
+
+	@Override
+	public void cross(Tour parent1, Tour parent2, int[] child, Random random) {
+		int n = parent1.size();
+		int start = random.nextInt(n);
+		int end = random.nextInt(n);
+		if (start > end) {
+			int tmp = start;
+			start = end;
+			end = tmp;
+		}
+
+		int segmentStamp = nextStamp();
+		for (int i = start; i <= end; i++) {
+			int city = parent1.getCityIndex(i);
+			child[i] = city;
+			stamps[city] = segmentStamp;
+			positions1[city] = i;
+		}
+
+		for (int i = 0; i < n; i++) {
+			if (i >= start && i <= end) {
+				continue;
+			}
+			int city = parent2.getCityIndex(i);
+			while (stamps[city] == segmentStamp) {
+				city = parent2.getCityIndex(positions1[city]);
+			}
+			child[i] = city;
+		}
+	}
+
+	/**
+	 * Returns a new stamp for the marked cities, so that the marks never need to be cleared.
+	 */
+	private int nextStamp() {
+		if (++stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+}
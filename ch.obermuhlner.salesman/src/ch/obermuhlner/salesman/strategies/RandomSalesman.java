@@ -1,12 +1,10 @@
 package ch.obermuhlner.salesman.strategies;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.Tour;
 
 /**
  * Implementation of {@link Salesman} that returns the input in random order.
@@ -26,15 +24,16 @@ public class RandomSalesman implements Salesman {
 	}
 	
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
-		List<City> remainingCities = new ArrayList<>(cities);
-		List<City> path = new ArrayList<>();
+	public Tour bestTour(Problem problem) {
+		int[] path = problem.createTour().toArray();
 
-		while (!remainingCities.isEmpty()) {
-			int index = random.nextInt(remainingCities.size());
-			path.add(remainingCities.remove(index));
+		for (int i = path.length - 1; i > 0; i--) {
+			int index = random.nextInt(i + 1);
+			int tmp = path[i];
+			path[i] = path[index];
+			path[index] = tmp;
 		}
 		
-		return path;
+		return new Tour(problem, path);
 	}
 }
@@ -0,0 +1,19 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Random;
+
+/**
+ * Selects tours with a probability that decreases linearly with their rank in the population.
+ *
+ * The best tour is selected about twice as often as the median tour and the worst tour almost never,
+ * regardless of the differences between the distances.
+ */
+public class RankSelection implements Selection {
+
+	@Override
+	public int select(int populationSize, Random random) {
+		// inverse of the cumulative distribution of the density 2 (1 - x) on [0, 1]
+		int position = (int) (populationSize * (1 - Math.sqrt(random.nextDouble())));
+		return Math.min(position, populationSize - 1);
+	}
+}
@@ -1,11 +1,10 @@
 package ch.obermuhlner.salesman.strategies;
 
-import java.util.List;
-
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
 import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
 import ch.obermuhlner.salesman.util.ThreadUtil;
 
 /**
@@ -34,35 +33,42 @@ public class RepeatSalesman implements Salesman {
 	}
 
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
+	public Tour bestTour(Problem problem) {
+		return bestTour(problem, new SolveProgress());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The underlying {@link Salesman} is called with the same {@link SolveProgress}, so all calls share the budget.
+	 * The underlying {@link Salesman} is called at least once, even if the budget is already exhausted.
+	 */
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
 		double bestDistance = Double.MAX_VALUE;
-		List<City> bestPath = null;
+		Tour bestTour = null;
 
-		for (int i = 0; i < repeatCount; i++) {
-			List<City> path = underlying.bestPath(cities, distanceCalulator);
-			double distance = distanceCalulator.distance(path);
+		for (int i = 0; i < repeatCount && (bestTour == null || !progress.isExhausted()); i++) {
+			Tour tour = underlying.bestTour(problem, progress);
+			double distance = tour.getDistance();
 			
 			if (distance < bestDistance) {
-				if (listener != null) {
-					listener.discardedSolution(path);
-				}
-				
 				bestDistance = distance;
-				bestPath = path;
+				bestTour = tour;
 				
 				if (listener != null) {
-					listener.improvedSolution(path);
+					listener.improvedSolution(tour);
 				}
 			} else {
 				if (listener != null) {
-					listener.discardedSolution(path);
+					listener.discardedSolution(tour);
 				}
 			}
 			
 			ThreadUtil.checkThreadInterrupted();
 		}
 		
-		return bestPath;
+		return bestTour;
 	}
 
 }
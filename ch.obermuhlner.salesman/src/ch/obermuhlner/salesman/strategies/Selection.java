@@ -0,0 +1,24 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Random;
+
+/**
+ * Selects the parents of the {@link Crossover} of a {@link GeneticSalesman}.
+ *
+ * The population is sorted by distance, so a selection only chooses a position, the shortest tour has position 0.
+ * Implementations must be thread-safe.
+ *
+ * @see TournamentSelection
+ * @see RankSelection
+ */
+public interface Selection {
+
+	/**
+	 * Selects a parent.
+	 *
+	 * @param populationSize the size of the population
+	 * @param random the {@link Random} of the calling thread
+	 * @return the position of the selected parent in the sorted population
+	 */
+	int select(int populationSize, Random random);
+}
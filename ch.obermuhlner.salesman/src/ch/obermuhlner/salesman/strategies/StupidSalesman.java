@@ -1,11 +1,8 @@
 package ch.obermuhlner.salesman.strategies;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import ch.obermuhlner.salesman.distance.DistanceCalculator;
-import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.Tour;
 
 /**
  * Stupid implementation of {@link Salesman} that simply returns the input in the original order. 
@@ -13,8 +10,8 @@ import ch.obermuhlner.salesman.model.Salesman;
 public class StupidSalesman implements Salesman {
 
 	@Override
-	public List<City> bestPath(List<City> cities, DistanceCalculator distanceCalulator) {
-		return new ArrayList<>(cities);
+	public Tour bestTour(Problem problem) {
+		return problem.createTour();
 	}
 
 }
@@ -0,0 +1,157 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Arrays;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Mutation of a parent {@link Tour} by swapping pairs of cities.
+ *
+ * The distance of the child is derived from the distance of the parent and the edges changed by every swap,
+ * so it can be evaluated in O(1) per swap before the child {@link Tour} is actually created.
+ * The same is done for the fingerprint of the child (see {@link Tour#getFingerprint()}),
+ * so duplicate children can be detected without creating them.
+ *
+ * Instances are reused for many children and are not thread-safe.
+ */
+class SwapMutation {
+
+	private final Problem problem;
+
+	private int[] positions1 = new int[4];
+	private int[] positions2 = new int[4];
+	private int swapCount;
+
+	private final int[] edges = new int[4];
+
+	private Tour parent;
+	private double distance;
+	private long fingerprint;
+
+	public SwapMutation(Problem problem) {
+		this.problem = problem;
+	}
+
+	/**
+	 * Starts a new mutation of the specified parent.
+	 *
+	 * @param parent the parent {@link Tour}
+	 */
+	public void reset(Tour parent) {
+		this.parent = parent;
+		this.distance = parent.getDistance();
+		this.fingerprint = parent.getFingerprint();
+		this.swapCount = 0;
+	}
+
+	/**
+	 * Swaps the cities at the specified positions and updates the distance and the fingerprint of the child.
+	 *
+	 * @param position1 the first position
+	 * @param position2 the second position
+	 */
+	public void swap(int position1, int position2) {
+		if (position1 == position2) {
+			return;
+		}
+
+		int n = parent.size();
+		int edgeCount = 0;
+		edgeCount = addEdge(edgeCount, (position1 + n - 1) % n);
+		edgeCount = addEdge(edgeCount, position1);
+		edgeCount = addEdge(edgeCount, (position2 + n - 1) % n);
+		edgeCount = addEdge(edgeCount, position2);
+
+		double delta = -toggleEdges(edgeCount);
+		addSwap(position1, position2);
+		delta += toggleEdges(edgeCount);
+
+		distance += delta;
+	}
+
+	/**
+	 * Returns the total distance of the child with all swaps applied.
+	 *
+	 * @return the total distance of the child
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the fingerprint of the child with all swaps applied.
+	 *
+	 * @return the fingerprint of the child
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Creates the child {@link Tour} with all swaps applied.
+	 *
+	 * @return the created child {@link Tour}
+	 */
+	public Tour createChild() {
+		int[] child = parent.toArray();
+		for (int i = 0; i < swapCount; i++) {
+			int tmp = child[positions1[i]];
+			child[positions1[i]] = child[positions2[i]];
+			child[positions2[i]] = tmp;
+		}
+		return new Tour(problem, child, distance, fingerprint);
+	}
+
+	private int addEdge(int edgeCount, int position) {
+		for (int i = 0; i < edgeCount; i++) {
+			if (edges[i] == position) {
+				return edgeCount;
+			}
+		}
+		edges[edgeCount] = position;
+		return edgeCount + 1;
+	}
+
+	/**
+	 * Returns the total distance of the edges starting at the collected positions
+	 * and toggles the edges in the fingerprint, which removes the current edges or adds the new edges.
+	 */
+	private double toggleEdges(int edgeCount) {
+		int n = parent.size();
+		double total = 0;
+		for (int i = 0; i < edgeCount; i++) {
+			int position = edges[i];
+			int city1 = cityIndex(position);
+			int city2 = cityIndex((position + 1) % n);
+			total += problem.distance(city1, city2);
+			fingerprint ^= Tour.edgeFingerprint(city1, city2);
+		}
+		return total;
+	}
+
+	private void addSwap(int position1, int position2) {
+		if (swapCount == positions1.length) {
+			positions1 = Arrays.copyOf(positions1, swapCount * 2);
+			positions2 = Arrays.copyOf(positions2, swapCount * 2);
+		}
+		positions1[swapCount] = position1;
+		positions2[swapCount] = position2;
+		swapCount++;
+	}
+
+	/**
+	 * Returns the index of the city at the specified position of the child
+	 * by following the swaps backwards to the position in the parent.
+	 */
+	private int cityIndex(int position) {
+		for (int i = swapCount - 1; i >= 0; i--) {
+			if (position == positions1[i]) {
+				position = positions2[i];
+			} else if (position == positions2[i]) {
+				position = positions1[i];
+			}
+		}
+		return parent.getCityIndex(position);
+	}
+}
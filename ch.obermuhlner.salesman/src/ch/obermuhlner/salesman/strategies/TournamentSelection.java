@@ -0,0 +1,34 @@
+package ch.obermuhlner.salesman.strategies;
+
+import java.util.Random;
+
+/**
+ * Selects the best of a number of randomly chosen tours.
+ *
+ * Larger tournaments select better tours more often, a tournament size of 1 selects uniformly.
+ */
+public class TournamentSelection implements Selection {
+
+	private final int tournamentSize;
+
+	/**
+	 * Creates a tournament selection.
+	 *
+	 * @param tournamentSize the number of tours that compete in every tournament
+	 */
+	public TournamentSelection(int tournamentSize) {
+		if (tournamentSize < 1) {
+			throw new IllegalArgumentException("Tournament size must be positive: " + tournamentSize);
+		}
+		this.tournamentSize = tournamentSize;
+	}
+
+	@Override
+	public int select(int populationSize, Random random) {
+		int best = random.nextInt(populationSize);
+		for (int i = 1; i < tournamentSize; i++) {
+			best = Math.min(best, random.nextInt(populationSize));
+		}
+		return best;
+	}
+}
@@ -0,0 +1,100 @@
+package ch.obermuhlner.salesman.strategies;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Salesman;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Improves the tour of an initial {@link Salesman} with 2-opt and Or-opt moves until it is a local optimum.
+ *
+ * Only moves to the nearest neighbors of a city are considered and cities are only searched again after their edges have changed,
+ * so the search scales to many thousand cities.
+ */
+public class TwoOptSalesman implements Salesman {
+
+	private Salesman initialSalesman = new NearestSalesman();
+
+	private SalesmanListener listener;
+
+	private int neighborCount = 10;
+	private boolean orOpt = true;
+
+	public void setInitialSalesman(Salesman initialSalesman) {
+		this.initialSalesman = initialSalesman;
+	}
+
+	/**
+	 * Sets the number of nearest neighbors of every city that are considered as candidates for a move.
+	 *
+	 * @param neighborCount the number of nearest neighbors
+	 */
+	public void setNeighborCount(int neighborCount) {
+		this.neighborCount = neighborCount;
+	}
+
+	/**
+	 * Sets whether Or-opt moves (moving segments of 1 to 3 cities) are used in addition to 2-opt moves.
+	 *
+	 * @param orOpt <code>true</code> to use Or-opt moves
+	 */
+	public void setOrOpt(boolean orOpt) {
+		this.orOpt = orOpt;
+	}
+
+	public void setListener(SalesmanListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public Tour bestTour(Problem problem) {
+		return improve(initialSalesman.bestTour(problem));
+	}
+
+	@Override
+	public Tour bestTour(Problem problem, SolveProgress progress) {
+		return improve(initialSalesman.bestTour(problem, progress), progress);
+	}
+
+	/**
+	 * Improves the specified {@link Tour} until it is a local optimum.
+	 *
+	 * @param tour the {@link Tour} to improve
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour tour) {
+		return improve(tour, null);
+	}
+
+	/**
+	 * Improves the specified {@link Tour} until it is a local optimum or the budget of the {@link SolveProgress} is exhausted.
+	 *
+	 * @param tour the {@link Tour} to improve
+	 * @param progress the {@link SolveProgress}, or <code>null</code> for an unlimited budget
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour tour, SolveProgress progress) {
+		Problem problem = tour.getProblem();
+		if (problem.size() < 4) {
+			if (progress != null) {
+				progress.improvedSolution(tour);
+			}
+			return tour;
+		}
+
+		TwoOptSearch search = new TwoOptSearch(problem, problem.getNeighborLists(neighborCount));
+		search.setOrOpt(orOpt);
+		search.setListener(listener);
+		search.setProgress(progress);
+		Tour result = search.improve(tour);
+
+		if (listener != null) {
+			listener.improvedSolution(result);
+		}
+		if (progress != null) {
+			progress.improvedSolution(result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,395 @@
+package ch.obermuhlner.salesman.strategies;
+
+import ch.obermuhlner.salesman.model.NeighborLists;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.ThreadUtil;
+
+/**
+ * Local search that improves a tour with 2-opt and Or-opt moves until no improving move is left.
+ *
+ * Only moves that connect a city with one of its nearest neighbors are considered.
+ * A city is only searched again after one of its edges has changed (don't look bits).
+ *
+ * The tour is stored as array of cities with the inverse array of positions,
+ * a 2-opt move reverses the shorter of the two sides of the tour.
+ * The distances are assumed to be symmetric.
+ *
+ * Instances can be reused for many tours of the same problem but are not thread-safe.
+ */
+class TwoOptSearch {
+
+	private static final double EPSILON = 1e-9;
+
+	private static final int MAX_OR_OPT_SEGMENT_LENGTH = 3;
+
+	private final Problem problem;
+	private final NeighborLists neighborLists;
+	private final int n;
+
+	private final int[] tour;
+	private final int[] positions;
+
+	private final int[] queue;
+	private final boolean[] queued;
+	private int queueStart;
+	private int queueSize;
+
+	private boolean orOpt = true;
+	private boolean singlePass = false;
+	private SalesmanListener listener;
+	private int reportInterval;
+	private SolveProgress progress;
+
+	private double distance;
+	private int moveCount;
+
+	public TwoOptSearch(Problem problem, NeighborLists neighborLists) {
+		this.problem = problem;
+		this.neighborLists = neighborLists;
+		this.n = problem.size();
+
+		tour = new int[n];
+		positions = new int[n];
+		queue = new int[n];
+		queued = new boolean[n];
+		reportInterval = Math.max(1, n / 10);
+	}
+
+	public void setOrOpt(boolean orOpt) {
+		this.orOpt = orOpt;
+	}
+
+	/**
+	 * Sets whether every city of the initial queue is searched only once.
+	 *
+	 * A single pass applies the first improving move of every city, but does not search the cities again whose edges were changed by a move,
+	 * so the result is usually not a local optimum.
+	 *
+	 * @param singlePass <code>true</code> to search every city only once
+	 */
+	public void setSinglePass(boolean singlePass) {
+		this.singlePass = singlePass;
+	}
+
+	public void setListener(SalesmanListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the {@link SolveProgress} that receives the evaluations and stops the search when its budget is exhausted.
+	 *
+	 * Every city that is searched for an improving move counts as evaluation.
+	 *
+	 * @param progress the {@link SolveProgress}, or <code>null</code> to search until no improving move is left
+	 */
+	public void setProgress(SolveProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Improves the specified {@link Tour} until no improving move is left or the budget of the {@link SolveProgress} is exhausted.
+	 *
+	 * @param start the {@link Tour} to start with
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour start) {
+		return improve(start, null);
+	}
+
+	/**
+	 * Improves the specified {@link Tour}, which differs only in a few edges from a reference {@link Tour} that is already a local optimum.
+	 *
+	 * Only the cities whose edges differ from the reference are searched initially,
+	 * so the search costs only as much as the number of changed edges and the resulting moves, not as much as the size of the tour.
+	 *
+	 * @param start the {@link Tour} to start with
+	 * @param reference the local optimum the start tour was derived from, or <code>null</code> to search all cities
+	 * @return the improved {@link Tour}
+	 */
+	public Tour improve(Tour start, Tour reference) {
+		if (reference != null) {
+			// use the tour arrays to find the cities whose neighbors in the start tour differ from the reference
+			for (int i = 0; i < n; i++) {
+				int city = reference.getCityIndex(i);
+				tour[i] = city;
+				positions[city] = i;
+			}
+		}
+
+		queueStart = 0;
+		queueSize = 0;
+		for (int i = 0; i < n; i++) {
+			queued[i] = false;
+		}
+		for (int i = 0; i < n; i++) {
+			int city = start.getCityIndex(i);
+			if (reference == null || !isReferenceEdge(city, start.getCityIndex(i + 1 == n ? 0 : i + 1))) {
+				push(city);
+				push(start.getCityIndex(i + 1 == n ? 0 : i + 1));
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			int city = start.getCityIndex(i);
+			tour[i] = city;
+			positions[city] = i;
+		}
+		distance = start.getDistance();
+		moveCount = 0;
+
+		int passLength = queueSize;
+		int iteration = 0;
+		while (queueSize > 0 && !(singlePass && iteration >= passLength)) {
+			int city = poll();
+			if (improveCity(city)) {
+				moveCount++;
+				if (listener != null && moveCount % reportInterval == 0) {
+					listener.improvedSolution(createTour());
+				}
+			}
+
+			if (++iteration % 256 == 0) {
+				ThreadUtil.checkThreadInterrupted();
+				if (progress != null) {
+					progress.addEvaluations(256);
+					progress.improvedDistance(distance);
+					if (progress.isExhausted()) {
+						break;
+					}
+				}
+			}
+		}
+
+		if (progress != null) {
+			progress.addEvaluations(iteration % 256);
+			progress.improvedDistance(distance);
+		}
+		return createTour();
+	}
+
+	/**
+	 * Returns the number of improving moves of the last call to {@link #improve(Tour)}.
+	 *
+	 * @return the number of improving moves
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	private boolean isReferenceEdge(int city1, int city2) {
+		return next(city1) == city2 || previous(city1) == city2;
+	}
+
+	private Tour createTour() {
+		return new Tour(problem, tour.clone(), distance);
+	}
+
+	private boolean improveCity(int city) {
+		return improveTwoOpt(city) || (orOpt && improveOrOpt(city));
+	}
+
+	private boolean improveTwoOpt(int a) {
+		for (int direction = 0; direction < 2; direction++) {
+			int b = direction == 0 ? next(a) : previous(a);
+			double distanceAB = distance(a, b);
+
+			for (int rank = 0; rank < neighborLists.getNeighborCount(); rank++) {
+				int c = neighborLists.getNeighbor(a, rank);
+				double gainAC = distanceAB - distance(a, c);
+				if (gainAC <= EPSILON) {
+					break;
+				}
+
+				int d = direction == 0 ? next(c) : previous(c);
+				if (c == b || d == a) {
+					continue;
+				}
+
+				double gain = gainAC + distance(c, d) - distance(b, d);
+				if (gain > EPSILON) {
+					move2Opt(a, b, c, d);
+					distance -= gain;
+					push(a);
+					push(b);
+					push(c);
+					push(d);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean improveOrOpt(int a) {
+		for (int length = 1; length <= MAX_OR_OPT_SEGMENT_LENGTH && length + 4 <= n; length++) {
+			for (int side = 0; side < 2; side++) {
+				int segmentStart = a;
+				int segmentEnd = a;
+				for (int i = 1; i < length; i++) {
+					if (side == 0) {
+						segmentEnd = next(segmentEnd);
+					} else {
+						segmentStart = previous(segmentStart);
+					}
+				}
+
+				if (improveOrOpt(segmentStart, segmentEnd, length)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean improveOrOpt(int segmentStart, int segmentEnd, int length) {
+		int p = previous(segmentStart);
+		int q = next(segmentEnd);
+		double removeGain = distance(p, segmentStart) + distance(segmentEnd, q) - distance(p, q);
+		if (removeGain <= EPSILON) {
+			return false;
+		}
+
+		for (int endpoint = 0; endpoint < 2; endpoint++) {
+			int segmentCity = endpoint == 0 ? segmentStart : segmentEnd;
+			for (int rank = 0; rank < neighborLists.getNeighborCount(); rank++) {
+				int x = neighborLists.getNeighbor(segmentCity, rank);
+				if (distance(segmentCity, x) >= removeGain) {
+					break;
+				}
+				if (isInSegment(x, segmentStart, length)) {
+					continue;
+				}
+
+				for (int edge = 0; edge < 2; edge++) {
+					int u = edge == 0 ? x : previous(x);
+					int v = edge == 0 ? next(x) : x;
+					if (v == p || isInSegment(u, segmentStart, length) || isInSegment(v, segmentStart, length)) {
+						continue;
+					}
+
+					double distanceUV = distance(u, v);
+					double forwardCost = distance(u, segmentStart) + distance(segmentEnd, v) - distanceUV;
+					double reversedCost = distance(u, segmentEnd) + distance(segmentStart, v) - distanceUV;
+					boolean reversed = reversedCost < forwardCost;
+					double gain = removeGain - (reversed ? reversedCost : forwardCost);
+					if (gain > EPSILON) {
+						moveOrOpt(segmentStart, segmentEnd, p, q, u, v, reversed);
+						distance -= gain;
+						push(p);
+						push(q);
+						push(segmentStart);
+						push(segmentEnd);
+						push(u);
+						push(v);
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the segment between p and q into the edge (u, v), expressed as a sequence of 2-opt moves.
+	 */
+	private void moveOrOpt(int segmentStart, int segmentEnd, int p, int q, int u, int v, boolean reversed) {
+		// p s1..s2 q ... u v  ->  p u ... q s2..s1 v
+		move2Opt(p, segmentStart, u, v);
+		if (u != q) {
+			// p u ... q s2..s1 v  ->  p q ... u s2..s1 v
+			move2Opt(p, u, q, segmentEnd);
+		}
+		if (!reversed) {
+			// u s2..s1 v  ->  u s1..s2 v
+			move2Opt(u, segmentEnd, segmentStart, v);
+		}
+	}
+
+	/**
+	 * Replaces the edges (x1, x2) and (y1, y2) with the edges (x1, y1) and (x2, y2).
+	 *
+	 * Both edges must point in the same direction of the tour.
+	 */
+	private void move2Opt(int x1, int x2, int y1, int y2) {
+		if (next(x1) == x2) {
+			reverse(positions[x2], positions[y1]);
+		} else {
+			reverse(positions[y1], positions[x2]);
+		}
+	}
+
+	/**
+	 * Reverses the cities between the specified positions (inclusive) in the direction of the tour.
+	 *
+	 * If the segment is longer than half of the tour, the rest of the tour is reversed instead, which results in the same cycle.
+	 */
+	private void reverse(int from, int to) {
+		int length = to - from;
+		if (length < 0) {
+			length += n;
+		}
+		length += 1;
+
+		if (length * 2 > n) {
+			int newFrom = to + 1 == n ? 0 : to + 1;
+			int newTo = from == 0 ? n - 1 : from - 1;
+			from = newFrom;
+			to = newTo;
+			length = n - length;
+		}
+
+		for (int i = 0; i < length / 2; i++) {
+			int city1 = tour[from];
+			int city2 = tour[to];
+			tour[from] = city2;
+			positions[city2] = from;
+			tour[to] = city1;
+			positions[city1] = to;
+
+			from = from + 1 == n ? 0 : from + 1;
+			to = to == 0 ? n - 1 : to - 1;
+		}
+	}
+
+	private boolean isInSegment(int city, int segmentStart, int length) {
+		int offset = positions[city] - positions[segmentStart];
+		if (offset < 0) {
+			offset += n;
+		}
+		return offset < length;
+	}
+
+	private int next(int city) {
+		int position = positions[city] + 1;
+		return tour[position == n ? 0 : position];
+	}
+
+	private int previous(int city) {
+		int position = positions[city];
+		return tour[position == 0 ? n - 1 : position - 1];
+	}
+
+	private double distance(int city1, int city2) {
+		return problem.distance(city1, city2);
+	}
+
+	private void push(int city) {
+		if (!queued[city]) {
+			queued[city] = true;
+			int index = queueStart + queueSize;
+			queue[index >= n ? index - n : index] = city;
+			queueSize++;
+		}
+	}
+
+	private int poll() {
+		int city = queue[queueStart];
+		queueStart = queueStart + 1 == n ? 0 : queueStart + 1;
+		queueSize--;
+		queued[city] = false;
+		return city;
+	}
+}
@@ -0,0 +1,41 @@
+package ch.obermuhlner.salesman.tsplib;
+
+import ch.obermuhlner.salesman.distance.CeilingEuclideanDistanceCalculator;
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.distance.GeographicalDistanceCalculator;
+import ch.obermuhlner.salesman.distance.PseudoEuclideanDistanceCalculator;
+import ch.obermuhlner.salesman.distance.RoundedEuclideanDistanceCalculator;
+
+/**
+ * The supported edge weight types of TSPLIB.
+ */
+public enum EdgeWeightType {
+	EUC_2D,
+	CEIL_2D,
+	GEO,
+	ATT,
+	EXPLICIT;
+
+	/**
+	 * Creates the {@link DistanceCalculator} that calculates the distances of this edge weight type from the coordinates of the cities.
+	 *
+	 * @return the created {@link DistanceCalculator}
+	 * @throws UnsupportedOperationException for {@link #EXPLICIT}, whose distances are not calculated from coordinates
+	 */
+	public DistanceCalculator createDistanceCalculator() {
+		switch (this) {
+		case EUC_2D:
+			return new RoundedEuclideanDistanceCalculator();
+		case CEIL_2D:
+			return new CeilingEuclideanDistanceCalculator();
+		case GEO:
+			return new GeographicalDistanceCalculator();
+		case ATT:
+			return new PseudoEuclideanDistanceCalculator();
+		case EXPLICIT:
+			break;
+		}
+
+		throw new UnsupportedOperationException("Distances of edge weight type " + this + " are not calculated from coordinates");
+	}
+}
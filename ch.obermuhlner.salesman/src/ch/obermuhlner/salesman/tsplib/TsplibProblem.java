@@ -0,0 +1,69 @@
+package ch.obermuhlner.salesman.tsplib;
+
+import java.util.Collections;
+import java.util.List;
+
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
+
+/**
+ * Symmetric traveling salesman problem instance in the TSPLIB format.
+ *
+ * The cities are named by their node number in the file (starting with 1), their index in the list is the node number - 1.
+ * The coordinates are stored unchanged in the x and y coordinates of the cities (see the {@link DistanceCalculator} of the {@link EdgeWeightType}).
+ */
+public class TsplibProblem {
+
+	private final String name;
+	private final String comment;
+	private final EdgeWeightType edgeWeightType;
+	private final List<City> cities;
+	private final DistanceCalculator distanceCalculator;
+
+	/**
+	 * Constructs a {@link TsplibProblem}.
+	 *
+	 * @param name the name of the problem
+	 * @param comment the comment, or <code>null</code> if there is none
+	 * @param edgeWeightType the {@link EdgeWeightType}
+	 * @param cities the cities
+	 * @param distanceCalculator the {@link DistanceCalculator} that calculates the distances between the cities
+	 */
+	public TsplibProblem(String name, String comment, EdgeWeightType edgeWeightType, List<City> cities, DistanceCalculator distanceCalculator) {
+		this.name = name;
+		this.comment = comment;
+		this.edgeWeightType = edgeWeightType;
+		this.cities = Collections.unmodifiableList(cities);
+		this.distanceCalculator = distanceCalculator;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getComment() {
+		return comment;
+	}
+
+	public EdgeWeightType getEdgeWeightType() {
+		return edgeWeightType;
+	}
+
+	public List<City> getCities() {
+		return cities;
+	}
+
+	public DistanceCalculator getDistanceCalculator() {
+		return distanceCalculator;
+	}
+
+	/**
+	 * Creates a {@link Problem} with the cities of this instance in the same order.
+	 *
+	 * @return the created {@link Problem}
+	 */
+	public Problem createProblem() {
+		return new Problem(cities, distanceCalculator);
+	}
+}
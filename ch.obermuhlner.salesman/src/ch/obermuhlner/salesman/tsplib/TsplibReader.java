@@ -0,0 +1,381 @@
+package ch.obermuhlner.salesman.tsplib;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ch.obermuhlner.salesman.distance.DistanceMatrix;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Reads symmetric traveling salesman problems (<code>.tsp</code>) and tours (<code>.tour</code>) in the TSPLIB format.
+ *
+ * The files are read line by line, only the coordinates or distances of the problem are kept in memory.
+ * Supported are the edge weight types of {@link EdgeWeightType}, explicit distances in all matrix formats of TSPLIB
+ * and the display coordinates of problems with explicit distances.
+ *
+ * @see <a href="http://comopt.ifi.uni-heidelberg.de/software/TSPLIB95/tsp95.pdf">TSPLIB 95</a>
+ */
+public class TsplibReader implements Closeable {
+
+	private final BufferedReader reader;
+
+	private String[] tokens = new String[0];
+	private int tokenIndex;
+	private int lineNumber;
+
+	private String name;
+	private String comment;
+	private String type;
+	private int dimension = -1;
+	private EdgeWeightType edgeWeightType;
+	private String edgeWeightFormat = "FULL_MATRIX";
+	private double[] x;
+	private double[] y;
+	private double[] distances;
+	private int[] tour;
+
+	private TsplibReader(String filename) {
+		try {
+			reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.ISO_8859_1);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads a TSPLIB problem file.
+	 *
+	 * @param filename the name of the <code>.tsp</code> file
+	 * @return the read {@link TsplibProblem}
+	 * @throws IllegalArgumentException if the file is not a valid symmetric TSPLIB problem with a supported edge weight type
+	 */
+	public static TsplibProblem readProblem(String filename) {
+		try (TsplibReader tsplibReader = new TsplibReader(filename)) {
+			tsplibReader.read();
+			return tsplibReader.createProblem();
+		}
+	}
+
+	/**
+	 * Reads a TSPLIB tour file.
+	 *
+	 * @param filename the name of the <code>.tour</code> file
+	 * @return the indexes of the cities (node number - 1) in the order of the tour
+	 * @throws IllegalArgumentException if the file is not a valid TSPLIB tour
+	 */
+	public static int[] readTour(String filename) {
+		try (TsplibReader tsplibReader = new TsplibReader(filename)) {
+			tsplibReader.read();
+			if (tsplibReader.tour == null) {
+				throw new IllegalArgumentException("Missing TOUR_SECTION in " + filename);
+			}
+			return tsplibReader.tour;
+		}
+	}
+
+	/**
+	 * Reads a TSPLIB tour file for the specified {@link Problem}.
+	 *
+	 * @param filename the name of the <code>.tour</code> file
+	 * @param problem the {@link Problem} with the cities in the order of the node numbers
+	 * @return the read {@link Tour}
+	 * @throws IllegalArgumentException if the file is not a valid TSPLIB tour through all cities of the problem
+	 */
+	public static Tour readTour(String filename, Problem problem) {
+		int[] cityIndexes = readTour(filename);
+		boolean[] visited = new boolean[problem.size()];
+		for (int cityIndex : cityIndexes) {
+			if (cityIndex >= problem.size() || visited[cityIndex]) {
+				throw new IllegalArgumentException("Tour in " + filename + " is not a tour through the " + problem.size() + " cities of the problem");
+			}
+			visited[cityIndex] = true;
+		}
+		if (cityIndexes.length != problem.size()) {
+			throw new IllegalArgumentException("Tour in " + filename + " has " + cityIndexes.length + " cities, but the problem has " + problem.size());
+		}
+		return new Tour(problem, cityIndexes);
+	}
+
+	@Override
+	public void close() {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void read() {
+		String line;
+		while ((line = readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+
+			int colon = line.indexOf(':');
+			String keyword = (colon >= 0 ? line.substring(0, colon) : line).trim();
+			String value = colon >= 0 ? line.substring(colon + 1).trim() : "";
+
+			switch (keyword) {
+			case "NAME":
+				name = value;
+				break;
+			case "COMMENT":
+				comment = comment == null ? value : comment + "\n" + value;
+				break;
+			case "TYPE":
+				type = value;
+				break;
+			case "DIMENSION":
+				dimension = parseInt(value);
+				break;
+			case "EDGE_WEIGHT_TYPE":
+				edgeWeightType = parseEdgeWeightType(value);
+				break;
+			case "EDGE_WEIGHT_FORMAT":
+				edgeWeightFormat = value;
+				break;
+			case "NODE_COORD_TYPE":
+			case "DISPLAY_DATA_TYPE":
+				if (!value.equals("TWOD_COORDS") && !value.equals("TWOD_DISPLAY") && !value.equals("NO_COORDS") && !value.equals("COORD_DISPLAY") && !value.equals("NO_DISPLAY")) {
+					throw invalid("Unsupported " + keyword + ": " + value);
+				}
+				break;
+			case "CAPACITY":
+				break;
+			case "NODE_COORD_SECTION":
+			case "DISPLAY_DATA_SECTION":
+				readCoordinates();
+				break;
+			case "EDGE_WEIGHT_SECTION":
+				readEdgeWeights();
+				break;
+			case "TOUR_SECTION":
+				readTourSection();
+				break;
+			case "EOF":
+				return;
+			default:
+				throw invalid("Unsupported keyword: " + keyword);
+			}
+		}
+	}
+
+	private TsplibProblem createProblem() {
+		if (type != null && !type.equals("TSP")) {
+			throw new IllegalArgumentException("Unsupported problem type: " + type);
+		}
+		if (edgeWeightType == null) {
+			throw new IllegalArgumentException("Missing EDGE_WEIGHT_TYPE");
+		}
+		if (edgeWeightType == EdgeWeightType.EXPLICIT ? distances == null : x == null) {
+			throw new IllegalArgumentException("Missing " + (edgeWeightType == EdgeWeightType.EXPLICIT ? "EDGE_WEIGHT_SECTION" : "NODE_COORD_SECTION"));
+		}
+
+		List<City> cities = new ArrayList<>(dimension);
+		for (int i = 0; i < dimension; i++) {
+			cities.add(new City(String.valueOf(i + 1), x == null ? 0 : x[i], y == null ? 0 : y[i]));
+		}
+
+		if (edgeWeightType == EdgeWeightType.EXPLICIT) {
+			return new TsplibProblem(name, comment, edgeWeightType, cities, DistanceMatrix.explicit(cities, distances));
+		}
+		return new TsplibProblem(name, comment, edgeWeightType, cities, edgeWeightType.createDistanceCalculator());
+	}
+
+	private void readCoordinates() {
+		requireDimension();
+		x = new double[dimension];
+		y = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			int node = parseInt(nextLineToken());
+			if (node < 1 || node > dimension) {
+				throw invalid("Invalid node " + node);
+			}
+			x[node - 1] = parseDouble(nextToken());
+			y[node - 1] = parseDouble(nextToken());
+		}
+	}
+
+	private void readEdgeWeights() {
+		requireDimension();
+		if ((long) dimension * dimension > Integer.MAX_VALUE - 8) {
+			throw invalid("Too many cities for explicit distances: " + dimension);
+		}
+
+		int n = dimension;
+		distances = new double[n * n];
+		switch (edgeWeightFormat) {
+		case "FULL_MATRIX":
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					distances[i * n + j] = parseDouble(nextToken());
+				}
+			}
+			break;
+		case "UPPER_ROW":
+		case "LOWER_COL":
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					setSymmetricDistance(i, j, parseDouble(nextToken()));
+				}
+			}
+			break;
+		case "LOWER_ROW":
+		case "UPPER_COL":
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < i; j++) {
+					setSymmetricDistance(i, j, parseDouble(nextToken()));
+				}
+			}
+			break;
+		case "UPPER_DIAG_ROW":
+		case "LOWER_DIAG_COL":
+			for (int i = 0; i < n; i++) {
+				for (int j = i; j < n; j++) {
+					setSymmetricDistance(i, j, parseDouble(nextToken()));
+				}
+			}
+			break;
+		case "LOWER_DIAG_ROW":
+		case "UPPER_DIAG_COL":
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j <= i; j++) {
+					setSymmetricDistance(i, j, parseDouble(nextToken()));
+				}
+			}
+			break;
+		default:
+			throw invalid("Unsupported EDGE_WEIGHT_FORMAT: " + edgeWeightFormat);
+		}
+		tokenIndex = tokens.length;
+	}
+
+	private void setSymmetricDistance(int i, int j, double distance) {
+		distances[i * dimension + j] = distance;
+		distances[j * dimension + i] = distance;
+	}
+
+	private void readTourSection() {
+		int[] nodes = new int[dimension > 0 ? dimension : 16];
+		int count = 0;
+		while (true) {
+			String token = nextToken();
+			if (token.equals("EOF")) {
+				break;
+			}
+			int node = parseInt(token);
+			if (node == -1) {
+				break;
+			}
+			if (node < 1 || (dimension > 0 && node > dimension)) {
+				throw invalid("Invalid node " + node);
+			}
+			if (count == nodes.length) {
+				nodes = Arrays.copyOf(nodes, count * 2);
+			}
+			nodes[count++] = node - 1;
+		}
+		tokenIndex = tokens.length;
+		tour = count == nodes.length ? nodes : Arrays.copyOf(nodes, count);
+	}
+
+	private void requireDimension() {
+		if (dimension < 0) {
+			throw invalid("Missing DIMENSION before section");
+		}
+	}
+
+	private static EdgeWeightType parseEdgeWeightType(String value) {
+		try {
+			return EdgeWeightType.valueOf(value);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE: " + value);
+		}
+	}
+
+	/**
+	 * Returns the first token of the next non-empty line.
+	 */
+	private String nextLineToken() {
+		tokenIndex = tokens.length;
+		return nextToken();
+	}
+
+	/**
+	 * Returns the next whitespace separated token, continuing on the next lines if necessary.
+	 */
+	private String nextToken() {
+		while (tokenIndex >= tokens.length) {
+			String line = readLine();
+			if (line == null) {
+				throw invalid("Unexpected end of file");
+			}
+			tokens = split(line);
+			tokenIndex = 0;
+		}
+		return tokens[tokenIndex++];
+	}
+
+	private static String[] split(String line) {
+		List<String> result = new ArrayList<>();
+		int length = line.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			int start = i;
+			while (i < length && !Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			if (i > start) {
+				result.add(line.substring(start, i));
+			}
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	private String readLine() {
+		try {
+			String line = reader.readLine();
+			if (line != null) {
+				lineNumber++;
+			}
+			return line;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private int parseInt(String value) {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw invalid("Invalid integer: " + value);
+		}
+	}
+
+	private double parseDouble(String value) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw invalid("Invalid number: " + value);
+		}
+	}
+
+	private IllegalArgumentException invalid(String message) {
+		return new IllegalArgumentException(message + " in line " + lineNumber);
+	}
+}
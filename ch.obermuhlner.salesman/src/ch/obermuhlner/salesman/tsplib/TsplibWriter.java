@@ -0,0 +1,121 @@
+package ch.obermuhlner.salesman.tsplib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Tour;
+
+/**
+ * Writes symmetric traveling salesman problems (<code>.tsp</code>) and tours (<code>.tour</code>) in the TSPLIB format.
+ *
+ * Problems with {@link EdgeWeightType#EXPLICIT} distances are written as <code>FULL_MATRIX</code>
+ * together with the coordinates of the cities as display data.
+ *
+ * @see TsplibReader
+ */
+public class TsplibWriter {
+
+	/**
+	 * Writes a TSPLIB problem file.
+	 *
+	 * @param filename the name of the <code>.tsp</code> file
+	 * @param problem the {@link TsplibProblem} to write
+	 */
+	public static void writeProblem(String filename, TsplibProblem problem) {
+		List<City> cities = problem.getCities();
+		boolean explicit = problem.getEdgeWeightType() == EdgeWeightType.EXPLICIT;
+
+		try (Writer writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.ISO_8859_1)) {
+			writeSpecification(writer, "NAME", problem.getName());
+			if (problem.getComment() != null) {
+				for (String comment : problem.getComment().split("\n")) {
+					writeSpecification(writer, "COMMENT", comment);
+				}
+			}
+			writeSpecification(writer, "TYPE", "TSP");
+			writeSpecification(writer, "DIMENSION", String.valueOf(cities.size()));
+			writeSpecification(writer, "EDGE_WEIGHT_TYPE", problem.getEdgeWeightType().name());
+
+			if (explicit) {
+				writeSpecification(writer, "EDGE_WEIGHT_FORMAT", "FULL_MATRIX");
+				writeSpecification(writer, "DISPLAY_DATA_TYPE", "TWOD_DISPLAY");
+				writer.write("EDGE_WEIGHT_SECTION\n");
+				DistanceCalculator distanceCalculator = problem.getDistanceCalculator();
+				for (City city1 : cities) {
+					StringBuilder line = new StringBuilder();
+					for (City city2 : cities) {
+						if (line.length() > 0) {
+							line.append(' ');
+						}
+						line.append(formatNumber(distanceCalculator.distance(city1, city2)));
+					}
+					writer.write(line.toString());
+					writer.write('\n');
+				}
+				writer.write("DISPLAY_DATA_SECTION\n");
+			} else {
+				writer.write("NODE_COORD_SECTION\n");
+			}
+
+			for (int i = 0; i < cities.size(); i++) {
+				City city = cities.get(i);
+				writer.write((i + 1) + " " + formatNumber(city.x) + " " + formatNumber(city.y) + "\n");
+			}
+			writer.write("EOF\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes a TSPLIB tour file.
+	 *
+	 * The node numbers are the indexes of the cities in the {@link ch.obermuhlner.salesman.model.Problem} + 1.
+	 *
+	 * @param filename the name of the <code>.tour</code> file
+	 * @param name the name of the tour
+	 * @param tour the {@link Tour} to write
+	 */
+	public static void writeTour(String filename, String name, Tour tour) {
+		int[] cityIndexes = tour.toArray();
+
+		try (Writer writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.ISO_8859_1)) {
+			writeSpecification(writer, "NAME", name);
+			writeSpecification(writer, "COMMENT", "Length " + formatNumber(tour.getDistance()));
+			writeSpecification(writer, "TYPE", "TOUR");
+			writeSpecification(writer, "DIMENSION", String.valueOf(cityIndexes.length));
+			writer.write("TOUR_SECTION\n");
+			for (int cityIndex : cityIndexes) {
+				writer.write(String.valueOf(cityIndex + 1));
+				writer.write('\n');
+			}
+			writer.write("-1\nEOF\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeSpecification(Writer writer, String keyword, String value) throws IOException {
+		writer.write(keyword);
+		writer.write(" : ");
+		writer.write(value == null ? "" : value);
+		writer.write('\n');
+	}
+
+	/**
+	 * Formats integral numbers without fraction, so that they can be read by programs expecting integers.
+	 */
+	private static String formatNumber(double value) {
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return String.valueOf((long) value);
+		}
+		return String.valueOf(value);
+	}
+}
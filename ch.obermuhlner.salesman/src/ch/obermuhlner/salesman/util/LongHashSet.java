@@ -0,0 +1,131 @@
+package ch.obermuhlner.salesman.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive <code>long</code> values using open addressing with linear probing.
+ *
+ * Unlike a <code>HashSet&lt;Long&gt;</code> no objects are allocated per value,
+ * memory is only allocated when the table grows.
+ *
+ * The set is not thread-safe, but it may be read concurrently by several threads as long as no thread modifies it.
+ */
+public class LongHashSet {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] table;
+	private int mask;
+	private int size;
+	private boolean containsZero;
+
+	/**
+	 * Creates an empty set.
+	 */
+	public LongHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty set that can hold the specified number of values without growing.
+	 *
+	 * @param expectedSize the expected number of values
+	 */
+	public LongHashSet(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity *= 2;
+		}
+		table = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds the specified value.
+	 *
+	 * @param value the value to add
+	 * @return <code>true</code> if the value was added, <code>false</code> if it was already in the set
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+
+		int index = index(value);
+		while (table[index] != 0) {
+			if (table[index] == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		table[index] = value;
+		size++;
+
+		if (size * 2 > table.length) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the specified value is in the set.
+	 *
+	 * @param value the value
+	 * @return <code>true</code> if the value is in the set
+	 */
+	public boolean contains(long value) {
+		if (value == 0) {
+			return containsZero;
+		}
+
+		int index = index(value);
+		while (table[index] != 0) {
+			if (table[index] == value) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all values, keeping the allocated table.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		size = 0;
+		containsZero = false;
+	}
+
+	private void grow() {
+		long[] oldTable = table;
+		table = new long[oldTable.length * 2];
+		mask = table.length - 1;
+		for (long value : oldTable) {
+			if (value != 0) {
+				int index = index(value);
+				while (table[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				table[index] = value;
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of the value, so that also values that differ only in their high bits are distributed over the table.
+	 */
+	private int index(long value) {
+		long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
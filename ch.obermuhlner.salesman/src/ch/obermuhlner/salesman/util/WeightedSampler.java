@@ -0,0 +1,169 @@
+package ch.obermuhlner.salesman.util;
+
+import java.util.Random;
+
+/**
+ * Samples indexes with probabilities proportional to their weights, optionally without replacement.
+ *
+ * The weights are stored in a Fenwick tree (binary indexed tree),
+ * so sampling an index and removing it from further sampling are both O(log n).
+ * A sampler is built once in O(n) and can sample several times from the same weights,
+ * either on a copy or by adding the weights of the removed indexes back with {@link #add(int, long)}.
+ *
+ * Instances are not thread-safe.
+ */
+public class WeightedSampler {
+
+	private final long[] tree;
+	private final long[] weights;
+	private final int highestBit;
+	private long totalWeight;
+
+	/**
+	 * Constructs a {@link WeightedSampler} with the specified weights.
+	 *
+	 * @param weights the weights of the indexes, must not be negative
+	 * @throws IllegalArgumentException if a weight is negative
+	 */
+	public WeightedSampler(long[] weights) {
+		int n = weights.length;
+		this.weights = weights.clone();
+		this.tree = new long[n + 1];
+		this.highestBit = n == 0 ? 0 : Integer.highestOneBit(n);
+
+		for (int i = 0; i < n; i++) {
+			if (weights[i] < 0) {
+				throw new IllegalArgumentException("Negative weight " + weights[i] + " at index " + i);
+			}
+			totalWeight += weights[i];
+			int node = i + 1;
+			tree[node] += weights[i];
+			int parent = node + (node & -node);
+			if (parent <= n) {
+				tree[parent] += tree[node];
+			}
+		}
+	}
+
+	private WeightedSampler(WeightedSampler other) {
+		this.tree = other.tree.clone();
+		this.weights = other.weights.clone();
+		this.highestBit = other.highestBit;
+		this.totalWeight = other.totalWeight;
+	}
+
+	/**
+	 * Returns an independent copy of this sampler with the current weights.
+	 *
+	 * @return the copy
+	 */
+	public WeightedSampler copy() {
+		return new WeightedSampler(this);
+	}
+
+	public int size() {
+		return weights.length;
+	}
+
+	public long getWeight(int index) {
+		return weights[index];
+	}
+
+	public long getTotalWeight() {
+		return totalWeight;
+	}
+
+	/**
+	 * Samples a random index with a probability proportional to its weight.
+	 *
+	 * @param random the random number generator
+	 * @return the sampled index
+	 * @throws IllegalStateException if the total weight is 0
+	 */
+	public int sample(Random random) {
+		if (totalWeight <= 0) {
+			throw new IllegalStateException("Cannot sample without weights");
+		}
+		return find(nextLong(random, totalWeight));
+	}
+
+	/**
+	 * Samples a random index with a probability proportional to its weight and removes it from further sampling.
+	 *
+	 * @param random the random number generator
+	 * @return the sampled index
+	 * @throws IllegalStateException if the total weight is 0
+	 */
+	public int sampleAndRemove(Random random) {
+		int index = sample(random);
+		remove(index);
+		return index;
+	}
+
+	/**
+	 * Removes the specified index from further sampling by setting its weight to 0.
+	 *
+	 * @param index the index to remove
+	 */
+	public void remove(int index) {
+		long weight = weights[index];
+		if (weight == 0) {
+			return;
+		}
+		weights[index] = 0;
+		totalWeight -= weight;
+		for (int node = index + 1; node < tree.length; node += node & -node) {
+			tree[node] -= weight;
+		}
+	}
+
+	/**
+	 * Adds the specified weight to an index, for example to restore the weight of a removed index.
+	 *
+	 * @param index the index
+	 * @param weight the weight to add, must not be negative
+	 * @throws IllegalArgumentException if the weight is negative
+	 */
+	public void add(int index, long weight) {
+		if (weight < 0) {
+			throw new IllegalArgumentException("Negative weight " + weight + " at index " + index);
+		}
+		weights[index] += weight;
+		totalWeight += weight;
+		for (int node = index + 1; node < tree.length; node += node & -node) {
+			tree[node] += weight;
+		}
+	}
+
+	/**
+	 * Returns the smallest index whose cumulative weight is larger than the specified value.
+	 */
+	private int find(long value) {
+		int node = 0;
+		long remaining = value;
+		for (int bit = highestBit; bit != 0; bit >>>= 1) {
+			int next = node + bit;
+			if (next < tree.length && tree[next] <= remaining) {
+				node = next;
+				remaining -= tree[next];
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Returns a uniformly distributed random value between 0 (inclusive) and the specified bound (exclusive).
+	 */
+	private static long nextLong(Random random, long bound) {
+		if (bound <= Integer.MAX_VALUE) {
+			return random.nextInt((int) bound);
+		}
+		long bits;
+		long value;
+		do {
+			bits = random.nextLong() >>> 1;
+			value = bits % bound;
+		} while (bits - value + (bound - 1) < 0);
+		return value;
+	}
+}
@@ -1,5 +1,6 @@
 package ch.obermuhlner.salesman.viewer;
 
+import java.io.File;
 import java.text.DecimalFormat;
 import java.text.Format;
 import java.util.ArrayList;
@@ -9,24 +10,31 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
 import ch.obermuhlner.salesman.distance.DistanceCalculator;
 import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
 import ch.obermuhlner.salesman.model.CitiesLoader;
+import ch.obermuhlner.salesman.model.CoalescingSalesmanListener;
 import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.MappedCities;
+import ch.obermuhlner.salesman.model.Problem;
 import ch.obermuhlner.salesman.model.Salesman;
 import ch.obermuhlner.salesman.model.SalesmanListener;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.service.SolveFuture;
+import ch.obermuhlner.salesman.service.SolverService;
 import ch.obermuhlner.salesman.strategies.BestSalesman;
 import ch.obermuhlner.salesman.strategies.BruteForceSalesman;
 import ch.obermuhlner.salesman.strategies.GeneticSalesman;
+import ch.obermuhlner.salesman.strategies.HeldKarpSalesman;
+import ch.obermuhlner.salesman.strategies.IslandGeneticSalesman;
+import ch.obermuhlner.salesman.strategies.LinKernighanSalesman;
 import ch.obermuhlner.salesman.strategies.NearestSalesman;
 import ch.obermuhlner.salesman.strategies.RandomSalesman;
 import ch.obermuhlner.salesman.strategies.RepeatSalesman;
+import ch.obermuhlner.salesman.strategies.TwoOptSalesman;
 import ch.obermuhlner.salesman.util.MathUtil;
-import ch.obermuhlner.salesman.util.ThreadInterruptedException;
-import ch.obermuhlner.salesman.util.ThreadUtil;
 import ch.obermuhlner.salesman.viewer.coordinate.CartesianScreenCoordinateCalculator;
 import ch.obermuhlner.salesman.viewer.coordinate.EarthCoordinateCalculator;
 import ch.obermuhlner.salesman.viewer.coordinate.ScreenCoordinateCalculator;
@@ -78,13 +86,15 @@ public class SalesmanViewer extends Application {
 	private static final Color WORST_SOLUTION_COLOR = Color.TRANSPARENT;
 	private static final Color DISCARDED_SOLUTION_COLOR = new Color(0.3, 0.3, 0.3, 1.0);
 	
-	private static final long SLEEP_TIME = 1;
-
 	private enum SalesmanStrategy {
 		Random,
 		Nearest,
+		TwoOpt,
+		LinKernighan,
 		Genetic,
-		Bruteforce
+		IslandGenetic,
+		Bruteforce,
+		HeldKarp
 	}
 
 	private enum MapType {
@@ -101,7 +111,7 @@ public class SalesmanViewer extends Application {
 	private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("##0.000");
 
 	private Salesman salesman;
-	private DistanceCalculator distanceCalculator;
+	private Problem problem;
 	
 	private GraphicsContext mapGc;
 	private GraphicsContext citiesGc;
@@ -135,10 +145,11 @@ public class SalesmanViewer extends Application {
 	private TextArea descriptionTextArea;
 
 	private List<City> cities;
-	private List<List<City>> improvedSolutions;
-	private List<List<City>> discardedSolutions;
+	private List<Tour> improvedSolutions;
+	private CoalescingSalesmanListener salesmanListener;
 	
-	private Thread backgroundThread;
+	private final SolverService solverService = new SolverService();
+	private SolveFuture simulation;
 	
 	@Override
 	public void start(Stage primaryStage) throws Exception {
@@ -182,6 +193,11 @@ public class SalesmanViewer extends Application {
         drawMap(Collections.emptyList(), Collections.emptyList());
         drawCities(cities);
 	}
+
+	@Override
+	public void stop() {
+		solverService.close();
+	}
 	
 	private Node createEditor() {
 		GridPane gridPane = new GridPane();
@@ -251,13 +267,10 @@ public class SalesmanViewer extends Application {
         	
         	startSimulation((best) -> {
         		Platform.runLater(() -> {
-        			setImprovedSolutions(Arrays.asList(best));
-    				Platform.runLater(() -> {
-    					if (!improvedSolutions.isEmpty()) {
-    						currentBestDistanceProperty.set(distanceCalculator.distance(improvedSolutions.get(0)));
-    					}
-    					drawMap(improvedSolutions, Collections.emptyList());
-    				});
+        			updateCurrentStep();
+        			improvedSolutions = Arrays.asList(best);
+        			currentBestDistanceProperty.set(problem.distance(best));
+        			drawMap(improvedSolutions, Collections.emptyList());
         		});
         	});
         });
@@ -309,14 +322,38 @@ public class SalesmanViewer extends Application {
 					+ "\n"
 					+ "Genetic algorithms are not guaranteed to find the optimum solution but can be parametrized to find a good solution in a reasonable time.");
 			break;
+		case IslandGenetic:
+			geneticControls.forEach(node -> node.setDisable(false));
+			stepCountTextField.setDisable(false);
+			descriptionTextArea.setText(
+					"Uses several populations of the genetic algorithm (islands) to solve the traveling salesman problem.\n"
+					+ "\n"
+					+ "Every island evolves its own population on its own processor, with a different mutation rate.\n"
+					+ "From time to time every island sends its best solutions to the next island.\n"
+					+ "\n"
+					+ "The islands keep the solutions diverse, so the algorithm is less likely to get stuck with similar solutions than a single population.");
+			break;
 		case Bruteforce:
 			geneticControls.forEach(node -> node.setDisable(true));
 			stepCountTextField.setDisable(true);
 			descriptionTextArea.setText(
-					"Uses brute force to solve the traveling salesman problem.\n"
+					"Uses brute force with branch and bound to solve the traveling salesman problem.\n"
 					+ "\n"
 					+ "The brute force algorithm is guaranteed to find the optimum solution,"
-					+ "but can take a long time to find it because the number of possible solutions grows very fast with the number of cities.");
+					+ "but can take a long time to find it because the number of possible solutions grows very fast with the number of cities.\n"
+					+ "Partial solutions that cannot become shorter than the best known solution are skipped, so up to about 20 cities can be solved.");
+			break;
+		case HeldKarp:
+			geneticControls.forEach(node -> node.setDisable(true));
+			stepCountTextField.setDisable(true);
+			descriptionTextArea.setText(
+					"Uses the Held-Karp dynamic programming algorithm to solve the traveling salesman problem.\n"
+					+ "\n"
+					+ "For every subset of cities the algorithm remembers the shortest path through the subset ending at each of its cities,\n"
+					+ "calculated from the shortest paths through the subsets with one city less.\n"
+					+ "\n"
+					+ "The Held-Karp algorithm is guaranteed to find the optimum solution,"
+					+ "but time and memory grow exponentially with the number of cities, so it is limited to about 25 cities.");
 			break;
 		case Nearest:
 			geneticControls.forEach(node -> node.setDisable(true));
@@ -326,6 +363,30 @@ public class SalesmanViewer extends Application {
 					+ "\n"
 					+ "Because of its greedy nature the nearest city algorithm is not guaranteed to find the optimum solution but it is very fast.");
 			break;
+		case TwoOpt:
+			geneticControls.forEach(node -> node.setDisable(true));
+			stepCountTextField.setDisable(true);
+			descriptionTextArea.setText(
+					"Starts with the nearest city solution and improves it with local changes until no improvement is left.\n"
+					+ "\n"
+					+ "A 2-opt move removes two connections and reconnects the cities by reversing the path between them.\n"
+					+ "An Or-opt move takes up to three consecutive cities and inserts them at a better place.\n"
+					+ "Only moves to the nearest neighbors of every city are considered, which makes the algorithm fast even for many cities.\n"
+					+ "\n"
+					+ "The 2-opt algorithm is not guaranteed to find the optimum solution but typically finds a solution within 5% of the optimum.");
+			break;
+		case LinKernighan:
+			geneticControls.forEach(node -> node.setDisable(true));
+			stepCountTextField.setDisable(false);
+			descriptionTextArea.setText(
+					"Uses chained Lin-Kernighan to solve the traveling salesman problem.\n"
+					+ "\n"
+					+ "Starting with the nearest city solution the algorithm searches for improving k-opt moves,\n"
+					+ "built as chains of 2-opt moves that are extended as long as the partial gain stays positive.\n"
+					+ "The local optimum is then repeatedly perturbed with a random double bridge kick (step count) and improved again.\n"
+					+ "\n"
+					+ "Lin-Kernighan is not guaranteed to find the optimum solution but typically finds a solution within 2% of the optimum, even for thousands of cities.");
+			break;
 		case Random:
 			geneticControls.forEach(node -> node.setDisable(true));
 			stepCountTextField.setDisable(false);
@@ -386,46 +447,34 @@ public class SalesmanViewer extends Application {
 	}
 
 	private void setupSalesman() {
-		SalesmanListener salesmanListener = new SalesmanListener() {
+		salesmanListener = new CoalescingSalesmanListener(Platform::runLater, new SalesmanListener() {
 			@Override
-			public void improvedSolutions(List<List<City>> improved) {
-				setImprovedSolutions(deepCopy(improved));
-				Platform.runLater(() -> {
-					incrementCurrentStep();
-					if (!improvedSolutions.isEmpty()) {
-						currentBestDistanceProperty.set(distanceCalculator.distance(improvedSolutions.get(0)));
-					}
-					drawMap(improvedSolutions, discardedSolutions);
-				});
-				ThreadUtil.sleep(SLEEP_TIME);
+			public void improvedSolutions(List<Tour> improved) {
+				updateCurrentStep();
+				if (!improved.isEmpty()) {
+					improvedSolutions = improved;
+					currentBestDistanceProperty.set(problem.distance(improved.get(0)));
+				}
+				drawMap(improvedSolutions, null);
 			}
 			
 			@Override
-			public void discardedSolutions(List<List<City>> discarded) {
+			public void discardedSolutions(List<Tour> discarded) {
+				updateCurrentStep();
 				if (showDiscardedSolutionsProperty.get()) {
-					setDiscardedSolutions(deepCopy(discarded));
-					Platform.runLater(() -> {
-						incrementCurrentStep();
-						drawMap(improvedSolutions, discardedSolutions);
-						clearDiscardedSolutions();
-					});
-					ThreadUtil.sleep(SLEEP_TIME);
-				} else {
-					Platform.runLater(() -> {
-						incrementCurrentStep();
-					});
+					drawMap(improvedSolutions, discarded);
 				}
 			}
-		};
+		});
 		
 		SalesmanStrategy salesmanStrategy = salesmanStrategyProperty.get();
 		salesman = createSalesman(salesmanStrategy, salesmanListener);
 		
-		distanceCalculator = createDistanceCalculator(mapTypeProperty.get());
+		problem = new Problem(cities, createDistanceCalculator(mapTypeProperty.get()));
 	}
 
-	private void incrementCurrentStep() {
-		currentStepProperty.set(currentStepProperty.get() + 1);
+	private void updateCurrentStep() {
+		currentStepProperty.set((int) (salesmanListener.getImprovedCount() + salesmanListener.getDiscardedCount()));
 	}
 
 	private DistanceCalculator createDistanceCalculator(MapType mapType) {
@@ -467,6 +516,16 @@ public class SalesmanViewer extends Application {
 				geneticSalesman.setEvolutionStepCount(stepCountProperty.get());
 				return geneticSalesman;
 			}
+			case IslandGenetic: {
+				IslandGeneticSalesman islandGeneticSalesman = new IslandGeneticSalesman();
+				islandGeneticSalesman.setListener(salesmanListener);
+				islandGeneticSalesman.setInitialRandomPopulationCount(geneticInitialRandomPopulationCountProperty.get());
+				int mutationCount = geneticMutationCountProperty.get();
+				islandGeneticSalesman.setMutationCounts(Math.max(1, mutationCount - 1), mutationCount, mutationCount + 1);
+				islandGeneticSalesman.setEvolutionGenerationCount(geneticEvolutionGenerationCountProperty.get());
+				islandGeneticSalesman.setEvolutionStepCount(stepCountProperty.get());
+				return islandGeneticSalesman;
+			}
 			case Random: {
 				RepeatSalesman repeatSalesman = new RepeatSalesman(new RandomSalesman());
 				repeatSalesman.setListener(salesmanListener);
@@ -481,28 +540,34 @@ public class SalesmanViewer extends Application {
 				}
 				return bestSalesman;
 			}
+			case TwoOpt: {
+				TwoOptSalesman twoOptSalesman = new TwoOptSalesman();
+				twoOptSalesman.setListener(salesmanListener);
+				return twoOptSalesman;
+			}
+			case LinKernighan: {
+				LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+				linKernighanSalesman.setListener(salesmanListener);
+				linKernighanSalesman.setKickCount(stepCountProperty.get());
+				return linKernighanSalesman;
+			}
 			case Bruteforce: {
 				BruteForceSalesman bruteForceSalesman = new BruteForceSalesman();
 				bruteForceSalesman.setListener(salesmanListener);
+				bruteForceSalesman.setParallelism(Runtime.getRuntime().availableProcessors());
 				return bruteForceSalesman;
 			}
+			case HeldKarp: {
+				HeldKarpSalesman heldKarpSalesman = new HeldKarpSalesman();
+				heldKarpSalesman.setListener(salesmanListener);
+				heldKarpSalesman.setParallelism(Runtime.getRuntime().availableProcessors());
+				return heldKarpSalesman;
+			}
 		}
 		
 		throw new RuntimeException("Unknown SalesmanStrategy: " + salesmanStrategy);
 	}
 	
-	private synchronized void setImprovedSolutions(List<List<City>> improved) {
-		improvedSolutions = improved;
-	}
-	
-	private synchronized void setDiscardedSolutions(List<List<City>> discarded) {
-		discardedSolutions = discarded;
-	}
-
-	private synchronized void clearDiscardedSolutions() {
-		discardedSolutions = null;
-	}
-	
 	private void generateCities() {
 		int count = cityCountProperty.get();
 		
@@ -514,13 +579,21 @@ public class SalesmanViewer extends Application {
 				cities.add(createCity(mapTypeProperty.get(), random, i));
 			}
 		} else {
-			cities = CitiesLoader.load(mapType.name() + ".csv", new Random(), count);
+			cities = CitiesLoader.load(citiesFilename(mapType), new Random(), count);
 		}
 		
 		drawMap(Collections.emptyList(), Collections.emptyList());
         drawCities(cities);
 	}
 
+	private String citiesFilename(MapType mapType) {
+		String binaryFilename = mapType.name() + MappedCities.FILE_EXTENSION;
+		if (new File(binaryFilename).exists()) {
+			return binaryFilename;
+		}
+		return mapType.name() + ".csv";
+	}
+
 	private City createCity(MapType mapType, Random random, int index) {
 		switch (mapType) {
 		case Cartesian:
@@ -534,34 +607,33 @@ public class SalesmanViewer extends Application {
 		throw new IllegalArgumentException("Unknown MapType: " + mapType);
 	}
 	
-	private synchronized void startSimulation(Consumer<List<City>> finishedCallback) {
+	private synchronized void startSimulation(Consumer<Tour> finishedCallback) {
 		updateSimulationRunning(true);
 		currentStepProperty.set(0);
 		currentBestDistanceProperty.set(0);
 		
-		
-		backgroundThread = new Thread(() -> {
-			try {
-				List<City> bestPath = salesman.bestPath(cities, distanceCalculator);
-				finishedCallback.accept(bestPath);
-			} catch (ThreadInterruptedException exception) {
-				// ignore
-			} finally {
-				backgroundThread = null;
-				updateSimulationRunning(false);
+		SolveFuture currentSimulation = solverService.solve(problem, salesman);
+		simulation = currentSimulation;
+		currentSimulation.whenComplete((bestTour, exception) -> {
+			synchronized (this) {
+				if (simulation == currentSimulation) {
+					simulation = null;
+				}
+			}
+			Platform.runLater(() -> updateSimulationRunning(false));
+			if (bestTour != null) {
+				finishedCallback.accept(bestTour);
 			}
 		});
-		
-		backgroundThread.start();
 	}
 	
 	private synchronized void cancelSimulation() {
-		if (backgroundThread != null) {
-			backgroundThread.interrupt();
+		if (simulation != null) {
+			simulation.cancel(true);
 		}
 	}
 	
-	private synchronized void drawMap(List<List<City>> improved, List<List<City>> discarded) {
+	private synchronized void drawMap(List<Tour> improved, List<Tour> discarded) {
 		mapGc.clearRect(0, 0, mapGc.getCanvas().getWidth(), mapGc.getCanvas().getHeight());
 		
 		if (discarded != null) {
@@ -639,7 +711,7 @@ public class SalesmanViewer extends Application {
 		gc.strokeText(text, x, y);
 	}
 	
-	private void drawSolution(GraphicsContext gc, List<City> solution, int offset, Color color) {
+	private void drawSolution(GraphicsContext gc, Tour solution, int offset, Color color) {
 		gc.setFill(color);
 		gc.setStroke(color);
 		gc.setLineWidth(offset == 0 ? 2 : 1);
@@ -647,7 +719,7 @@ public class SalesmanViewer extends Application {
 		City firstCity = null;
 		double fromX = 0;
 		double fromY = 0;
-		for (City city : solution) {
+		for (City city : solution.toCities()) {
 			if (firstCity == null) {
 				firstCity = city;
 				fromX = screenCoordinateCalculator.toScreenX(city.x) + offset;
@@ -681,12 +753,6 @@ public class SalesmanViewer extends Application {
 		}
 	}
 
-	private List<List<City>> deepCopy(List<List<City>> list) {
-		return list.stream()
-			.<List<City>> map(sublist -> sublist.stream().collect(Collectors.toList()))
-			.collect(Collectors.toList());
-	}
-
 	public static void main(String[] args) {
 		launch(args);
 	}
@@ -0,0 +1,16 @@
+package ch.obermuhlner.salesman.viewer;
+
+import javafx.application.Application;
+
+/**
+ * Starts the {@link SalesmanViewer} from an executable jar that contains the JavaFX classes.
+ *
+ * The Java launcher refuses to start a main class that extends {@link Application}
+ * if JavaFX is not on the module path, so the main class of the jar must be a separate class.
+ */
+public class SalesmanViewerLauncher {
+
+	public static void main(String[] args) {
+		Application.launch(SalesmanViewer.class, args);
+	}
+}
@@ -0,0 +1,162 @@
+package ch.obermuhlner.salesman.cli;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.assertValidTour;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
+import ch.obermuhlner.salesman.model.CitiesLoader;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class SalesmanSolverTest {
+
+	@Test
+	public void test_solve_jsonl() throws IOException {
+		File file = createCitiesFile("cities, \"quoted\".csv", 6);
+
+		SalesmanSolver solver = createSolver();
+		StringWriter output = new StringWriter();
+		assertEquals(0, solver.solve(Collections.singletonList(file.getPath()), output));
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(1, lines.length);
+		String line = lines[0];
+		String escapedPath = file.getPath().replace("\\", "\\\\").replace("\"", "\\\"");
+		assertTrue(line, line.startsWith("{\"instance\":\"" + escapedPath + "\",\"strategy\":\"nearest\",\"seed\":0,\"cities\":6,\"distance\":"));
+		assertTrue(line, line.endsWith("]}"));
+		assertFalse(line, line.contains("\"error\""));
+		assertValidTourOutput(file, field(line, "tour").replaceAll("[\\[\\]]", "").split(","), field(line, "distance"));
+	}
+
+	@Test
+	public void test_solve_csv() throws IOException {
+		File file = createCitiesFile("cities, \"quoted\".csv", 6);
+		String missing = new File(file.getParentFile(), "missing.csv").getPath();
+
+		SalesmanSolver solver = createSolver();
+		solver.setOutputFormat(SalesmanSolver.OutputFormat.CSV);
+		StringWriter output = new StringWriter();
+		assertEquals(1, solver.solve(Arrays.asList(file.getPath(), missing), output));
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(3, lines.length);
+		assertEquals("instance,strategy,seed,cities,distance,millis,evaluations,limit,tour,error", lines[0]);
+
+		String quotedPath = "\"" + file.getPath().replace("\"", "\"\"") + "\"";
+		assertTrue(lines[1], lines[1].startsWith(quotedPath + ",nearest,0,6,"));
+		String[] columns = lines[1].substring(quotedPath.length() + 1).split(",", -1);
+		assertEquals(9, columns.length);
+		assertEquals("", columns[6]);
+		assertValidTourOutput(file, columns[7].split(" "), columns[3]);
+		assertEquals("", columns[8]);
+
+		assertTrue(lines[2], lines[2].startsWith(missing + ",nearest,0,0,,,,,,"));
+		assertTrue(lines[2], lines[2].length() > (missing + ",nearest,0,0,,,,,,").length());
+	}
+
+	@Test
+	public void test_solve_error() throws IOException {
+		File file = createCitiesFile("cities.csv", 6);
+		String missing = new File(file.getParentFile(), "missing.csv").getPath();
+
+		SalesmanSolver solver = createSolver();
+		StringWriter output = new StringWriter();
+		assertEquals(1, solver.solve(Arrays.asList(missing, file.getPath()), output));
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0], lines[0].startsWith("{\"instance\":\"" + missing + "\",\"strategy\":\"nearest\",\"seed\":0,\"cities\":0,\"error\":\""));
+		assertFalse(lines[0], lines[0].contains("\"distance\""));
+		assertFalse(lines[1], lines[1].contains("\"error\""));
+	}
+
+	@Test
+	public void test_solve_samples() throws IOException {
+		File file = createCitiesFile("cities.csv", 50);
+
+		SalesmanSolver solver = createSolver();
+		solver.setCityCount(10);
+		solver.setSampleCount(3);
+		solver.setSeed(5);
+		StringWriter output = new StringWriter();
+		assertEquals(0, solver.solve(Collections.singletonList(file.getPath()), output));
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(3, lines.length);
+		for (int sample = 0; sample < 3; sample++) {
+			assertEquals("\"" + file.getPath() + "#" + sample + "\"", field(lines[sample], "instance"));
+			assertEquals(String.valueOf(5 + sample), field(lines[sample], "seed"));
+			assertEquals("10", field(lines[sample], "cities"));
+		}
+
+		// every sample is solved like a single instance with the seed of the sample
+		SalesmanSolver singleSolver = createSolver();
+		singleSolver.setCityCount(10);
+		singleSolver.setSeed(7);
+		StringWriter singleOutput = new StringWriter();
+		assertEquals(0, singleSolver.solve(Collections.singletonList(file.getPath()), singleOutput));
+
+		String singleLine = singleOutput.toString().split("\n")[0];
+		assertEquals("\"" + file.getPath() + "\"", field(singleLine, "instance"));
+		assertEquals(field(lines[2], "distance"), field(singleLine, "distance"));
+		assertEquals(field(lines[2], "tour"), field(singleLine, "tour"));
+	}
+
+	private static SalesmanSolver createSolver() {
+		SalesmanSolver solver = new SalesmanSolver();
+		solver.setStrategy("nearest");
+		solver.setThreads(1);
+		return solver;
+	}
+
+	/**
+	 * Creates a CSV file with the specified name and random cities in a new temporary directory.
+	 */
+	private static File createCitiesFile(String name, int count) throws IOException {
+		File directory = Files.createTempDirectory("salesman").toFile();
+		directory.deleteOnExit();
+		File file = new File(directory, name);
+		file.deleteOnExit();
+
+		Random random = new Random(1);
+		StringBuilder csv = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			csv.append("City").append(i).append(',').append(random.nextInt(90)).append(',').append(random.nextInt(180)).append(',').append(1000 + i).append(",Country\n");
+		}
+		Files.write(file.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Returns the raw JSON value of the specified field, strings keep their quotes and arrays their brackets.
+	 */
+	private static String field(String json, String name) {
+		Matcher matcher = Pattern.compile("\"" + name + "\":(\"(?:[^\"\\\\]|\\\\.)*\"|\\[[^\\]]*\\]|[^,}]*)").matcher(json);
+		assertTrue(json, matcher.find());
+		return matcher.group(1);
+	}
+
+	/**
+	 * Asserts that the written tour and distance are a valid tour of the cities of the file with the default earth distance.
+	 */
+	private static void assertValidTourOutput(File file, String[] cityIndexes, String distance) {
+		Problem problem = new Problem(CitiesLoader.load(file.getPath()), SphericalDistanceCalculator.earthKilometers());
+		int[] indexes = Arrays.stream(cityIndexes).mapToInt(Integer::parseInt).toArray();
+		assertValidTour(problem, new Tour(problem, indexes, Double.parseDouble(distance)));
+	}
+}
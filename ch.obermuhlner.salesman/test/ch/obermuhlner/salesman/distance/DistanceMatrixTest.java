@@ -0,0 +1,66 @@
+package ch.obermuhlner.salesman.distance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.City;
+
+public class DistanceMatrixTest {
+
+	private static final double epsilon = 0.00001;
+
+	private final City cityA = new City("A", 0, 0);
+	private final City cityB = new City("B", 0, 1);
+	private final City cityC = new City("C", 0, 5);
+	private final List<City> cities = Arrays.asList(cityA, cityB, cityC);
+
+	@Test
+	public void test_distance_index() {
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cities, new CartesianDistanceCalculator());
+
+		assertEquals(3, distanceMatrix.size());
+		assertEquals(0.0, distanceMatrix.distance(0, 0), epsilon);
+		assertEquals(1.0, distanceMatrix.distance(0, 1), epsilon);
+		assertEquals(1.0, distanceMatrix.distance(1, 0), epsilon);
+		assertEquals(4.0, distanceMatrix.distance(1, 2), epsilon);
+		assertEquals(5.0, distanceMatrix.distance(2, 0), epsilon);
+	}
+
+	@Test
+	public void test_distance_cities() {
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cities, new CartesianDistanceCalculator());
+
+		assertEquals(4.0, distanceMatrix.distance(cityB, cityC), epsilon);
+		assertEquals(1.0 + 4.0 + 5.0, distanceMatrix.distance(cities), epsilon);
+	}
+
+	@Test
+	public void test_distance_path() {
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cities, new CartesianDistanceCalculator());
+
+		assertEquals(0.0, distanceMatrix.distance(new int[] { }), epsilon);
+		assertEquals(0.0, distanceMatrix.distance(new int[] { 1 }), epsilon);
+		assertEquals(2.0, distanceMatrix.distance(new int[] { 0, 1 }), epsilon);
+		assertEquals(1.0 + 4.0 + 5.0, distanceMatrix.distance(new int[] { 0, 1, 2 }), epsilon);
+		assertEquals(5.0 + 4.0 + 1.0, distanceMatrix.distance(new int[] { 0, 2, 1 }), epsilon);
+	}
+
+	@Test
+	public void test_of_reuses_matrix() {
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cities, new CartesianDistanceCalculator());
+
+		assertSame(distanceMatrix, DistanceMatrix.of(cities, distanceMatrix));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_distance_unknown_city() {
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cities, new CartesianDistanceCalculator());
+
+		distanceMatrix.distance(cityA, new City("D", 0, 0));
+	}
+}
@@ -0,0 +1,157 @@
+package ch.obermuhlner.salesman.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.service.SolverService;
+import ch.obermuhlner.salesman.strategies.GeneticSalesman;
+import ch.obermuhlner.salesman.strategies.LinKernighanSalesman;
+
+public class SolverMetricsTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_counter() {
+		SolverMetrics metrics = new SolveProgress().getMetrics();
+		metrics.counter("a").add(3);
+		metrics.counter("a").increment();
+		metrics.counter("b");
+
+		Map<String, Long> counters = metrics.getCounters();
+		assertEquals(4L, (long) counters.get("a"));
+		assertEquals(0L, (long) counters.get("b"));
+	}
+
+	@Test
+	public void test_startPhase() {
+		SolverMetrics metrics = new SolveProgress().getMetrics();
+		SolverMetrics.Phase phase = metrics.startPhase("phase");
+		try {
+			new ArrayList<>(100000);
+		} finally {
+			phase.close();
+		}
+
+		assertTrue(metrics.getPhaseMillis().containsKey("phase"));
+		Long allocatedBytes = metrics.getPhaseAllocatedBytes().get("phase");
+		assertTrue(allocatedBytes == null || allocatedBytes >= 400000);
+	}
+
+	@Test
+	public void test_metrics_created_on_demand() {
+		Random random = new Random(1);
+		List<City> cities = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			cities.add(new City("City" + i, random.nextInt(100), random.nextInt(100)));
+		}
+		Problem problem = new Problem(cities, new CartesianDistanceCalculator());
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(10000);
+		SolveProgress progress = new SolveProgress(budget);
+		new LinKernighanSalesman().bestTour(problem, progress);
+		new GeneticSalesman().bestTour(problem, progress);
+		assertNull(progress.getMetricsIfCreated());
+
+		SolverMetrics metrics = progress.getMetrics();
+		assertSame(metrics, progress.getMetricsIfCreated());
+		new LinKernighanSalesman().bestTour(problem, progress);
+		assertTrue(metrics.getCounters().containsKey("linKernighan.kicks"));
+	}
+
+	@Test
+	public void test_convergence_thinned() {
+		SolveProgress progress = new SolveProgress();
+		progress.improvedDistance(Double.MAX_VALUE);
+		SolverMetrics metrics = progress.getMetrics();
+		assertEquals(0, metrics.getImprovementCount());
+
+		int improvementCount = 3 * SolverMetrics.MAX_CONVERGENCE_POINTS;
+		for (int i = 0; i < improvementCount; i++) {
+			progress.improvedDistance(improvementCount - i);
+		}
+
+		List<SolverMetrics.ConvergencePoint> convergence = metrics.getConvergence();
+		assertEquals(improvementCount, metrics.getImprovementCount());
+		assertTrue(convergence.size() <= SolverMetrics.MAX_CONVERGENCE_POINTS);
+		assertTrue(convergence.size() >= SolverMetrics.MAX_CONVERGENCE_POINTS / 2);
+		assertEquals(improvementCount, convergence.get(0).getDistance(), epsilon);
+		for (int i = 1; i < convergence.size(); i++) {
+			assertTrue(convergence.get(i).getDistance() < convergence.get(i - 1).getDistance());
+		}
+	}
+
+	@Test
+	public void test_jmx() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		List<ObjectName> registeredNames = new ArrayList<>();
+		List<Object> counters = new ArrayList<>();
+		List<Object> convergence = new ArrayList<>();
+
+		JmxMetricsRegistry jmxRegistry = new JmxMetricsRegistry(server);
+		MetricsRegistry registry = new MetricsRegistry() {
+			@Override
+			public void register(String name, SolverMetrics metrics) {
+				jmxRegistry.register(name, metrics);
+				try {
+					registeredNames.add(JmxMetricsRegistry.objectName(name));
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void unregister(String name, SolverMetrics metrics) {
+				try {
+					ObjectName objectName = JmxMetricsRegistry.objectName(name);
+					counters.add(server.getAttribute(objectName, "Counters"));
+					convergence.add(server.getAttribute(objectName, "Convergence"));
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+				jmxRegistry.unregister(name, metrics);
+			}
+		};
+
+		Random random = new Random(1);
+		List<City> cities = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			cities.add(new City("City" + i, random.nextInt(100), random.nextInt(100)));
+		}
+		Problem problem = new Problem(cities, new CartesianDistanceCalculator());
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(10000);
+		try (SolverService service = new SolverService(Runnable::run)) {
+			service.setMetricsRegistry(registry);
+			service.solve(problem, new GeneticSalesman(), budget, null).join();
+		}
+
+		assertEquals(1, registeredNames.size());
+		assertFalse(server.isRegistered(registeredNames.get(0)));
+		assertTrue(((TabularData) counters.get(0)).size() > 0);
+		assertTrue(((CompositeData[]) convergence.get(0)).length > 0);
+	}
+}
@@ -0,0 +1,182 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class CitiesLoaderTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_load_with_header_and_crlf() throws IOException {
+		File file = createFile("name,lat,lon,population\r\nZ\u00fcrich,47.37,8.54,341730,Switzerland\r\nMinus,-1.5,-170,-99\r\n\r\nLast,0,1e1,2.5");
+
+		List<City> cities = CitiesLoader.load(file.getPath());
+
+		assertEquals(3, cities.size());
+		assertCity("Z\u00fcrich", 8.54, 47.37, 341730, cities.get(0));
+		assertCity("Minus", -170, -1.5, -99, cities.get(1));
+		assertCity("Last", 10, 0, 2, cities.get(2));
+	}
+
+	@Test
+	public void test_load_without_header() throws IOException {
+		File file = createFile("First,1,2,3\nSecond,4,5,6\n");
+
+		List<City> cities = CitiesLoader.load(file.getPath());
+
+		assertEquals(2, cities.size());
+		assertCity("First", 2, 1, 3, cities.get(0));
+		assertCity("Second", 5, 4, 6, cities.get(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_load_invalid_line() throws IOException {
+		CitiesLoader.load(createFile("First,1,2,3\nSecond,4,5\n").getPath());
+	}
+
+	@Test
+	public void test_load_many_cities_and_long_lines() throws IOException {
+		Random random = new Random(1);
+		StringBuilder content = new StringBuilder();
+		List<City> expected = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			String name = i % 5000 == 0 ? longName(100000) : "City" + i;
+			double lat = random.nextDouble() * 180 - 90;
+			double lon = random.nextDouble() * 360 - 180;
+			int population = random.nextInt(1000000);
+			content.append(name).append(',').append(lat).append(',').append(lon).append(',').append(population).append('\n');
+			expected.add(new City(name, lon, lat, population));
+		}
+		File file = createFile(content.toString());
+
+		List<City> cities = CitiesLoader.load(file.getPath());
+		assertEquals(expected.size(), cities.size());
+		for (int i = 0; i < expected.size(); i++) {
+			City city = expected.get(i);
+			assertCity(city.name, city.x, city.y, city.population, cities.get(i));
+			assertEquals(city.x, cities.get(i).x, 0.0);
+			assertEquals(city.y, cities.get(i).y, 0.0);
+		}
+
+		try (Stream<City> stream = CitiesLoader.stream(file.getPath())) {
+			assertEquals(expected.size(), stream.collect(Collectors.toList()).size());
+		}
+
+		CityColumns columns = CitiesLoader.loadColumns(file.getPath());
+		assertEquals(expected.size(), columns.size());
+		for (int i = 0; i < expected.size(); i++) {
+			City city = expected.get(i);
+			assertCity(city.name, city.x, city.y, city.population, columns.getCity(i));
+		}
+	}
+
+	@Test
+	public void test_load_random_cities() throws IOException {
+		File file = createFile("A,1,1,1000\nB,2,2,0\nC,3,3,-99\nD,4,4,10\nE,5,5,1\n");
+
+		List<City> cities1 = CitiesLoader.load(file.getPath(), new Random(1), 5);
+		List<City> cities2 = CitiesLoader.load(file.getPath(), new Random(1), 5);
+
+		assertEquals(5, cities1.size());
+		assertEquals(5, cities1.stream().map(city -> city.name).distinct().count());
+		assertEquals(cities1.stream().map(city -> city.name).collect(Collectors.toList()), cities2.stream().map(city -> city.name).collect(Collectors.toList()));
+		assertEquals(new HashSet<>(Arrays.asList("B", "C")), new HashSet<>(Arrays.asList(cities1.get(3).name, cities1.get(4).name)));
+
+		assertEquals(5, CitiesLoader.load(file.getPath(), new Random(2), 10).size());
+		assertEquals(2, CitiesLoader.load(file.getPath(), new Random(3), 2).size());
+	}
+
+	@Test
+	public void test_load_random_cities_concurrently() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			content.append("City").append(i).append(',').append(i % 90).append(',').append(i % 180).append(',').append(i % 13 == 0 ? 0 : 1000 + i).append('\n');
+		}
+		File file = createFile(content.toString());
+
+		List<List<String>> expected = new ArrayList<>();
+		for (int seed = 0; seed < 8; seed++) {
+			expected.add(names(CitiesLoader.load(file.getPath(), new Random(seed), 190)));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<List<String>>>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				futures.add(executor.submit(() -> {
+					List<List<String>> result = new ArrayList<>();
+					for (int seed = 0; seed < 8; seed++) {
+						result.add(names(CitiesLoader.load(file.getPath(), new Random(seed), 190)));
+					}
+					return result;
+				}));
+			}
+			for (Future<List<List<String>>> future : futures) {
+				assertEquals(expected, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static List<String> names(List<City> cities) {
+		return cities.stream().map(city -> city.name).collect(Collectors.toList());
+	}
+
+	@Test
+	public void test_parseDouble_same_as_Double_parseDouble() {
+		Random random = new Random(2);
+		String[] values = { "0", "-0", "1", "-1", ".5", "5.", "0.1", "0.30000000000000004", "123456789012345", "1234567890123456789", "1e10", "-2.5E-3", "  7.25 ", "+3", "0.000000000000000000001", "9007199254740993" };
+		for (String value : values) {
+			assertParseDouble(value);
+		}
+		for (int i = 0; i < 10000; i++) {
+			assertParseDouble(Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 5)));
+			assertParseDouble(String.format("%.8f", random.nextDouble() * 360 - 180));
+		}
+	}
+
+	private static void assertParseDouble(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		assertEquals(value, Double.parseDouble(value), CitiesCsvParser.parseDouble(bytes, 0, bytes.length), 0.0);
+	}
+
+	private static void assertCity(String name, double x, double y, int population, City city) {
+		assertEquals(name, city.name);
+		assertEquals(x, city.x, epsilon);
+		assertEquals(y, city.y, epsilon);
+		assertEquals(population, city.population);
+	}
+
+	private static String longName(int length) {
+		StringBuilder name = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			name.append((char) ('a' + i % 26));
+		}
+		return name.toString();
+	}
+
+	private static File createFile(String content) throws IOException {
+		File file = File.createTempFile("cities", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
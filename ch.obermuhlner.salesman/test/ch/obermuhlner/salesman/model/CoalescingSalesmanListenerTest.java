@@ -0,0 +1,95 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+
+public class CoalescingSalesmanListenerTest {
+
+	private final Problem problem = new Problem(Arrays.asList(new City("A", 0, 0), new City("B", 0, 1), new City("C", 1, 1), new City("D", 1, 0)), new CartesianDistanceCalculator());
+
+	private final List<Runnable> scheduled = new ArrayList<>();
+	private final List<Tour> improvedTours = new ArrayList<>();
+	private final List<Tour> discardedTours = new ArrayList<>();
+
+	private final SalesmanListener target = new SalesmanListener() {
+		@Override
+		public void improvedSolutions(List<Tour> improved) {
+			improvedTours.addAll(improved);
+		}
+
+		@Override
+		public void discardedSolutions(List<Tour> discarded) {
+			discardedTours.addAll(discarded);
+		}
+	};
+
+	@Test
+	public void test_improvedSolution_coalesced() {
+		CoalescingSalesmanListener listener = new CoalescingSalesmanListener(scheduled::add, target);
+		Tour tour1 = new Tour(problem, new int[] { 0, 2, 1, 3 });
+		Tour tour2 = new Tour(problem, new int[] { 0, 1, 2, 3 });
+
+		listener.improvedSolution(tour1);
+		listener.improvedSolution(tour2);
+
+		assertEquals(1, scheduled.size());
+		assertTrue(improvedTours.isEmpty());
+
+		scheduled.remove(0).run();
+		assertEquals(1, improvedTours.size());
+		assertSame(tour2, improvedTours.get(0));
+		assertEquals(2, listener.getImprovedCount());
+
+		listener.improvedSolution(tour1);
+		assertEquals(1, scheduled.size());
+	}
+
+	@Test
+	public void test_improvedSolutions_copied() {
+		CoalescingSalesmanListener listener = new CoalescingSalesmanListener(scheduled::add, target);
+		List<Tour> population = new ArrayList<>();
+		population.add(new Tour(problem, new int[] { 0, 1, 2, 3 }));
+
+		listener.improvedSolutions(population);
+		population.clear();
+		scheduled.remove(0).run();
+
+		assertEquals(1, improvedTours.size());
+	}
+
+	@Test
+	public void test_discardedSolution_sampled() {
+		CoalescingSalesmanListener listener = new CoalescingSalesmanListener(Runnable::run, target);
+		Tour tour = new Tour(problem, new int[] { 0, 2, 1, 3 });
+
+		listener.setDiscardedSampleInterval(0);
+		for (int i = 0; i < 1000; i++) {
+			listener.discardedSolution(tour);
+		}
+		assertEquals(0, discardedTours.size());
+		assertEquals(1000, listener.getDiscardedCount());
+
+		listener.setDiscardedSampleInterval(1);
+		for (int i = 0; i < 1000; i++) {
+			listener.discardedSolution(tour);
+		}
+		assertEquals(1000, discardedTours.size());
+
+		discardedTours.clear();
+		listener.setDiscardedSampleInterval(10);
+		for (int i = 0; i < 10000; i++) {
+			listener.discardedSolution(tour);
+		}
+		assertTrue(discardedTours.size() > 500);
+		assertTrue(discardedTours.size() < 2000);
+	}
+}
@@ -0,0 +1,111 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+
+public class MappedCitiesTest {
+
+	@Test
+	public void test_write_and_open() throws IOException {
+		Random random = new Random(1);
+		int size = 1000;
+		String[] names = new String[size];
+		double[] x = new double[size];
+		double[] y = new double[size];
+		int[] populations = new int[size];
+		for (int i = 0; i < size; i++) {
+			names[i] = i % 100 == 0 ? "Z\u00fcrich " + i : i % 77 == 0 ? "" : "City" + i;
+			x[i] = random.nextDouble() * 1000;
+			y[i] = random.nextDouble() * 1000;
+			populations[i] = random.nextInt(1000000) - 100;
+		}
+		CityColumns columns = new CityColumns(names, x, y, populations, size);
+		Problem problem = new Problem(columns.toCities(), new CartesianDistanceCalculator());
+		NeighborLists neighborLists = problem.getNeighborLists(5);
+
+		File file = createFile();
+		CitiesBinaryWriter.write(file.getPath(), columns, neighborLists, "cartesian");
+
+		assertTrue(MappedCities.isBinaryFile(file.getPath()));
+		MappedCities cities = MappedCities.open(file.getPath());
+		assertEquals(size, cities.size());
+		for (int i = 0; i < size; i++) {
+			City city = cities.get(i);
+			assertEquals(names[i], city.name);
+			assertEquals(x[i], city.x, 0.0);
+			assertEquals(y[i], city.y, 0.0);
+			assertEquals(populations[i], city.population);
+		}
+
+		assertSame(cities.get(100), cities.get(100));
+		Problem mappedProblem = new Problem(cities, new CartesianDistanceCalculator());
+		assertSame(cities, mappedProblem.getCities());
+		assertEquals(100, mappedProblem.indexOf(cities.get(100)));
+
+		assertEquals(5, cities.getNeighborCount());
+		assertEquals("cartesian", cities.getNeighborDistance());
+		NeighborLists mappedNeighborLists = cities.getNeighborLists();
+		for (int i = 0; i < size; i++) {
+			for (int rank = 0; rank < 5; rank++) {
+				assertEquals(neighborLists.getNeighbor(i, rank), mappedNeighborLists.getNeighbor(i, rank));
+			}
+		}
+
+		CityColumns mappedColumns = cities.toColumns();
+		assertEquals(size, mappedColumns.size());
+		assertEquals(names[100], mappedColumns.getName(100));
+		assertEquals(populations[999], mappedColumns.getPopulation(999));
+	}
+
+	@Test
+	public void test_write_without_neighbors_and_sample() throws IOException {
+		CityColumns columns = new CityColumns(new String[] { "A", "B", "C" }, new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, new int[] { 10, 0, 20 }, 3);
+
+		File file = createFile();
+		CitiesBinaryWriter.write(file.getPath(), columns);
+
+		MappedCities cities = MappedCities.open(file.getPath());
+		assertEquals(0, cities.getNeighborCount());
+		assertNull(cities.getNeighborLists());
+		assertNull(cities.getNeighborDistance());
+		assertEquals("C", cities.getName(2));
+		assertEquals(6, cities.getY(2), 0.0);
+
+		List<City> sampled = CitiesLoader.load(file.getPath(), new Random(1), 2);
+		assertEquals(2, sampled.size());
+		assertFalse(sampled.get(0).name.equals("B"));
+		assertFalse(sampled.get(1).name.equals("B"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_open_csv() throws IOException {
+		File file = createFile();
+		CitiesBinaryWriter.write(file.getPath(), new CityColumns(new String[0], new double[0], new double[0], new int[0], 0));
+		assertTrue(MappedCities.isBinaryFile(file.getPath()));
+
+		File csvFile = createFile();
+		Files.write(csvFile.toPath(), "A,1,2,3\n".getBytes(StandardCharsets.UTF_8));
+		assertFalse(MappedCities.isBinaryFile(csvFile.getPath()));
+		MappedCities.open(csvFile.getPath());
+	}
+
+	private static File createFile() throws IOException {
+		File file = File.createTempFile("cities", MappedCities.FILE_EXTENSION);
+		file.deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,53 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+
+/**
+ * Shared problems and assertions of the tests.
+ */
+public class ProblemFixtures {
+
+	private static final double epsilon = 0.00001;
+
+	private ProblemFixtures() {
+	}
+
+	/**
+	 * Creates a problem with cities at random integer coordinates between 0 and 1000 and cartesian distances.
+	 *
+	 * @param random the {@link Random} of the coordinates
+	 * @param cityCount the number of cities
+	 * @return the created {@link Problem}
+	 */
+	public static Problem randomCartesian(Random random, int cityCount) {
+		List<City> cities = new ArrayList<>();
+		for (int i = 0; i < cityCount; i++) {
+			cities.add(new City("City" + i, random.nextInt(1000), random.nextInt(1000)));
+		}
+		return new Problem(cities, new CartesianDistanceCalculator());
+	}
+
+	/**
+	 * Asserts that the tour visits every city of the problem exactly once and that its cached distance is correct.
+	 *
+	 * @param problem the {@link Problem}
+	 * @param tour the {@link Tour} to check
+	 */
+	public static void assertValidTour(Problem problem, Tour tour) {
+		assertEquals(problem.size(), tour.size());
+		boolean[] visited = new boolean[problem.size()];
+		for (int i = 0; i < tour.size(); i++) {
+			int cityIndex = tour.getCityIndex(i);
+			assertTrue(!visited[cityIndex]);
+			visited[cityIndex] = true;
+		}
+		assertEquals(problem.distance(tour.toArray()), tour.getDistance(), epsilon);
+	}
+}
@@ -0,0 +1,95 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+
+public class SolveProgressTest {
+
+	private static final double epsilon = 0.00001;
+
+	private final Problem problem = new Problem(Arrays.asList(new City("A", 0, 0), new City("B", 0, 1), new City("C", 1, 1), new City("D", 1, 0)), new CartesianDistanceCalculator());
+
+	@Test
+	public void test_unlimited() {
+		SolveProgress progress = new SolveProgress();
+		progress.addEvaluations(1000000);
+
+		assertNull(progress.getBest());
+		assertFalse(progress.isExhausted());
+		assertEquals(1000000, progress.getEvaluationCount());
+	}
+
+	@Test
+	public void test_improvedSolution() {
+		SolveProgress progress = new SolveProgress();
+		Tour square = new Tour(problem, new int[] { 0, 1, 2, 3 });
+		Tour crossed = new Tour(problem, new int[] { 0, 2, 1, 3 });
+
+		assertTrue(progress.improvedSolution(crossed));
+		assertTrue(progress.improvedSolution(square));
+		assertFalse(progress.improvedSolution(crossed));
+
+		assertSame(square, progress.getBest());
+		assertEquals(4.0, progress.getBestDistance(), epsilon);
+	}
+
+	@Test
+	public void test_maxEvaluations() {
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(100);
+		SolveProgress progress = new SolveProgress(budget);
+
+		progress.addEvaluations(99);
+		assertFalse(progress.isExhausted());
+
+		progress.addEvaluations(1);
+		assertEquals(SolveBudget.Limit.EVALUATIONS, progress.getExhaustedLimit());
+	}
+
+	@Test
+	public void test_targetDistance() {
+		SolveBudget budget = new SolveBudget();
+		budget.setTargetDistance(4.5);
+		SolveProgress progress = new SolveProgress(budget);
+
+		progress.improvedSolution(new Tour(problem, new int[] { 0, 2, 1, 3 }));
+		assertFalse(progress.isExhausted());
+
+		progress.improvedDistance(4.0);
+		assertEquals(SolveBudget.Limit.TARGET_DISTANCE, progress.getExhaustedLimit());
+	}
+
+	@Test
+	public void test_stallLimit() {
+		SolveBudget budget = new SolveBudget();
+		budget.setStallLimit(10);
+		SolveProgress progress = new SolveProgress(budget);
+
+		progress.addEvaluations(8);
+		progress.improvedDistance(100);
+		progress.addEvaluations(9);
+		assertFalse(progress.isExhausted());
+
+		progress.improvedDistance(100);
+		progress.addEvaluations(1);
+		assertEquals(SolveBudget.Limit.STALL, progress.getExhaustedLimit());
+	}
+
+	@Test
+	public void test_maxMillis() {
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxMillis(0);
+		SolveProgress progress = new SolveProgress(budget);
+
+		assertEquals(SolveBudget.Limit.TIME, progress.getExhaustedLimit());
+	}
+}
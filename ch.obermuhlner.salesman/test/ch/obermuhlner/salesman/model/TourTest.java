@@ -0,0 +1,81 @@
+package ch.obermuhlner.salesman.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+
+public class TourTest {
+
+	private static final double epsilon = 0.00001;
+
+	private final City cityA = new City("A", 0, 0);
+	private final City cityB = new City("B", 0, 1);
+	private final City cityC = new City("C", 0, 5);
+	private final Problem problem = new Problem(Arrays.asList(cityA, cityB, cityC), new CartesianDistanceCalculator());
+
+	@Test
+	public void test_createTour() {
+		Tour tour = problem.createTour();
+
+		assertEquals(3, tour.size());
+		assertEquals(Arrays.asList(cityA, cityB, cityC), tour.toCities());
+		assertEquals(1.0 + 4.0 + 5.0, problem.distance(tour), epsilon);
+		assertEquals(1.0 + 4.0 + 5.0, tour.getDistance(), epsilon);
+	}
+
+	@Test
+	public void test_toTour() {
+		List<City> path = Arrays.asList(cityC, cityA, cityB);
+		Tour tour = problem.toTour(path);
+
+		assertEquals(2, tour.getCityIndex(0));
+		assertEquals(0, tour.getCityIndex(1));
+		assertEquals(1, tour.getCityIndex(2));
+		assertEquals(path, tour.toCities());
+	}
+
+	@Test
+	public void test_equals() {
+		assertEquals(new Tour(problem, new int[] { 0, 2, 1 }), new Tour(problem, new int[] { 0, 2, 1 }));
+		assertEquals(new Tour(problem, new int[] { 0, 2, 1 }).hashCode(), new Tour(problem, new int[] { 0, 2, 1 }).hashCode());
+		assertNotEquals(new Tour(problem, new int[] { 0, 2, 1 }), new Tour(problem, new int[] { 0, 1, 2 }));
+	}
+
+	@Test
+	public void test_getFingerprint() {
+		Problem problem = new Problem(Arrays.asList(cityA, cityB, cityC, new City("D", 1, 1), new City("E", 2, 2)), new CartesianDistanceCalculator());
+		long fingerprint = new Tour(problem, new int[] { 0, 1, 2, 3, 4 }).getFingerprint();
+
+		assertEquals(fingerprint, new Tour(problem, new int[] { 2, 3, 4, 0, 1 }).getFingerprint());
+		assertEquals(fingerprint, new Tour(problem, new int[] { 4, 3, 2, 1, 0 }).getFingerprint());
+		assertEquals(fingerprint, new Tour(problem, new int[] { 1, 0, 4, 3, 2 }).getFingerprint());
+		assertNotEquals(fingerprint, new Tour(problem, new int[] { 0, 2, 1, 3, 4 }).getFingerprint());
+		assertNotEquals(fingerprint, new Tour(problem, new int[] { 0, 1, 2, 4, 3 }).getFingerprint());
+	}
+
+	@Test
+	public void test_getFingerprint_incremental() {
+		long fingerprint = Tour.fingerprint(new int[] { 0, 1, 2 });
+		fingerprint ^= Tour.edgeFingerprint(0, 1);
+		fingerprint ^= Tour.edgeFingerprint(2, 0);
+		fingerprint ^= Tour.edgeFingerprint(0, 2);
+		fingerprint ^= Tour.edgeFingerprint(1, 0);
+
+		assertEquals(Tour.fingerprint(new int[] { 0, 1, 2 }), fingerprint);
+	}
+
+	@Test
+	public void test_toArray_copy() {
+		Tour tour = problem.createTour();
+		int[] cityIndexes = tour.toArray();
+		cityIndexes[0] = 2;
+
+		assertEquals(0, tour.getCityIndex(0));
+	}
+}
@@ -0,0 +1,78 @@
+package ch.obermuhlner.salesman.service;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.strategies.LinKernighanSalesman;
+
+public class SolverServiceTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_solve_with_budget() throws Exception {
+		Problem problem = randomCartesian(new Random(1), 200);
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(20000);
+		List<Tour> improvedTours = new CopyOnWriteArrayList<>();
+
+		try (SolverService solverService = new SolverService()) {
+			SolveFuture future = solverService.solve(problem, createSalesman(), budget, improvedTours::add);
+			Tour tour = future.get(10, TimeUnit.SECONDS);
+
+			assertEquals(problem.size(), tour.size());
+			assertEquals(SolveBudget.Limit.EVALUATIONS, future.getProgress().getExhaustedLimit());
+			assertTrue(!improvedTours.isEmpty());
+			assertEquals(tour.getDistance(), improvedTours.get(improvedTours.size() - 1).getDistance(), epsilon);
+		}
+	}
+
+	@Test
+	public void test_stop() throws Exception {
+		Problem problem = randomCartesian(new Random(2), 200);
+		CountDownLatch improved = new CountDownLatch(1);
+
+		try (SolverService solverService = new SolverService()) {
+			SolveFuture future = solverService.solve(problem, createSalesman(), new SolveBudget(), tour -> improved.countDown());
+			assertTrue(improved.await(10, TimeUnit.SECONDS));
+			future.stop();
+			Tour tour = future.get(10, TimeUnit.SECONDS);
+
+			assertNotNull(tour);
+			assertEquals(SolveBudget.Limit.CANCELLED, future.getProgress().getExhaustedLimit());
+		}
+	}
+
+	@Test(expected = CancellationException.class)
+	public void test_cancel() throws Exception {
+		Problem problem = randomCartesian(new Random(3), 200);
+
+		try (SolverService solverService = new SolverService()) {
+			SolveFuture future = solverService.solve(problem, createSalesman());
+			assertTrue(future.cancel(true));
+			assertTrue(future.getProgress().isCancelled());
+			future.get(10, TimeUnit.SECONDS);
+		}
+	}
+
+	private static LinKernighanSalesman createSalesman() {
+		LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+		linKernighanSalesman.setRandom(new Random(1));
+		linKernighanSalesman.setKickCount(Integer.MAX_VALUE);
+		return linKernighanSalesman;
+	}
+}
@@ -0,0 +1,120 @@
+package ch.obermuhlner.salesman.spatial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.distance.CartesianDistanceCalculator;
+import ch.obermuhlner.salesman.distance.DistanceCalculator;
+import ch.obermuhlner.salesman.distance.SphericalDistanceCalculator;
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.NeighborLists;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.strategies.NearestSalesman;
+
+public class KdTreeTest {
+
+	@Test
+	public void test_create_without_euclidean_coordinates() {
+		DistanceCalculator calculator = (city1, city2) -> Math.abs(city1.x - city2.x);
+		assertNull(KdTree.create(createCities(new Random(1), 10, 100), calculator));
+	}
+
+	@Test
+	public void test_nearestNeighbors_cartesian() {
+		assertNearestNeighbors(new Problem(createCities(new Random(1), 500, 100), new CartesianDistanceCalculator()));
+	}
+
+	@Test
+	public void test_nearestNeighbors_duplicate_cities() {
+		assertNearestNeighbors(new Problem(createCities(new Random(2), 200, 5), new CartesianDistanceCalculator()));
+	}
+
+	@Test
+	public void test_nearestNeighbors_spherical() {
+		assertNearestNeighbors(new Problem(createSphericalCities(new Random(3), 500), SphericalDistanceCalculator.earthKilometers()));
+	}
+
+	@Test
+	public void test_remainingCities_nearest() {
+		Random random = new Random(4);
+		Problem problem = new Problem(createCities(random, 300, 1000), new CartesianDistanceCalculator());
+		KdTree.RemainingCities remainingCities = problem.getKdTree().remainingCities();
+		boolean[] removed = new boolean[problem.size()];
+
+		int current = 0;
+		for (int step = 0; step < problem.size(); step++) {
+			int expected = -1;
+			for (int candidate = 0; candidate < problem.size(); candidate++) {
+				if (!removed[candidate] && candidate != current && (expected == -1 || problem.distance(current, candidate) < problem.distance(current, expected))) {
+					expected = candidate;
+				}
+			}
+			assertEquals(expected, remainingCities.nearest(current));
+
+			int removedCity = random.nextInt(problem.size());
+			removed[removedCity] = true;
+			remainingCities.remove(removedCity);
+			current = random.nextInt(problem.size());
+		}
+	}
+
+	@Test
+	public void test_nearestSalesman_same_as_without_kdTree() {
+		List<City> cities = createSphericalCities(new Random(5), 300);
+		SphericalDistanceCalculator spherical = SphericalDistanceCalculator.earthKilometers();
+		Problem problem = new Problem(cities, spherical);
+		Problem problemWithoutKdTree = new Problem(cities, (city1, city2) -> spherical.distance(city1, city2));
+
+		for (int start = 0; start < 10; start++) {
+			int[] expected = new NearestSalesman(start).bestTour(problemWithoutKdTree).toArray();
+			int[] actual = new NearestSalesman(start).bestTour(problem).toArray();
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	private static void assertNearestNeighbors(Problem problem) {
+		NeighborLists neighborLists = problem.getNeighborLists(8);
+		for (int city = 0; city < problem.size(); city++) {
+			double lastDistance = 0;
+			for (int rank = 0; rank < neighborLists.getNeighborCount(); rank++) {
+				int neighbor = neighborLists.getNeighbor(city, rank);
+				assertTrue(neighbor != city);
+				double distance = problem.distance(city, neighbor);
+				assertTrue(distance >= lastDistance);
+				lastDistance = distance;
+			}
+
+			int closerCount = 0;
+			for (int other = 0; other < problem.size(); other++) {
+				if (other != city && problem.distance(city, other) < lastDistance) {
+					closerCount++;
+				}
+			}
+			assertTrue(closerCount < neighborLists.getNeighborCount());
+		}
+	}
+
+	private static List<City> createCities(Random random, int count, int range) {
+		List<City> cities = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			cities.add(new City("City" + i, random.nextInt(range), random.nextInt(range)));
+		}
+		return cities;
+	}
+
+	private static List<City> createSphericalCities(Random random, int count) {
+		List<City> cities = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			cities.add(new City("City" + i, random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90));
+		}
+		return cities;
+	}
+}
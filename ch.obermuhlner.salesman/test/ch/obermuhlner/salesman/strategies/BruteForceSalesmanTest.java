@@ -0,0 +1,63 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.util.PermutationUtil;
+
+public class BruteForceSalesmanTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_bestTour_same_as_all_permutations() {
+		Random random = new Random(1);
+		for (int cityCount = 0; cityCount <= 8; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			double expectedDistance = bestPermutationDistance(problem);
+
+			assertEquals(expectedDistance, new BruteForceSalesman().bestTour(problem).getDistance(), epsilon);
+
+			BruteForceSalesman parallelSalesman = new BruteForceSalesman();
+			parallelSalesman.setParallelism(3);
+			assertEquals(expectedDistance, parallelSalesman.bestTour(problem).getDistance(), epsilon);
+		}
+	}
+
+	@Test
+	public void test_bestTour_same_with_parallelism() {
+		Random random = new Random(2);
+		for (int cityCount = 12; cityCount <= 15; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+
+			Tour tour = new BruteForceSalesman().bestTour(problem);
+
+			BruteForceSalesman parallelSalesman = new BruteForceSalesman();
+			parallelSalesman.setParallelism(4);
+			assertEquals(tour.getDistance(), parallelSalesman.bestTour(problem).getDistance(), epsilon);
+			assertEquals(new Tour(problem, tour.toArray()).getDistance(), tour.getDistance(), epsilon);
+		}
+	}
+
+	private static double bestPermutationDistance(Problem problem) {
+		List<Integer> cityIndexes = new ArrayList<>();
+		for (int i = 0; i < problem.size(); i++) {
+			cityIndexes.add(i);
+		}
+
+		double[] bestDistance = { Double.MAX_VALUE };
+		PermutationUtil.permutations(cityIndexes, (permutation) -> {
+			int[] path = permutation.stream().mapToInt(Integer::intValue).toArray();
+			bestDistance[0] = Math.min(bestDistance[0], new Tour(problem, path).getDistance());
+		});
+		return bestDistance[0];
+	}
+}
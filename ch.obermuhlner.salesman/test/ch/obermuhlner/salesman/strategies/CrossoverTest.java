@@ -0,0 +1,145 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class CrossoverTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_order_creates_permutation() {
+		assertCreatesPermutations(OrderCrossover::new);
+	}
+
+	@Test
+	public void test_partiallyMapped_creates_permutation() {
+		assertCreatesPermutations(PartiallyMappedCrossover::new);
+	}
+
+	@Test
+	public void test_edgeAssembly_creates_permutation() {
+		assertCreatesPermutations(EdgeAssemblyCrossover::new);
+	}
+
+	@Test
+	public void test_edgeAssembly_inherits_edges() {
+		Random random = new Random(3);
+		Problem problem = randomCartesian(random, 200);
+		EdgeAssemblyCrossover crossover = new EdgeAssemblyCrossover(problem);
+		Tour parent1 = new TwoOptSalesman().bestTour(problem);
+		Tour parent2 = new NearestSalesman(17).bestTour(problem);
+		Set<Long> parentEdges = new HashSet<>();
+		addEdges(parent1.toArray(), parentEdges);
+		addEdges(parent2.toArray(), parentEdges);
+
+		int[] child = new int[problem.size()];
+		for (int i = 0; i < 100; i++) {
+			crossover.cross(parent1, parent2, child, random);
+			assertPermutation(child);
+
+			Set<Long> childEdges = new HashSet<>();
+			addEdges(child, childEdges);
+			childEdges.removeAll(parentEdges);
+			assertTrue(childEdges.size() <= problem.size() / 10);
+		}
+	}
+
+	@Test
+	public void test_crossover_of_equal_parents() {
+		Random random = new Random(4);
+		Problem problem = randomCartesian(random, 20);
+		Tour parent = new NearestSalesman().bestTour(problem);
+
+		int[] child = new int[problem.size()];
+		new EdgeAssemblyCrossover(problem).cross(parent, parent, child, random);
+		assertEquals(parent.getFingerprint(), Tour.fingerprint(child));
+		new OrderCrossover(problem).cross(parent, parent, child, random);
+		assertArrayEquals(parent.toArray(), child);
+		new PartiallyMappedCrossover(problem).cross(parent, parent, child, random);
+		assertArrayEquals(parent.toArray(), child);
+	}
+
+	@Test
+	public void test_selection_in_range() {
+		Random random = new Random(5);
+		Selection[] selections = { new TournamentSelection(1), new TournamentSelection(3), new RankSelection() };
+		for (Selection selection : selections) {
+			for (int populationSize = 1; populationSize <= 20; populationSize++) {
+				int sum = 0;
+				for (int i = 0; i < 1000; i++) {
+					int position = selection.select(populationSize, random);
+					assertTrue(position >= 0 && position < populationSize);
+					sum += position;
+				}
+				assertTrue(sum <= 1000 * (populationSize - 1) / 2 + 1000);
+			}
+		}
+	}
+
+	@Test
+	public void test_geneticSalesman_with_crossover() {
+		Problem problem = randomCartesian(new Random(6), 50);
+		double bestNearestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < problem.size(); i++) {
+			bestNearestDistance = Math.min(bestNearestDistance, new NearestSalesman(i).bestTour(problem).getDistance());
+		}
+
+		for (int parallelism = 1; parallelism <= 2; parallelism++) {
+			GeneticSalesman geneticSalesman = new GeneticSalesman();
+			geneticSalesman.setRandom(new Random(1));
+			geneticSalesman.setParallelism(parallelism);
+			geneticSalesman.setEvolutionStepCount(5);
+			geneticSalesman.setCrossover(EdgeAssemblyCrossover::new);
+			geneticSalesman.setSelection(new RankSelection());
+
+			Tour tour = geneticSalesman.bestTour(problem);
+			assertPermutation(tour.toArray());
+			assertEquals(new Tour(problem, tour.toArray()).getDistance(), tour.getDistance(), epsilon);
+			assertTrue(tour.getDistance() <= bestNearestDistance + epsilon);
+		}
+	}
+
+	private static void assertCreatesPermutations(Function<Problem, Crossover> crossoverFactory) {
+		Random random = new Random(1);
+		for (int cityCount = 1; cityCount <= 30; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			Crossover crossover = crossoverFactory.apply(problem);
+			int[] child = new int[cityCount];
+			for (int i = 0; i < 20; i++) {
+				Tour parent1 = new RandomSalesman(random).bestTour(problem);
+				Tour parent2 = new RandomSalesman(random).bestTour(problem);
+				crossover.cross(parent1, parent2, child, random);
+				assertPermutation(child);
+			}
+		}
+	}
+
+	private static void assertPermutation(int[] cityIndexes) {
+		boolean[] visited = new boolean[cityIndexes.length];
+		for (int cityIndex : cityIndexes) {
+			assertTrue(!visited[cityIndex]);
+			visited[cityIndex] = true;
+		}
+	}
+
+	private static void addEdges(int[] cityIndexes, Set<Long> edges) {
+		for (int i = 0; i < cityIndexes.length; i++) {
+			int a = cityIndexes[i];
+			int b = cityIndexes[(i + 1) % cityIndexes.length];
+			edges.add((long) Math.min(a, b) * cityIndexes.length + Math.max(a, b));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.assertValidTour;
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.metrics.SolverMetrics;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class GeneticSalesmanTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_bestTour_parallel_is_reproducible() {
+		Problem problem = randomCartesian(new Random(3), 80);
+
+		Tour[] tours = new Tour[2];
+		for (int i = 0; i < tours.length; i++) {
+			GeneticSalesman geneticSalesman = new GeneticSalesman();
+			geneticSalesman.setRandom(new Random(42));
+			geneticSalesman.setParallelism(4);
+			geneticSalesman.setEvolutionStepCount(20);
+			geneticSalesman.setEvolutionGenerationCount(5);
+			tours[i] = geneticSalesman.bestTour(problem);
+			assertValidTour(problem, tours[i]);
+		}
+
+		assertArrayEquals(tours[0].toArray(), tours[1].toArray());
+		assertEquals(tours[0].getDistance(), tours[1].getDistance(), 0.0);
+	}
+
+	@Test
+	public void test_bestTour_parallel_initial_population_respects_budget() {
+		Problem problem = randomCartesian(new Random(4), 1000);
+		GeneticSalesman geneticSalesman = new GeneticSalesman();
+		geneticSalesman.setRandom(new Random(4));
+		geneticSalesman.setParallelism(2);
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(50);
+		SolveProgress progress = new SolveProgress(budget);
+		Tour tour = geneticSalesman.bestTour(problem, progress);
+
+		assertValidTour(problem, tour);
+		assertEquals(SolveBudget.Limit.EVALUATIONS, progress.getExhaustedLimit());
+		assertTrue(progress.getEvaluationCount() < problem.size());
+	}
+
+	@Test
+	public void test_bestTour_memetic() {
+		Problem problem = randomCartesian(new Random(1), 60);
+		double twoOptDistance = new TwoOptSalesman().bestTour(problem).getDistance();
+
+		for (GeneticSalesman.LocalSearch localSearch : GeneticSalesman.LocalSearch.values()) {
+			for (int parallelism = 1; parallelism <= 2; parallelism++) {
+				GeneticSalesman geneticSalesman = new GeneticSalesman();
+				geneticSalesman.setRandom(new Random(1));
+				geneticSalesman.setParallelism(parallelism);
+				geneticSalesman.setEvolutionStepCount(5);
+				geneticSalesman.setLocalSearch(localSearch);
+				geneticSalesman.setLocalSearchProbability(0.5);
+
+				SolveProgress progress = new SolveProgress();
+				SolverMetrics metrics = progress.getMetrics();
+				Tour tour = geneticSalesman.bestTour(problem, progress);
+
+				assertValidTour(problem, tour);
+				if (localSearch == GeneticSalesman.LocalSearch.NONE) {
+					assertEquals(0, metrics.counter("genetic.localSearches").sum());
+				} else {
+					assertTrue(metrics.counter("genetic.localSearches").sum() >= problem.size());
+				}
+				if (localSearch == GeneticSalesman.LocalSearch.FULL) {
+					// the initial population contains the nearest neighbor tour improved by the same local search
+					assertTrue(tour.getDistance() <= twoOptDistance + epsilon);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_bestTour_memetic_with_crossover_and_budget() {
+		Problem problem = randomCartesian(new Random(2), 100);
+		GeneticSalesman geneticSalesman = new GeneticSalesman();
+		geneticSalesman.setRandom(new Random(2));
+		geneticSalesman.setEvolutionStepCount(Integer.MAX_VALUE);
+		geneticSalesman.setCrossover(OrderCrossover::new);
+		geneticSalesman.setLocalSearch(GeneticSalesman.LocalSearch.FULL);
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(200000);
+		SolveProgress progress = new SolveProgress(budget);
+		Tour tour = geneticSalesman.bestTour(problem, progress);
+
+		assertValidTour(problem, tour);
+		assertEquals(SolveBudget.Limit.EVALUATIONS, progress.getExhaustedLimit());
+		assertEquals(tour.getDistance(), progress.getBest().getDistance(), epsilon);
+	}
+}
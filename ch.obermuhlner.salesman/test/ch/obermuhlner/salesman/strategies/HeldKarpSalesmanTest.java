@@ -0,0 +1,48 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class HeldKarpSalesmanTest {
+
+	private static final double epsilon = 0.001;
+
+	@Test
+	public void test_bestTour_same_as_brute_force() {
+		Random random = new Random(1);
+		for (int cityCount = 0; cityCount <= 12; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			double expectedDistance = new BruteForceSalesman().bestTour(problem).getDistance();
+
+			Tour tour = new HeldKarpSalesman().bestTour(problem);
+			assertEquals(expectedDistance, tour.getDistance(), epsilon);
+			assertEquals(cityCount, tour.size());
+
+			HeldKarpSalesman parallelSalesman = new HeldKarpSalesman();
+			parallelSalesman.setParallelism(3);
+			assertEquals(expectedDistance, parallelSalesman.bestTour(problem).getDistance(), epsilon);
+		}
+	}
+
+	@Test
+	public void test_requiredMemory() {
+		assertEquals(0, HeldKarpSalesman.requiredMemory(1));
+		assertEquals(4 * 1 * 1, HeldKarpSalesman.requiredMemory(2));
+		assertEquals(4 * 3 * 4, HeldKarpSalesman.requiredMemory(4));
+		assertEquals(4L * 23 * (1 << 22), HeldKarpSalesman.requiredMemory(24));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_bestTour_too_many_cities() {
+		HeldKarpSalesman heldKarpSalesman = new HeldKarpSalesman();
+		heldKarpSalesman.setMaxMemory(HeldKarpSalesman.requiredMemory(10) - 1);
+		heldKarpSalesman.bestTour(randomCartesian(new Random(2), 10));
+	}
+}
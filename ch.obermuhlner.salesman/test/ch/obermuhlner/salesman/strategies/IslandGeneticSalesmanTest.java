@@ -0,0 +1,56 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.assertValidTour;
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class IslandGeneticSalesmanTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_bestTour_with_migrations() {
+		Problem problem = randomCartesian(new Random(1), 50);
+		IslandGeneticSalesman islandGeneticSalesman = new IslandGeneticSalesman();
+		islandGeneticSalesman.setRandom(new Random(1));
+		islandGeneticSalesman.setIslandCount(4);
+		islandGeneticSalesman.setEvolutionStepCount(50);
+		islandGeneticSalesman.setMigrationInterval(5);
+
+		Tour tour = islandGeneticSalesman.bestTour(problem);
+
+		assertValidTour(problem, tour);
+
+		double bestNearestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < problem.size(); i++) {
+			bestNearestDistance = Math.min(bestNearestDistance, new NearestSalesman(i).bestTour(problem).getDistance());
+		}
+		assertTrue(tour.getDistance() <= bestNearestDistance + epsilon);
+	}
+
+	@Test
+	public void test_bestTour_shares_budget() {
+		Problem problem = randomCartesian(new Random(2), 50);
+		IslandGeneticSalesman islandGeneticSalesman = new IslandGeneticSalesman();
+		islandGeneticSalesman.setIslandCount(3);
+		islandGeneticSalesman.setEvolutionStepCount(Integer.MAX_VALUE);
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(100000);
+		SolveProgress progress = new SolveProgress(budget);
+		Tour tour = islandGeneticSalesman.bestTour(problem, progress);
+
+		assertEquals(SolveBudget.Limit.EVALUATIONS, progress.getExhaustedLimit());
+		assertEquals(tour.getDistance(), progress.getBest().getDistance(), epsilon);
+	}
+}
@@ -0,0 +1,71 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.assertValidTour;
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.SolveBudget;
+import ch.obermuhlner.salesman.model.SolveProgress;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class LinKernighanSalesmanTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_improve_random_tours() {
+		Random random = new Random(1);
+		for (int cityCount = 1; cityCount <= 60; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+			linKernighanSalesman.setRandom(new Random(cityCount));
+			linKernighanSalesman.setNeighborCount(5);
+			linKernighanSalesman.setKickCount(100);
+
+			Tour start = new RandomSalesman(random).bestTour(problem);
+			Tour improved = linKernighanSalesman.improve(start);
+
+			assertValidTour(problem, improved);
+			assertTrue(improved.getDistance() <= start.getDistance() + epsilon);
+		}
+	}
+
+	@Test
+	public void test_bestTour_finds_optimum_of_small_problems() {
+		Random random = new Random(2);
+		for (int cityCount = 5; cityCount <= 9; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+			linKernighanSalesman.setRandom(new Random(cityCount));
+
+			Tour optimum = new BruteForceSalesman().bestTour(problem);
+			Tour tour = linKernighanSalesman.bestTour(problem);
+
+			assertEquals(optimum.getDistance(), tour.getDistance(), epsilon);
+		}
+	}
+
+	@Test
+	public void test_bestTour_stops_when_budget_is_exhausted() {
+		Problem problem = randomCartesian(new Random(3), 200);
+		LinKernighanSalesman linKernighanSalesman = new LinKernighanSalesman();
+		linKernighanSalesman.setRandom(new Random(3));
+		linKernighanSalesman.setKickCount(Integer.MAX_VALUE);
+
+		SolveBudget budget = new SolveBudget();
+		budget.setMaxEvaluations(10000);
+		SolveProgress progress = new SolveProgress(budget);
+		Tour tour = linKernighanSalesman.bestTour(problem, progress);
+
+		assertEquals(SolveBudget.Limit.EVALUATIONS, progress.getExhaustedLimit());
+		assertTrue(progress.getEvaluationCount() < 20000);
+		assertValidTour(problem, tour);
+		assertEquals(tour.getDistance(), progress.getBest().getDistance(), epsilon);
+	}
+}
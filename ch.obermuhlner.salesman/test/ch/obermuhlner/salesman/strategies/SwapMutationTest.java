@@ -0,0 +1,56 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class SwapMutationTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_swap_matches_full_distance() {
+		Random random = new Random(1);
+		for (int cityCount = 1; cityCount <= 10; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			SwapMutation mutation = new SwapMutation(problem);
+			
+			for (int swapCount = 0; swapCount <= 5; swapCount++) {
+				Tour parent = new RandomSalesman(random).bestTour(problem);
+				mutation.reset(parent);
+				for (int i = 0; i < swapCount; i++) {
+					mutation.swap(random.nextInt(cityCount), random.nextInt(cityCount));
+				}
+				
+				Tour child = mutation.createChild();
+				double expectedDistance = new Tour(problem, child.toArray()).getDistance();
+				assertEquals(expectedDistance, mutation.getDistance(), epsilon);
+				assertEquals(expectedDistance, child.getDistance(), epsilon);
+				assertEquals(Tour.fingerprint(child.toArray()), mutation.getFingerprint());
+				assertEquals(Tour.fingerprint(child.toArray()), child.getFingerprint());
+			}
+		}
+	}
+
+	@Test
+	public void test_swap_adjacent() {
+		Random random = new Random(2);
+		Problem problem = randomCartesian(random, 5);
+		SwapMutation mutation = new SwapMutation(problem);
+		Tour parent = problem.createTour();
+
+		mutation.reset(parent);
+		mutation.swap(4, 0);
+		mutation.swap(1, 2);
+
+		Tour child = mutation.createChild();
+		assertEquals(new Tour(problem, new int[] { 4, 2, 1, 3, 0 }), child);
+		assertEquals(new Tour(problem, child.toArray()).getDistance(), child.getDistance(), epsilon);
+	}
+}
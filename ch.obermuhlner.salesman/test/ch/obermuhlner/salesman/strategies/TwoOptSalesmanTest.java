@@ -0,0 +1,88 @@
+package ch.obermuhlner.salesman.strategies;
+
+import static ch.obermuhlner.salesman.model.ProblemFixtures.assertValidTour;
+import static ch.obermuhlner.salesman.model.ProblemFixtures.randomCartesian;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+
+public class TwoOptSalesmanTest {
+
+	private static final double epsilon = 0.00001;
+
+	@Test
+	public void test_improve_random_tours() {
+		Random random = new Random(1);
+		for (int cityCount = 1; cityCount <= 60; cityCount++) {
+			Problem problem = randomCartesian(random, cityCount);
+			for (boolean orOpt : new boolean[] { false, true }) {
+				TwoOptSalesman twoOptSalesman = new TwoOptSalesman();
+				twoOptSalesman.setOrOpt(orOpt);
+				twoOptSalesman.setNeighborCount(5);
+
+				Tour start = new RandomSalesman(random).bestTour(problem);
+				Tour improved = twoOptSalesman.improve(start);
+
+				assertValidTour(problem, improved);
+				assertTrue(improved.getDistance() <= start.getDistance() + epsilon);
+			}
+		}
+	}
+
+	@Test
+	public void test_bestTour_is_2opt_optimal() {
+		Random random = new Random(2);
+		Problem problem = randomCartesian(random, 50);
+		TwoOptSalesman twoOptSalesman = new TwoOptSalesman();
+		twoOptSalesman.setNeighborCount(problem.size() - 1);
+
+		Tour tour = twoOptSalesman.bestTour(problem);
+
+		int n = tour.size();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 2; j < n; j++) {
+				int a = tour.getCityIndex(i);
+				int b = tour.getCityIndex(i + 1);
+				int c = tour.getCityIndex(j);
+				int d = tour.getCityIndex((j + 1) % n);
+				double gain = problem.distance(a, b) + problem.distance(c, d) - problem.distance(a, c) - problem.distance(b, d);
+				assertTrue(gain < epsilon);
+			}
+		}
+	}
+
+	@Test
+	public void test_improve_from_reference() {
+		Random random = new Random(3);
+		Problem problem = randomCartesian(random, 200);
+		TwoOptSearch search = new TwoOptSearch(problem, problem.getNeighborLists(10));
+		Tour reference = search.improve(new RandomSalesman(random).bestTour(problem));
+
+		search.improve(reference, reference);
+		assertEquals(0, search.getMoveCount());
+
+		for (boolean singlePass : new boolean[] { false, true }) {
+			search.setSinglePass(singlePass);
+			for (int i = 0; i < 20; i++) {
+				int[] cityIndexes = reference.toArray();
+				int index1 = random.nextInt(cityIndexes.length);
+				int index2 = random.nextInt(cityIndexes.length);
+				int tmp = cityIndexes[index1];
+				cityIndexes[index1] = cityIndexes[index2];
+				cityIndexes[index2] = tmp;
+				Tour start = new Tour(problem, cityIndexes);
+
+				Tour improved = search.improve(start, reference);
+
+				assertValidTour(problem, improved);
+				assertTrue(improved.getDistance() <= start.getDistance() + epsilon);
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package ch.obermuhlner.salesman.tsplib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import ch.obermuhlner.salesman.model.City;
+import ch.obermuhlner.salesman.model.Problem;
+import ch.obermuhlner.salesman.model.Tour;
+import ch.obermuhlner.salesman.strategies.HeldKarpSalesman;
+
+public class TsplibReaderTest {
+
+	private static final double epsilon = 0.00001;
+
+	private static final String ULYSSES16 = "NAME: ulysses16.tsp\n"
+			+ "TYPE: TSP\n"
+			+ "COMMENT: Odyssey of Ulysses (Groetschel/Padberg)\n"
+			+ "DIMENSION: 16\n"
+			+ "EDGE_WEIGHT_TYPE: GEO\n"
+			+ "DISPLAY_DATA_TYPE: COORD_DISPLAY\n"
+			+ "NODE_COORD_SECTION\n"
+			+ " 1 38.24 20.42\n"
+			+ " 2 39.57 26.15\n"
+			+ " 3 40.56 25.32\n"
+			+ " 4 36.26 23.12\n"
+			+ " 5 33.48 10.54\n"
+			+ " 6 37.56 12.19\n"
+			+ " 7 38.42 13.11\n"
+			+ " 8 37.52 20.44\n"
+			+ " 9 41.23 9.10\n"
+			+ " 10 41.17 13.05\n"
+			+ " 11 36.08 -5.21\n"
+			+ " 12 38.47 15.13\n"
+			+ " 13 38.15 15.35\n"
+			+ " 14 37.51 15.17\n"
+			+ " 15 35.49 14.32\n"
+			+ " 16 39.36 19.56\n"
+			+ "EOF\n";
+
+	@Test
+	public void test_readProblem_geo_optimum() throws IOException {
+		TsplibProblem tsplibProblem = TsplibReader.readProblem(createFile(ULYSSES16).getPath());
+
+		assertEquals("ulysses16.tsp", tsplibProblem.getName());
+		assertEquals(EdgeWeightType.GEO, tsplibProblem.getEdgeWeightType());
+		assertEquals(16, tsplibProblem.getCities().size());
+		assertEquals("11", tsplibProblem.getCities().get(10).name);
+		assertEquals(36.08, tsplibProblem.getCities().get(10).x, epsilon);
+		assertEquals(-5.21, tsplibProblem.getCities().get(10).y, epsilon);
+
+		// published optimum of ulysses16
+		Tour tour = new HeldKarpSalesman().bestTour(tsplibProblem.createProblem());
+		assertEquals(6859, tour.getDistance(), epsilon);
+	}
+
+	@Test
+	public void test_readProblem_euc_2d_and_att() throws IOException {
+		String content = "NAME : test\nTYPE : TSP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EUC_2D\nNODE_COORD_SECTION\n1 0 0\n3 10.0e+00 0\n2 3 4.4\nEOF\n";
+		Problem problem = TsplibReader.readProblem(createFile(content).getPath()).createProblem();
+		assertEquals(5, problem.distance(0, 1), epsilon);
+		assertEquals(10, problem.distance(0, 2), epsilon);
+
+		Problem attProblem = TsplibReader.readProblem(createFile(content.replace("EUC_2D", "ATT")).getPath()).createProblem();
+		assertEquals(4, attProblem.distance(0, 2), epsilon);
+	}
+
+	@Test
+	public void test_readProblem_explicit_lower_diag_row() throws IOException {
+		String content = "NAME: explicit\nTYPE: TSP\nDIMENSION: 4\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: LOWER_DIAG_ROW\nEDGE_WEIGHT_SECTION\n"
+				+ "0 1 0\n2 5 0 3 4\n6 0\nEOF\n";
+		Problem problem = TsplibReader.readProblem(createFile(content).getPath()).createProblem();
+
+		assertEquals(1, problem.distance(1, 0), epsilon);
+		assertEquals(1, problem.distance(0, 1), epsilon);
+		assertEquals(2, problem.distance(0, 2), epsilon);
+		assertEquals(5, problem.distance(2, 1), epsilon);
+		assertEquals(3, problem.distance(3, 0), epsilon);
+		assertEquals(4, problem.distance(1, 3), epsilon);
+		assertEquals(6, problem.distance(3, 2), epsilon);
+		assertEquals(1 + 5 + 6 + 3, problem.createTour().getDistance(), epsilon);
+	}
+
+	@Test
+	public void test_write_and_read() throws IOException {
+		TsplibProblem tsplibProblem = TsplibReader.readProblem(createFile(ULYSSES16).getPath());
+		Problem problem = tsplibProblem.createProblem();
+
+		File problemFile = createFile("");
+		TsplibWriter.writeProblem(problemFile.getPath(), tsplibProblem);
+		TsplibProblem readProblem = TsplibReader.readProblem(problemFile.getPath());
+		for (int i = 0; i < problem.size(); i++) {
+			City city = readProblem.getCities().get(i);
+			assertEquals(tsplibProblem.getCities().get(i).x, city.x, 0.0);
+			assertEquals(tsplibProblem.getCities().get(i).y, city.y, 0.0);
+		}
+
+		File explicitFile = createFile("");
+		TsplibWriter.writeProblem(explicitFile.getPath(), new TsplibProblem("explicit", null, EdgeWeightType.EXPLICIT, tsplibProblem.getCities(), tsplibProblem.getDistanceCalculator()));
+		Problem explicitProblem = TsplibReader.readProblem(explicitFile.getPath()).createProblem();
+		for (int i = 0; i < problem.size(); i++) {
+			for (int j = 0; j < problem.size(); j++) {
+				assertEquals(problem.distance(i, j), explicitProblem.distance(i, j), 0.0);
+			}
+		}
+
+		Tour tour = new Tour(problem, new int[] { 3, 1, 0, 2, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 });
+		File tourFile = createFile("");
+		TsplibWriter.writeTour(tourFile.getPath(), "ulysses16.tour", tour);
+		assertArrayEquals(tour.toArray(), TsplibReader.readTour(tourFile.getPath()));
+		assertEquals(tour.getDistance(), TsplibReader.readTour(tourFile.getPath(), explicitProblem).getDistance(), epsilon);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_readProblem_unsupported_edge_weight_type() throws IOException {
+		TsplibReader.readProblem(createFile(ULYSSES16.replace("GEO", "MAN_3D")).getPath());
+	}
+
+	private static File createFile(String content) throws IOException {
+		File file = File.createTempFile("tsplib", ".tsp");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+		return file;
+	}
+}
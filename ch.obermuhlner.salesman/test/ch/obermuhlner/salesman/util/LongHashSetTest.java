@@ -0,0 +1,57 @@
+package ch.obermuhlner.salesman.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+	@Test
+	public void test_add_contains() {
+		LongHashSet set = new LongHashSet();
+
+		assertTrue(set.add(42));
+		assertFalse(set.add(42));
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.add(-1));
+		assertTrue(set.add(Long.MIN_VALUE));
+
+		assertTrue(set.contains(42));
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(-1));
+		assertTrue(set.contains(Long.MIN_VALUE));
+		assertFalse(set.contains(43));
+		assertEquals(4, set.size());
+
+		set.clear();
+		assertFalse(set.contains(42));
+		assertFalse(set.contains(0));
+		assertEquals(0, set.size());
+	}
+
+	@Test
+	public void test_grow_matches_HashSet() {
+		Random random = new Random(1);
+		LongHashSet set = new LongHashSet(4);
+		Set<Long> expected = new HashSet<>();
+
+		for (int i = 0; i < 100000; i++) {
+			// small range to get many duplicates, shifted to test values that differ only in the high bits
+			long value = ((long) random.nextInt(50000)) << 40;
+			assertEquals(expected.add(value), set.add(value));
+		}
+
+		assertEquals(expected.size(), set.size());
+		for (int i = 0; i < 50000; i++) {
+			long value = ((long) i) << 40;
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package ch.obermuhlner.salesman.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WeightedSamplerTest {
+
+	@Test
+	public void test_sample_proportional_to_weights() {
+		long[] weights = { 1, 0, 2, 3, 0, 4, 10 };
+		WeightedSampler sampler = new WeightedSampler(weights);
+		assertEquals(20, sampler.getTotalWeight());
+
+		Random random = new Random(1);
+		int sampleCount = 200000;
+		int[] counts = new int[weights.length];
+		for (int i = 0; i < sampleCount; i++) {
+			counts[sampler.sample(random)]++;
+		}
+
+		for (int i = 0; i < weights.length; i++) {
+			assertEquals((double) weights[i] / 20, (double) counts[i] / sampleCount, 0.01);
+		}
+	}
+
+	@Test
+	public void test_sampleAndRemove_all() {
+		long[] weights = new long[1000];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = i % 7 + 1;
+		}
+		WeightedSampler sampler = new WeightedSampler(weights);
+		WeightedSampler copy = sampler.copy();
+
+		Random random = new Random(2);
+		Set<Integer> sampled = new HashSet<>();
+		for (int i = 0; i < weights.length; i++) {
+			assertTrue(sampled.add(copy.sampleAndRemove(random)));
+		}
+		assertEquals(0, copy.getTotalWeight());
+
+		assertEquals(weights.length, sampled.size());
+		assertEquals(3997, sampler.getTotalWeight());
+	}
+
+	@Test
+	public void test_add_restores_removed_weights() {
+		long[] weights = { 5, 0, 3, 7, 1 };
+		WeightedSampler sampler = new WeightedSampler(weights);
+		WeightedSampler reference = sampler.copy();
+
+		Random random = new Random(5);
+		int index1 = sampler.sampleAndRemove(random);
+		int index2 = sampler.sampleAndRemove(random);
+		sampler.add(index2, weights[index2]);
+		sampler.add(index1, weights[index1]);
+
+		assertEquals(16, sampler.getTotalWeight());
+		Random random1 = new Random(6);
+		Random random2 = new Random(6);
+		for (int i = 0; i < weights.length; i++) {
+			assertEquals(weights[i], sampler.getWeight(i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(reference.sample(random1), sampler.sample(random2));
+		}
+	}
+
+	@Test
+	public void test_sample_large_weights() {
+		long[] weights = { Long.MAX_VALUE / 4, 0, Long.MAX_VALUE / 4 };
+		WeightedSampler sampler = new WeightedSampler(weights);
+
+		Random random = new Random(3);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(sampler.sample(random) != 1);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_sample_without_weights() {
+		new WeightedSampler(new long[] { 0, 0 }).sample(new Random(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_negative_weight() {
+		new WeightedSampler(new long[] { 1, -1 });
+	}
+}